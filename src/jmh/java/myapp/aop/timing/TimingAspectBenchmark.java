@@ -0,0 +1,90 @@
+package myapp.aop.timing;
+
+import java.util.concurrent.TimeUnit;
+import myapp.ApplicationState;
+import myapp.domain.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.data.repository.Repository;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Overhead of the {@link TimingAspect} of the application, with its meter registry, on a call doing nothing:
+ * <ul>
+ *     <li>{@code direct}: the call without the aspect;</li>
+ *     <li>{@code controller}: a call of a controller, timed;</li>
+ *     <li>{@code repository}: a call of a repository, through a JDK proxy as for Spring Data, only checked for
+ *     slowness.</li>
+ * </ul>
+ * The overhead must stay below a microsecond for the aspect to run in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimingAspectBenchmark {
+
+    @RestController
+    public static class Controller {
+
+        public long next(long value) {
+            return value + 1;
+        }
+    }
+
+    public interface Things extends Repository<Product, Long> {
+        long next(long value);
+    }
+
+    private Controller direct;
+
+    private Controller controller;
+
+    private Things repository;
+
+    private long value;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        TimingAspect aspect = application.getBean(TimingAspect.class);
+        direct = new Controller();
+
+        AspectJProxyFactory controllerProxy = new AspectJProxyFactory(new Controller());
+        controllerProxy.setProxyTargetClass(true);
+        controllerProxy.addAspect(aspect);
+        controller = controllerProxy.getProxy();
+
+        Things things = v -> v + 1;
+        AspectJProxyFactory repositoryProxy = new AspectJProxyFactory(things);
+        repositoryProxy.addInterface(Things.class);
+        repositoryProxy.addAspect(aspect);
+        repository = repositoryProxy.getProxy();
+    }
+
+    @Benchmark
+    public long direct() {
+        return value = direct.next(value);
+    }
+
+    @Benchmark
+    public long controller() {
+        return value = controller.next(value);
+    }
+
+    @Benchmark
+    public long repository() {
+        return value = repository.next(value);
+    }
+}
@@ -0,0 +1,223 @@
+package myapp.domain;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import myapp.ApplicationState;
+import myapp.domain.enumeration.ProductStatus;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+
+/**
+ * Cost of persisting a write of products, orders and order lines through a Hibernate session on H2, with the ids
+ * of all the entities drawn from the shared {@code sequence_generator} by blocks of 50, as before the per-entity
+ * sequences, or from the per-entity pooled-lo sequences the entities are mapped with.
+ * <p>
+ * Each mapping runs in a fork of its own, on a session factory built with the Hibernate settings of the application
+ * over its database. The {@code sequenceCalls} and {@code rows} counters of the report give the sequence round trips
+ * per row written.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntitySequenceBenchmark {
+
+    private static final String SHARED_SEQUENCE = "sequence_generator";
+
+    private static final int SHARED_SEQUENCE_INCREMENT = 50;
+
+    private static final int PRODUCTS = 100;
+
+    private static final int ORDERS = 25;
+
+    private static final int LINES_PER_ORDER = 4;
+
+    private static final Class<?>[] ENTITIES = {
+        Product.class,
+        Order.class,
+        OrderLine.class,
+        Customer.class,
+        Address.class,
+        Category.class,
+        WishList.class,
+    };
+
+    private static final AtomicLong SEQUENCE_CALLS = new AtomicLong();
+
+    @Param({ "shared", "perEntity" })
+    public String mapping;
+
+    private SessionFactory sessionFactory;
+
+    private Long firstProductId;
+
+    private Long firstOrderId;
+
+    /**
+     * The rows written and the sequence calls made by the benchmark, reported per iteration.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+
+        public long rows;
+
+        public long sequenceCalls;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+            sequenceCalls = 0;
+        }
+    }
+
+    /**
+     * Counts the statements fetching the next value of a sequence.
+     */
+    public static class SequenceCallCounter implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            String statement = sql.toLowerCase();
+            if (statement.contains("next value for") || statement.contains("nextval(")) {
+                SEQUENCE_CALLS.incrementAndGet();
+            }
+            return sql;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        Map<String, Object> settings = new HashMap<>(application.getBean(JpaProperties.class).getProperties());
+        settings.put(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, application.getBean(DataSource.class));
+        settings.put(
+            AvailableSettings.PHYSICAL_NAMING_STRATEGY,
+            application.getEnvironment().getProperty("spring.jpa.hibernate.naming.physical-strategy")
+        );
+        settings.put(
+            AvailableSettings.IMPLICIT_NAMING_STRATEGY,
+            application.getEnvironment().getProperty("spring.jpa.hibernate.naming.implicit-strategy")
+        );
+        settings.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+        settings.put(AvailableSettings.STATEMENT_INSPECTOR, new SequenceCallCounter());
+        if ("shared".equals(mapping)) {
+            // the optimizer of the shared sequence, whose values were the high end of each block
+            settings.put(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled");
+        }
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder().applySettings(settings).build();
+        MetadataSources sources = new MetadataSources(registry).addAnnotatedClasses(ENTITIES);
+        if ("shared".equals(mapping)) {
+            sources.addInputStream(new ByteArrayInputStream(sharedSequenceMappings().getBytes(StandardCharsets.UTF_8)));
+        }
+        Metadata metadata = sources.buildMetadata();
+        sessionFactory = metadata.buildSessionFactory();
+    }
+
+    /**
+     * The former id mapping of every entity, {@code @SequenceGenerator(name = "sequenceGenerator")}, overriding the
+     * annotations of the entities.
+     */
+    private static String sharedSequenceMappings() {
+        StringBuilder mappings = new StringBuilder()
+            .append("<entity-mappings xmlns=\"https://jakarta.ee/xml/ns/persistence/orm\" version=\"3.1\">")
+            .append("<sequence-generator name=\"sequenceGenerator\" sequence-name=\"")
+            .append(SHARED_SEQUENCE)
+            .append("\" allocation-size=\"")
+            .append(SHARED_SEQUENCE_INCREMENT)
+            .append("\"/>");
+        for (Class<?> entity : ENTITIES) {
+            mappings
+                .append("<entity class=\"")
+                .append(entity.getName())
+                .append("\"><attributes><id name=\"id\"><column name=\"id\"/>")
+                .append("<generated-value strategy=\"SEQUENCE\" generator=\"sequenceGenerator\"/></id></attributes></entity>");
+        }
+        return mappings.append("</entity-mappings>").toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteRows() {
+        if (firstProductId == null) {
+            return;
+        }
+        sessionFactory.inTransaction(session -> {
+            session.createMutationQuery("delete from OrderLine where order.id >= :id").setParameter("id", firstOrderId).executeUpdate();
+            session.createMutationQuery("delete from Order where id >= :id").setParameter("id", firstOrderId).executeUpdate();
+            session.createMutationQuery("delete from Product where id >= :id").setParameter("id", firstProductId).executeUpdate();
+        });
+    }
+
+    @Benchmark
+    public List<Product> persist(Counters counters) {
+        long sequenceCalls = SEQUENCE_CALLS.get();
+        Instant now = Instant.now();
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        sessionFactory.inTransaction(session -> {
+            for (int i = 0; i < PRODUCTS; i++) {
+                Product product = new Product()
+                    .title("Product " + i)
+                    .price(BigDecimal.TEN)
+                    .quantityInStock(10)
+                    .status(ProductStatus.IN_STOCK)
+                    .dateAdded(now);
+                session.persist(product);
+                products.add(product);
+            }
+            for (int i = 0; i < ORDERS; i++) {
+                Order order = new Order().orderDate(now).status("NEW").totalAmount(BigDecimal.TEN);
+                session.persist(order);
+                if (firstOrderId == null) {
+                    firstOrderId = order.getId();
+                }
+                for (int j = 0; j < LINES_PER_ORDER; j++) {
+                    Product product = products.get((i * LINES_PER_ORDER + j) % PRODUCTS);
+                    session.persist(
+                        new OrderLine().quantity(1).unitPrice(BigDecimal.TEN).productTitle(product.getTitle()).order(order).product(product)
+                    );
+                }
+            }
+        });
+        if (firstProductId == null) {
+            firstProductId = products.get(0).getId();
+        }
+        counters.rows += PRODUCTS + ORDERS * (1 + LINES_PER_ORDER);
+        counters.sequenceCalls += SEQUENCE_CALLS.get() - sequenceCalls;
+        return products;
+    }
+}
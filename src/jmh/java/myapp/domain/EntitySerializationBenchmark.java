@@ -0,0 +1,115 @@
+package myapp.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import myapp.ApplicationState;
+import myapp.domain.enumeration.ProductStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of writing the JSON of the entities returned by the REST resources, with the {@link ObjectMapper} of the
+ * application:
+ * <ul>
+ *     <li>{@code product}: a single product;</li>
+ *     <li>{@code productPage}: a page of 20 products;</li>
+ *     <li>{@code order}: an order of 10 lines, each with its product.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntitySerializationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final int ORDER_LINES = 10;
+
+    private ObjectMapper objectMapper;
+
+    private Product product;
+
+    private List<Product> productPage;
+
+    private Order order;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        objectMapper = application.getBean(ObjectMapper.class);
+        product = product(1L);
+        productPage = new ArrayList<>(PAGE_SIZE);
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            productPage.add(product(id));
+        }
+        order = new Order()
+            .id(1L)
+            .version(0L)
+            .orderDate(Instant.parse("2024-01-01T10:00:00Z"))
+            .status("PLACED")
+            .shippingCost(new BigDecimal("4.99"))
+            .trackingNumber("TRK-0000000001");
+        BigDecimal total = order.getShippingCost();
+        for (long id = 1; id <= ORDER_LINES; id++) {
+            Product lineProduct = product(id);
+            order.addOrderLine(
+                new OrderLine()
+                    .id(id)
+                    .product(lineProduct)
+                    .productTitle(lineProduct.getTitle())
+                    .unitPrice(lineProduct.getPrice())
+                    .quantity(2)
+            );
+            total = total.add(lineProduct.getPrice().multiply(BigDecimal.valueOf(2)));
+        }
+        order.totalAmount(total);
+    }
+
+    private static Product product(long id) {
+        return new Product()
+            .id(id)
+            .version(3L)
+            .title("Product " + id)
+            .keywords("mug cup ceramic kitchen")
+            .description("A ceramic mug for coffee or tea, dishwasher safe, holding 350 ml.")
+            .rating(4)
+            .price(new BigDecimal("12.50"))
+            .quantityInStock(50)
+            .status(ProductStatus.IN_STOCK)
+            .weight(0.35)
+            .dimensions("9 x 9 x 11 cm")
+            .dateAdded(Instant.parse("2024-01-01T00:00:00Z"))
+            .dateModified(Instant.parse("2024-06-01T00:00:00Z"));
+    }
+
+    @Benchmark
+    public byte[] product() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] productPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(productPage);
+    }
+
+    @Benchmark
+    public byte[] order() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+}
@@ -0,0 +1,100 @@
+package myapp.repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import myapp.ApplicationState;
+import myapp.domain.Category;
+import myapp.domain.Product;
+import myapp.domain.enumeration.CategoryStatus;
+import myapp.domain.enumeration.ProductStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Cost of {@link CategoryRepositoryWithBagRelationshipsImpl#fetchBagRelationships(List)} on H2: fetching the
+ * products of a page of categories sorted otherwise than by id, and putting the fetched categories back in the
+ * order of the page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategoryBagRelationshipsBenchmark {
+
+    private static final int PRODUCTS = 500;
+
+    private static final int PRODUCTS_PER_CATEGORY = 10;
+
+    @Param({ "20", "100" })
+    public int pageSize;
+
+    private CategoryRepository categoryRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    private List<Category> page;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        categoryRepository = application.getBean(CategoryRepository.class);
+        ProductRepository productRepository = application.getBean(ProductRepository.class);
+        transactionTemplate = new TransactionTemplate(application.getBean(PlatformTransactionManager.class));
+        Instant now = Instant.now();
+        Random random = new Random(42);
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Product> products = new ArrayList<>(PRODUCTS);
+            for (int i = 0; i < PRODUCTS; i++) {
+                products.add(
+                    new Product()
+                        .title("Product " + i)
+                        .price(BigDecimal.TEN)
+                        .quantityInStock(10)
+                        .status(ProductStatus.IN_STOCK)
+                        .dateAdded(now)
+                );
+            }
+            productRepository.saveAll(products);
+            List<Category> categories = new ArrayList<>(pageSize);
+            for (int i = 0; i < pageSize; i++) {
+                Category category = new Category()
+                    .description("Category " + i)
+                    .sortOrder(random.nextInt(1000))
+                    .dateAdded(now)
+                    .status(CategoryStatus.AVAILABLE);
+                for (int j = 0; j < PRODUCTS_PER_CATEGORY; j++) {
+                    category.addProduct(products.get(random.nextInt(PRODUCTS)));
+                }
+                categories.add(category);
+            }
+            categoryRepository.saveAll(categories);
+        });
+        page = transactionTemplate.execute(status ->
+            categoryRepository.findAll(PageRequest.of(0, pageSize, Sort.by("sortOrder"))).getContent()
+        );
+    }
+
+    @Benchmark
+    public List<Category> fetchBagRelationships() {
+        return transactionTemplate.execute(status -> categoryRepository.fetchBagRelationships(page));
+    }
+}
@@ -0,0 +1,59 @@
+package myapp.security;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import myapp.ApplicationState;
+import myapp.domain.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Cost of loading the user logging in, the {@code admin} user of the test data, on H2:
+ * <ul>
+ *     <li>{@code loadUser}: the user is read from the database, with its authorities;</li>
+ *     <li>{@code loadCachedUser}: the user is in the {@value DomainUserDetailsService#USER_DETAILS_CACHE} cache.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DomainUserDetailsServiceBenchmark {
+
+    private static final String LOGIN = "admin";
+
+    private DomainUserDetailsService userDetailsService;
+
+    private List<String> cacheKeys;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        userDetailsService = application.getBean(DomainUserDetailsService.class);
+        User user = new User();
+        user.setLogin(LOGIN);
+        cacheKeys = DomainUserDetailsService.cacheKeys(user);
+    }
+
+    @Benchmark
+    public UserDetails loadUser() {
+        userDetailsService.evict(cacheKeys);
+        return userDetailsService.loadUserByUsername(LOGIN);
+    }
+
+    @Benchmark
+    public UserDetails loadCachedUser() {
+        return userDetailsService.loadUserByUsername(LOGIN);
+    }
+}
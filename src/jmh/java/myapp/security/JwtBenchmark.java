@@ -0,0 +1,90 @@
+package myapp.security;
+
+import static myapp.security.SecurityUtils.JWT_ALGORITHM;
+
+import com.nimbusds.jose.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.spec.SecretKeySpec;
+import myapp.ApplicationState;
+import myapp.web.rest.AuthenticateController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+/**
+ * Cost of the tokens of the application, with its encoder and decoder:
+ * <ul>
+ *     <li>{@code createToken}: {@link AuthenticateController#createToken} signing the token of a user logging in;</li>
+ *     <li>{@code decode}: the {@link CachingJwtDecoder} decoding a token it already verified, as for every request of
+ *     a client but its first;</li>
+ *     <li>{@code decodeAndVerify}: parsing the token and verifying its signature, as for the first request.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private AuthenticateController authenticateController;
+
+    private JwtDecoder jwtDecoder;
+
+    private JwtDecoder verifyingDecoder;
+
+    private Authentication authentication;
+
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        authenticateController = application.getBean(AuthenticateController.class);
+        jwtDecoder = application.getBean(JwtDecoder.class);
+        byte[] key = Base64.from(application.getEnvironment().getRequiredProperty("jhipster.security.authentication.jwt.base64-secret"))
+            .decode();
+        NimbusJwtDecoder nimbusJwtDecoder = NimbusJwtDecoder.withSecretKey(new SecretKeySpec(key, JWT_ALGORITHM.getName()))
+            .macAlgorithm(JWT_ALGORITHM)
+            .build();
+        nimbusJwtDecoder.setJwtValidator(new JwtTimestampValidator());
+        verifyingDecoder = nimbusJwtDecoder;
+        authentication = new UsernamePasswordAuthenticationToken(
+            "admin",
+            null,
+            List.of(new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN), new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+        token = authenticateController.createToken(authentication, false);
+    }
+
+    @Benchmark
+    public String createToken() {
+        return authenticateController.createToken(authentication, false);
+    }
+
+    @Benchmark
+    public Jwt decode() {
+        return jwtDecoder.decode(token);
+    }
+
+    @Benchmark
+    public Jwt decodeAndVerify() {
+        return verifyingDecoder.decode(token);
+    }
+}
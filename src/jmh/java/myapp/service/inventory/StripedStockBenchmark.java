@@ -0,0 +1,85 @@
+package myapp.service.inventory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reservation throughput on a single hot product, with 64 buyers:
+ * <ul>
+ *     <li>{@code row}: every reservation is a conditional update of the product row, which stays locked
+ *     for a database round trip;</li>
+ *     <li>{@code single}: reservations are served from a single in-memory counter, leasing blocks of
+ *     units from the row;</li>
+ *     <li>{@code striped}: same, with the units spread over {@link StripedStock#defaultStripes()} counters.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class StripedStockBenchmark {
+
+    private static final int LEASE_SIZE = 50;
+
+    @Param({ "row", "single", "striped" })
+    public String stock;
+
+    @Param({ "200" })
+    public long roundTripMicros;
+
+    private Row row;
+
+    private StripedStock stripedStock;
+
+    /**
+     * A product row with plenty of stock; a take holds its lock for a database round trip.
+     */
+    private static final class Row implements StripedStock.Source {
+
+        private final long roundTripNanos;
+        private long quantity = Long.MAX_VALUE;
+
+        private Row(long roundTripNanos) {
+            this.roundTripNanos = roundTripNanos;
+        }
+
+        @Override
+        public synchronized boolean take(int units) {
+            LockSupport.parkNanos(roundTripNanos);
+            quantity -= units;
+            return true;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        row = new Row(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+        stripedStock = switch (stock) {
+            case "row" -> null;
+            case "single" -> new StripedStock(1, LEASE_SIZE, row);
+            case "striped" -> new StripedStock(StripedStock.defaultStripes(), LEASE_SIZE, row);
+            default -> throw new IllegalArgumentException("Unknown stock: " + stock);
+        };
+    }
+
+    @Benchmark
+    public boolean reserve() {
+        return stripedStock == null ? row.take(1) : stripedStock.take(1);
+    }
+}
@@ -0,0 +1,80 @@
+package myapp.service.mapper;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import myapp.domain.Authority;
+import myapp.domain.User;
+import myapp.service.dto.AdminUserDTO;
+import myapp.service.dto.UserDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of mapping a page of users to their DTOs, as the user resources do:
+ * <ul>
+ *     <li>{@code usersToUserDTOs}: the public view of the users;</li>
+ *     <li>{@code usersToAdminUserDTOs}: the administration view, with the authorities.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    @Param({ "20", "1000" })
+    public int users;
+
+    private final UserMapper userMapper = new UserMapper();
+
+    private List<User> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Authority admin = new Authority();
+        admin.setName("ROLE_ADMIN");
+        Authority user = new Authority();
+        user.setName("ROLE_USER");
+        page = new ArrayList<>(users);
+        for (long id = 1; id <= users; id++) {
+            User entity = new User();
+            entity.setId(id);
+            entity.setLogin("user" + id);
+            entity.setFirstName("First" + id);
+            entity.setLastName("Last" + id);
+            entity.setEmail("user" + id + "@localhost");
+            entity.setActivated(true);
+            entity.setLangKey("en");
+            entity.setCreatedBy("system");
+            entity.setCreatedDate(Instant.parse("2024-01-01T00:00:00Z"));
+            entity.setAuthorities(new HashSet<>(id % 10 == 0 ? Set.of(admin, user) : Set.of(user)));
+            page.add(entity);
+        }
+    }
+
+    @Benchmark
+    public List<UserDTO> usersToUserDTOs() {
+        return userMapper.usersToUserDTOs(page);
+    }
+
+    @Benchmark
+    public List<AdminUserDTO> usersToAdminUserDTOs() {
+        return userMapper.usersToAdminUserDTOs(page);
+    }
+}
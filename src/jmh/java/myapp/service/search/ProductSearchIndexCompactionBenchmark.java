@@ -0,0 +1,96 @@
+package myapp.service.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import myapp.domain.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Search latency on a large catalog while a writer keeps re-indexing products out of order, which triggers
+ * a compaction every few thousand writes. Compare the percentiles of {@code search} with and without the
+ * {@code write} thread ({@code -p writers=0}): a compaction should not show up as a stall of the searches.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class ProductSearchIndexCompactionBenchmark {
+
+    private static final String[] WORDS = {
+        "red",
+        "blue",
+        "green",
+        "ceramic",
+        "steel",
+        "wooden",
+        "mug",
+        "plate",
+        "bowl",
+        "lamp",
+        "chair",
+        "table",
+        "small",
+        "large",
+        "classic",
+        "modern",
+    };
+
+    @Param({ "1000000" })
+    public int products;
+
+    @Param({ "1", "0" })
+    public int writers;
+
+    private ProductSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new ProductSearchIndex(new SimpleMeterRegistry());
+        for (long id = 1; id <= products; id++) {
+            index.index(product(id));
+        }
+        index.trim();
+    }
+
+    private static Product product(long id) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + id);
+        product.setDescription(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]);
+        return product;
+    }
+
+    @Benchmark
+    @Group("compaction")
+    @GroupThreads(3)
+    public ProductSearchIndex.Hits search() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return index.search("+" + WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)], 0, 20);
+    }
+
+    @Benchmark
+    @Group("compaction")
+    @GroupThreads(1)
+    public void write() {
+        if (writers > 0) {
+            index.index(product(1 + ThreadLocalRandom.current().nextInt(products)));
+        }
+    }
+}
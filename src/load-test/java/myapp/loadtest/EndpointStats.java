@@ -0,0 +1,46 @@
+package myapp.loadtest;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * The latencies and the statuses of the responses of an endpoint, over the measurement.
+ */
+final class EndpointStats {
+
+    /**
+     * The status of the requests which got no response: connection refused, timeout...
+     */
+    static final int NO_RESPONSE = 0;
+
+    private final Recorder latencies = new Recorder(3);
+
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    void record(int status, long latencyNanos) {
+        latencies.recordValue(Math.max(0, latencyNanos));
+        statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * @return the latencies recorded, in nanoseconds; to be called once, at the end of the measurement.
+     */
+    Histogram latencies() {
+        return latencies.getIntervalHistogram();
+    }
+
+    SortedMap<Integer, Long> statuses() {
+        SortedMap<Integer, Long> counts = new TreeMap<>();
+        statuses.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+
+    static boolean isError(int status) {
+        return status < 200 || status >= 300;
+    }
+}
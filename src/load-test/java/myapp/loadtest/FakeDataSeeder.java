@@ -0,0 +1,170 @@
+package myapp.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Seeds the application with the fake data of Liquibase, {@code config/liquibase/fake-data}, copied {@code scale}
+ * times, through its REST API: the products are imported as a single feed, the customers created one by one.
+ * <p>
+ * The copies of a customer get an email address of their own, unique to the run, as emails are unique.
+ */
+final class FakeDataSeeder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FakeDataSeeder.class);
+
+    private static final String FAKE_DATA = "config/liquibase/fake-data/";
+
+    private static final Pattern LOCAL_DATE_TIME = Pattern.compile("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}");
+
+    private static final Pattern NOT_A_WORD = Pattern.compile("[^\\p{L}]+");
+
+    private static final int READ_PAGE_SIZE = 1000;
+
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    private final LoadClient client;
+
+    FakeDataSeeder(LoadClient client) {
+        this.client = client;
+    }
+
+    TestData seed(int scale) {
+        seedProducts(scale);
+        List<Long> customerIds = seedCustomers(scale);
+
+        List<Long> productIds = new ArrayList<>();
+        List<Long> inStockProductIds = new ArrayList<>();
+        TreeSet<String> searchTerms = new TreeSet<>();
+        for (int page = 0;; page++) {
+            String path = "/api/products?page=" + page + "&size=" + READ_PAGE_SIZE + "&sort=id,asc";
+            JsonNode products = client.json(client.call(client.get(path)));
+            for (JsonNode product : products) {
+                productIds.add(product.path("id").asLong());
+                if ("IN_STOCK".equals(product.path("status").asText())) {
+                    inStockProductIds.add(product.path("id").asLong());
+                }
+                addWords(searchTerms, product.path("title").asText(""));
+                addWords(searchTerms, product.path("keywords").asText(""));
+            }
+            if (products.size() < READ_PAGE_SIZE) {
+                break;
+            }
+        }
+        if (productIds.isEmpty() || inStockProductIds.isEmpty() || customerIds.isEmpty() || searchTerms.isEmpty()) {
+            throw new IllegalStateException("No products in stock, customers or search terms to load the application with");
+        }
+        LOG.info(
+            "Loading {} products, {} in stock, {} customers, {} search terms",
+            productIds.size(),
+            inStockProductIds.size(),
+            customerIds.size(),
+            searchTerms.size()
+        );
+        int productPages = (productIds.size() + Scenario.PAGE_SIZE - 1) / Scenario.PAGE_SIZE;
+        return new TestData(productIds, inStockProductIds, customerIds, List.copyOf(searchTerms), productPages);
+    }
+
+    private void seedProducts(int scale) {
+        List<Map<String, String>> rows = read("product.csv");
+        List<Map<String, String>> feed = new ArrayList<>(rows.size() * scale);
+        for (int copy = 1; copy <= scale; copy++) {
+            for (Map<String, String> row : rows) {
+                Map<String, String> product = new LinkedHashMap<>();
+                row.forEach((column, value) -> {
+                    if (!"id".equals(column)) {
+                        product.put(column, LOCAL_DATE_TIME.matcher(value).matches() ? value + "Z" : value);
+                    }
+                });
+                product.put("title", product.get("title") + " " + copy);
+                feed.add(product);
+            }
+        }
+        CsvSchema.Builder schema = CsvSchema.builder().setUseHeader(true);
+        feed.get(0).keySet().forEach(schema::addColumn);
+        byte[] csv;
+        try {
+            csv = csvMapper.writer(schema.build()).writeValueAsBytes(feed);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        HttpRequest request = client
+            .request("/api/products/_bulk", true)
+            .header("Content-Type", "text/csv")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(csv))
+            .build();
+        JsonNode report = client.json(client.call(request));
+        LOG.info("Seeded {} products, {} rejected", report.path("imported").asLong(), report.path("rejected").asLong());
+    }
+
+    private List<Long> seedCustomers(int scale) {
+        List<Map<String, String>> rows = read("customer.csv");
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        List<Long> ids = new ArrayList<>(rows.size() * scale);
+        for (int copy = 1; copy <= scale; copy++) {
+            for (Map<String, String> row : rows) {
+                Map<String, String> customer = new LinkedHashMap<>();
+                row.forEach((column, value) -> {
+                    if (!"id".equals(column)) {
+                        customer.put(toCamelCase(column), value);
+                    }
+                });
+                customer.put("email", run + "-" + copy + "." + customer.get("email"));
+                ids.add(client.json(client.call(client.post("/api/customers", customer, true))).path("id").asLong());
+            }
+        }
+        LOG.info("Seeded {} customers", ids.size());
+        return ids;
+    }
+
+    private List<Map<String, String>> read(String file) {
+        try (InputStream input = FakeDataSeeder.class.getClassLoader().getResourceAsStream(FAKE_DATA + file)) {
+            if (input == null) {
+                throw new IllegalStateException(FAKE_DATA + file + " not found");
+            }
+            CsvSchema schema = CsvSchema.emptySchema().withHeader().withColumnSeparator(';');
+            try (MappingIterator<Map<String, String>> values = csvMapper.readerFor(Map.class).with(schema).readValues(input)) {
+                return values.readAll();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void addWords(TreeSet<String> words, String text) {
+        for (String word : NOT_A_WORD.split(text)) {
+            if (word.length() >= 3) {
+                words.add(word.toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+
+    private static String toCamelCase(String column) {
+        StringBuilder property = new StringBuilder(column.length());
+        boolean upperNext = false;
+        for (char c : column.toCharArray()) {
+            if (c == '_') {
+                upperNext = true;
+            } else {
+                property.append(upperNext ? Character.toUpperCase(c) : c);
+                upperNext = false;
+            }
+        }
+        return property.toString();
+    }
+}
@@ -0,0 +1,140 @@
+package myapp.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+/**
+ * The HTTP client of the load test, recording the responses of each endpoint in its {@link EndpointStats}.
+ * <p>
+ * Requests are sent asynchronously: a slow response does not hold back the requests of the other scenarios.
+ */
+final class LoadClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .executor(
+            Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "load-test-http");
+                thread.setDaemon(true);
+                return thread;
+            })
+        )
+        .build();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String baseUrl;
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    private volatile String token;
+
+    LoadClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Authenticate the requests sent from now on as a user.
+     */
+    void authenticate(String login, String password) {
+        HttpResponse<byte[]> response = call(post("/api/authenticate", Map.of("username", login, "password", password), false));
+        token = json(response).path("id_token").asText();
+    }
+
+    HttpRequest get(String path) {
+        return request(path, true).GET().build();
+    }
+
+    HttpRequest post(String path, Object body, boolean authenticated) {
+        try {
+            return request(path, authenticated)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    HttpRequest.Builder request(String path, boolean authenticated) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+        if (authenticated && token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request;
+    }
+
+    /**
+     * Send a request of a scenario.
+     *
+     * @param endpoint the endpoint the response is recorded for.
+     * @param request the request.
+     * @param startNanos when the request was due, the latency being measured from then.
+     * @param measured whether the response is recorded, or part of the warmup.
+     * @return the response.
+     */
+    CompletableFuture<HttpResponse<byte[]>> send(String endpoint, HttpRequest request, long startNanos, boolean measured) {
+        return httpClient
+            .sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .whenComplete((response, error) -> {
+                if (measured) {
+                    int status = error == null ? response.statusCode() : EndpointStats.NO_RESPONSE;
+                    endpoints.computeIfAbsent(endpoint, key -> new EndpointStats()).record(status, System.nanoTime() - startNanos);
+                }
+            });
+    }
+
+    /**
+     * Send a request outside of the measurement, such as to seed the data.
+     *
+     * @return the response, successful.
+     * @throws IllegalStateException if the response is not successful.
+     */
+    HttpResponse<byte[]> call(HttpRequest request) {
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        if (EndpointStats.isError(response.statusCode())) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " answered " + response.statusCode());
+        }
+        return response;
+    }
+
+    JsonNode json(HttpResponse<byte[]> response) {
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+
+    SortedMap<String, EndpointStats> endpoints() {
+        return new TreeMap<>(endpoints);
+    }
+}
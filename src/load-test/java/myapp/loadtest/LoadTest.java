@@ -0,0 +1,173 @@
+package myapp.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import myapp.SampleApp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * HTTP load test of the REST API, with an open model: scenarios start at random times, a given number per
+ * second on average (a Poisson process), however long the responses take; unlike a fixed number of users
+ * waiting for their responses, the load does not ease off when the application slows down.
+ * <p>
+ * Unless given the URL of a running application, the load test starts the application in its own JVM with the
+ * {@code dev} profile, on an in-memory H2 database, and without its debug logs. It seeds the fake data, loads the
+ * application during the warmup, then during the measurement, and reports the throughput and the latency
+ * percentiles of each endpoint, see {@link LoadTestReport}. Run with
+ * {@code ./mvnw -Pdev,load-test test-compile exec:exec -Dload-test.args="--rate=100 --duration=120"}; see
+ * {@link LoadTestOptions} for the options. Runs can be compared with an option of the application changed, such as
+ * {@code --spring.threads.virtual.enabled=true}.
+ */
+public final class LoadTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    /**
+     * Properties of the application started, unless given as arguments.
+     */
+    private static final Map<String, String> APPLICATION_DEFAULTS = Map.of(
+        "spring.datasource.url",
+        "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "server.port",
+        "0",
+        "spring.devtools.restart.enabled",
+        "false",
+        "spring.jackson.serialization.indent-output",
+        "false",
+        "logging.level.ROOT",
+        "INFO",
+        "logging.level.tech.jhipster",
+        "INFO",
+        "logging.level.org.hibernate.SQL",
+        "INFO",
+        "logging.level.myapp",
+        "INFO"
+    );
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.baseUrl();
+        if (baseUrl == null) {
+            context = start(options);
+            baseUrl = "http://localhost:" + context.getEnvironment().getRequiredProperty("local.server.port");
+        }
+        try {
+            LoadClient client = new LoadClient(baseUrl);
+            client.authenticate("admin", "admin");
+            TestData data = new FakeDataSeeder(client).seed(options.scale());
+            run(options, client, data);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static ConfigurableApplicationContext start(LoadTestOptions options) {
+        // system properties, so that they take precedence over the profile configuration but not over the arguments
+        APPLICATION_DEFAULTS.forEach((name, value) -> {
+            if (options.applicationArgs().stream().noneMatch(arg -> arg.startsWith("--" + name + "="))) {
+                System.setProperty(name, value);
+            }
+        });
+        return new SpringApplicationBuilder(SampleApp.class)
+            .profiles(options.profile())
+            .run(options.applicationArgs().toArray(String[]::new));
+    }
+
+    private static void run(LoadTestOptions options, LoadClient client, TestData data) throws Exception {
+        List<Scenario> scenarios = new ArrayList<>();
+        List<Integer> cumulativeWeights = new ArrayList<>();
+        int totalWeight = 0;
+        for (Map.Entry<Scenario, Integer> weight : options.mix().entrySet()) {
+            if (weight.getValue() > 0) {
+                totalWeight += weight.getValue();
+                scenarios.add(weight.getKey());
+                cumulativeWeights.add(totalWeight);
+            }
+        }
+
+        Random random = new Random(options.seed());
+        AtomicInteger inFlight = new AtomicInteger();
+        long arrivals = 0;
+        long dropped = 0;
+        long start = System.nanoTime();
+        long measurementStart = start + options.warmup().toNanos();
+        long end = measurementStart + options.duration().toNanos();
+        LOG.info(
+            "Warming up for {} s, then measuring for {} s, at {} scenarios/s",
+            options.warmup().toSeconds(),
+            options.duration().toSeconds(),
+            options.rate()
+        );
+        for (long arrival = start;;) {
+            // exponential times between arrivals
+            arrival += (long) (-Math.log(1 - random.nextDouble()) * TimeUnit.SECONDS.toNanos(1) / options.rate());
+            if (arrival >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = arrival - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            int drawn = random.nextInt(totalWeight);
+            int index = 0;
+            while (cumulativeWeights.get(index) <= drawn) {
+                index++;
+            }
+            Scenario scenario = scenarios.get(index);
+            boolean measured = arrival >= measurementStart;
+            Session session = new Session(client, data, new Random(random.nextLong()), measured, arrival);
+            if (measured) {
+                arrivals++;
+            }
+            if (inFlight.get() >= options.maxInFlight()) {
+                if (measured) {
+                    dropped++;
+                }
+                continue;
+            }
+            inFlight.incrementAndGet();
+            CompletableFuture<?> run;
+            try {
+                run = scenario.run(session);
+            } catch (RuntimeException e) {
+                run = CompletableFuture.failedFuture(e);
+            }
+            run.whenComplete((result, error) -> inFlight.decrementAndGet());
+        }
+
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        if (inFlight.get() > 0) {
+            LOG.warn("{} scenarios still running after the measurement, not reported", inFlight.get());
+        }
+        LoadTestReport.write(options, client, arrivals, dropped, System.out);
+    }
+}
@@ -0,0 +1,110 @@
+package myapp.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The options of a load test, given as {@code --name=value} arguments; the arguments the load test does not know
+ * are passed on to the application it starts, such as {@code --spring.threads.virtual.enabled=true}.
+ *
+ * @param baseUrl the URL of the application to load, or {@code null} to start one.
+ * @param profile the Spring profile of the application started.
+ * @param scale the number of copies of the fake data rows to seed.
+ * @param rate the mean number of scenarios started per second.
+ * @param warmup the duration of the warmup, not measured.
+ * @param duration the duration of the measurement.
+ * @param mix the relative weights of the scenarios.
+ * @param maxInFlight the number of scenarios running at once beyond which arrivals are dropped.
+ * @param seed the seed of the random choices, for runs to be repeatable.
+ * @param output the directory of the results.
+ * @param applicationArgs the arguments passed on to the application started.
+ */
+record LoadTestOptions(
+    String baseUrl,
+    String profile,
+    int scale,
+    double rate,
+    Duration warmup,
+    Duration duration,
+    Map<Scenario, Integer> mix,
+    int maxInFlight,
+    long seed,
+    Path output,
+    List<String> applicationArgs
+) {
+    static final String USAGE = """
+        Options, as --name=value:
+          base-url       URL of a running application to load, instead of starting one
+          profile        Spring profile of the application started (default: dev)
+          scale          copies of the fake data rows seeded (default: 10)
+          rate           scenarios started per second, on average (default: 50)
+          warmup         seconds of warmup, not measured (default: 10)
+          duration       seconds of measurement (default: 60)
+          mix            weights of the scenarios (default: browse=60,search=25,checkout=10,login=5)
+          max-in-flight  scenarios running at once beyond which arrivals are dropped (default: 1000)
+          seed           seed of the random choices (default: 42)
+          output         directory of the results (default: target/load-test)
+        Other options are passed on to the application started.""";
+
+    static LoadTestOptions parse(String[] args) {
+        String baseUrl = null;
+        String profile = "dev";
+        int scale = 10;
+        double rate = 50;
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(60);
+        Map<Scenario, Integer> mix = parseMix("browse=60,search=25,checkout=10,login=5");
+        int maxInFlight = 1000;
+        long seed = 42;
+        Path output = Path.of("target", "load-test");
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Invalid option " + arg + ", expected --name=value");
+            }
+            String value = arg.substring(equals + 1);
+            switch (arg.substring(2, equals)) {
+                case "base-url" -> baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "profile" -> profile = value;
+                case "scale" -> scale = Integer.parseInt(value);
+                case "rate" -> rate = Double.parseDouble(value);
+                case "warmup" -> warmup = Duration.ofSeconds(Long.parseLong(value));
+                case "duration" -> duration = Duration.ofSeconds(Long.parseLong(value));
+                case "mix" -> mix = parseMix(value);
+                case "max-in-flight" -> maxInFlight = Integer.parseInt(value);
+                case "seed" -> seed = Long.parseLong(value);
+                case "output" -> output = Path.of(value);
+                default -> applicationArgs.add(arg);
+            }
+        }
+        if (scale < 1 || rate <= 0 || duration.isZero() || maxInFlight < 1) {
+            throw new IllegalArgumentException("scale, rate, duration and max-in-flight must be positive");
+        }
+        return new LoadTestOptions(baseUrl, profile, scale, rate, warmup, duration, mix, maxInFlight, seed, output, applicationArgs);
+    }
+
+    private static Map<Scenario, Integer> parseMix(String mix) {
+        Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (String entry : mix.split(",")) {
+            String[] weight = entry.split("=");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Invalid mix " + mix + ", expected scenario=weight,...");
+            }
+            int value = Integer.parseInt(weight[1].trim());
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid mix " + mix + ", weights cannot be negative");
+            }
+            weights.put(Scenario.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)), value);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("Invalid mix " + mix + ", no scenario has a positive weight");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,106 @@
+package myapp.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+
+/**
+ * The results of a load test, by endpoint: printed as a table, and written to the output directory as
+ * {@code result.json} and as one HdrHistogram percentile distribution, {@code *.hgrm}, per endpoint.
+ */
+final class LoadTestReport {
+
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+    private static final String[] PERCENTILE_NAMES = { "p50", "p90", "p99", "p99.9" };
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private LoadTestReport() {}
+
+    static void write(LoadTestOptions options, LoadClient client, long arrivals, long dropped, PrintStream out) throws IOException {
+        double seconds = options.duration().toNanos() / 1e9;
+        Files.createDirectories(options.output());
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+
+        out.printf("%n%,d scenarios started in %.0f s, %,d dropped by the load generator%n", arrivals, seconds, dropped);
+        out.printf(
+            "%-30s %10s %8s %9s %9s %9s %9s %9s %9s%n",
+            "Endpoint",
+            "Requests",
+            "Errors",
+            "Req/s",
+            "p50 ms",
+            "p90 ms",
+            "p99 ms",
+            "p99.9 ms",
+            "max ms"
+        );
+        for (Map.Entry<String, EndpointStats> endpoint : client.endpoints().entrySet()) {
+            Histogram latencies = endpoint.getValue().latencies();
+            SortedMap<Integer, Long> statuses = endpoint.getValue().statuses();
+            long requests = latencies.getTotalCount();
+            long errors = statuses
+                .entrySet()
+                .stream()
+                .filter(status -> EndpointStats.isError(status.getKey()))
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+
+            Map<String, Double> latencyMillis = new LinkedHashMap<>();
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                latencyMillis.put(PERCENTILE_NAMES[i], latencies.getValueAtPercentile(PERCENTILES[i]) / NANOS_PER_MILLI);
+            }
+            latencyMillis.put("max", latencies.getMaxValue() / NANOS_PER_MILLI);
+            out.printf(
+                "%-30s %,10d %,8d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                endpoint.getKey(),
+                requests,
+                errors,
+                requests / seconds,
+                latencyMillis.get("p50"),
+                latencyMillis.get("p90"),
+                latencyMillis.get("p99"),
+                latencyMillis.get("p99.9"),
+                latencyMillis.get("max")
+            );
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("requests", requests);
+            result.put("errors", errors);
+            result.put("statuses", statuses);
+            result.put("throughput", requests / seconds);
+            result.put("latencyMillis", latencyMillis);
+            endpoints.put(endpoint.getKey(), result);
+
+            Path distribution = options.output().resolve(endpoint.getKey().replaceAll("[^A-Za-z0-9]+", "_") + ".hgrm");
+            try (PrintStream file = new PrintStream(Files.newOutputStream(distribution))) {
+                latencies.outputPercentileDistribution(file, NANOS_PER_MILLI);
+            }
+        }
+
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("baseUrl", options.baseUrl());
+        run.put("scale", options.scale());
+        run.put("rate", options.rate());
+        run.put("warmupSeconds", options.warmup().toSeconds());
+        run.put("durationSeconds", options.duration().toSeconds());
+        run.put("mix", options.mix());
+        run.put("seed", options.seed());
+        run.put("applicationArgs", options.applicationArgs());
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("run", run);
+        report.put("scenarios", arrivals);
+        report.put("dropped", dropped);
+        report.put("endpoints", endpoints);
+        Path result = options.output().resolve("result.json");
+        client.objectMapper().writerWithDefaultPrettyPrinter().writeValue(result.toFile(), report);
+        out.printf("%nResults written to %s%n", result.toAbsolutePath());
+    }
+}
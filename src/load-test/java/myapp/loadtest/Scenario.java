@@ -0,0 +1,81 @@
+package myapp.loadtest;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * What a user of the shop does in a visit, each step waiting for the response to the previous one.
+ */
+enum Scenario {
+    /**
+     * Look at a page of products, then at one product.
+     */
+    BROWSE {
+        @Override
+        CompletableFuture<?> run(Session session) {
+            int page = session.random().nextInt(session.data().productPages());
+            return session
+                .get("GET /api/products", "/api/products?page=" + page + "&size=" + PAGE_SIZE + "&sort=id,asc")
+                .thenCompose(response ->
+                    session.get("GET /api/products/{id}", "/api/products/" + session.pick(session.data().productIds()))
+                );
+        }
+    },
+
+    /**
+     * Search the products for a word.
+     */
+    SEARCH {
+        @Override
+        CompletableFuture<?> run(Session session) {
+            String term = URLEncoder.encode(session.pick(session.data().searchTerms()), StandardCharsets.UTF_8);
+            return session.get("GET /api/products/_search", "/api/products/_search?size=" + PAGE_SIZE + "&q=" + term);
+        }
+    },
+
+    /**
+     * Order one to three products, then look at the order.
+     */
+    CHECKOUT {
+        @Override
+        CompletableFuture<?> run(Session session) {
+            int lines = 1 + session.random().nextInt(3);
+            Set<Long> productIds = new LinkedHashSet<>();
+            while (productIds.size() < Math.min(lines, session.data().inStockProductIds().size())) {
+                productIds.add(session.pick(session.data().inStockProductIds()));
+            }
+            List<Map<String, Object>> items = new ArrayList<>(productIds.size());
+            productIds.forEach(productId -> items.add(Map.of("productId", productId, "quantity", 1)));
+            Map<String, Object> cart = Map.of("customerId", session.pick(session.data().customerIds()), "items", items);
+            return session
+                .post("POST /api/orders/_checkout", "/api/orders/_checkout", cart, true)
+                .thenCompose(response -> {
+                    if (EndpointStats.isError(response.statusCode())) {
+                        return CompletableFuture.completedFuture(response);
+                    }
+                    long orderId = session.client().json(response).path("id").asLong();
+                    return session.get("GET /api/orders/{id}", "/api/orders/" + orderId);
+                });
+        }
+    },
+
+    /**
+     * Log in, the password being checked with the configured BCrypt cost.
+     */
+    LOGIN {
+        @Override
+        CompletableFuture<?> run(Session session) {
+            return session.post("POST /api/authenticate", "/api/authenticate", Map.of("username", "user", "password", "user"), false);
+        }
+    };
+
+    static final int PAGE_SIZE = 20;
+
+    abstract CompletableFuture<?> run(Session session);
+}
@@ -0,0 +1,66 @@
+package myapp.loadtest;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A run of a {@link Scenario}: its requests are sent one after the other.
+ * <p>
+ * The latency of the first request is measured from when the scenario was due to start rather than from when it
+ * was sent, so that a load generator falling behind does not hide the queuing it causes (coordinated omission).
+ */
+final class Session {
+
+    private final LoadClient client;
+
+    private final TestData data;
+
+    private final Random random;
+
+    private final boolean measured;
+
+    private final long arrivalNanos;
+
+    private boolean started;
+
+    Session(LoadClient client, TestData data, Random random, boolean measured, long arrivalNanos) {
+        this.client = client;
+        this.data = data;
+        this.random = random;
+        this.measured = measured;
+        this.arrivalNanos = arrivalNanos;
+    }
+
+    TestData data() {
+        return data;
+    }
+
+    Random random() {
+        return random;
+    }
+
+    LoadClient client() {
+        return client;
+    }
+
+    <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    CompletableFuture<HttpResponse<byte[]>> get(String endpoint, String path) {
+        return send(endpoint, client.get(path));
+    }
+
+    CompletableFuture<HttpResponse<byte[]>> post(String endpoint, String path, Object body, boolean authenticated) {
+        return send(endpoint, client.post(path, body, authenticated));
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> send(String endpoint, HttpRequest request) {
+        long start = started ? System.nanoTime() : arrivalNanos;
+        started = true;
+        return client.send(endpoint, request, start, measured);
+    }
+}
@@ -0,0 +1,14 @@
+package myapp.loadtest;
+
+import java.util.List;
+
+/**
+ * What the scenarios pick their requests from, as seeded.
+ *
+ * @param productIds the ids of all the products.
+ * @param inStockProductIds the ids of the products which can be ordered.
+ * @param customerIds the ids of the customers.
+ * @param searchTerms words of the titles and keywords of the products.
+ * @param productPages the number of pages of {@link Scenario#PAGE_SIZE} products.
+ */
+record TestData(List<Long> productIds, List<Long> inStockProductIds, List<Long> customerIds, List<String> searchTerms, int productPages) {}
@@ -0,0 +1,280 @@
+package myapp.aop.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import myapp.management.SqlStatementCounter;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Aspect timing the calls of the REST controllers and repositories of the application.
+ * <p>
+ * Each controller method gets a {@value #CALLS_METER_NAME} timer, with a percentile histogram, tagged with its
+ * class and name, and with the outcome of the call and the exception it threw; unlike
+ * {@code http.server.requests}, it leaves out the filters, security included. The repository methods are
+ * already timed by Spring Data, as {@code spring.data.repository.invocations}. The calls slower than the
+ * threshold of their layer are logged with their arguments and the number of SQL statements they ran, at most
+ * once per method per {@code slowCallLogInterval}, so that a slow endpoint does not flood the logs.
+ * <p>
+ * Unlike the {@link myapp.aop.logging.LoggingAspect}, it is cheap enough to run in production: the timers of a
+ * method are looked up once, and the arguments are only formatted for the slow calls that are logged.
+ */
+@Aspect
+public class TimingAspect {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TimingAspect.class);
+
+    public static final String CALLS_METER_NAME = "application.controller.calls";
+
+    private static final int MAX_ARGUMENT_LENGTH = 200;
+
+    private static final String NO_EXCEPTION = "none";
+
+    enum Layer {
+        CONTROLLER(true),
+        REPOSITORY(false);
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+
+        private final boolean timed;
+
+        Layer(boolean timed) {
+            this.timed = timed;
+        }
+    }
+
+    private final MeterRegistry registry;
+
+    private final long slowControllerNanos;
+
+    private final long slowRepositoryNanos;
+
+    private final long slowCallLogIntervalNanos;
+
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, MethodTimers>> timers = new ConcurrentHashMap<>();
+
+    /**
+     * @param registry the registry of the timers.
+     * @param slowControllerThreshold the duration beyond which a call of a controller is logged.
+     * @param slowRepositoryThreshold the duration beyond which a call of a repository is logged.
+     * @param slowCallLogInterval the minimum delay between two slow calls of a method being logged.
+     */
+    public TimingAspect(
+        MeterRegistry registry,
+        Duration slowControllerThreshold,
+        Duration slowRepositoryThreshold,
+        Duration slowCallLogInterval
+    ) {
+        this.registry = registry;
+        this.slowControllerNanos = slowControllerThreshold.toNanos();
+        this.slowRepositoryNanos = slowRepositoryThreshold.toNanos();
+        this.slowCallLogIntervalNanos = slowCallLogInterval.toNanos();
+    }
+
+    /**
+     * Pointcut that matches all the REST controllers of the application.
+     */
+    @Pointcut("within(@org.springframework.web.bind.annotation.RestController *) && within(myapp..*)")
+    public void controllerPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches all the Spring Data repositories, whose JDK proxies {@code within} does not match.
+     */
+    @Pointcut("target(org.springframework.data.repository.Repository)")
+    public void repositoryPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice that times the calls of the REST controllers.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable what the method threw.
+     */
+    @Around("controllerPointcut()")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, Layer.CONTROLLER, slowControllerNanos);
+    }
+
+    /**
+     * Advice that logs the slow calls of the repositories.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable what the method threw.
+     */
+    @Around("repositoryPointcut()")
+    public Object watchRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, Layer.REPOSITORY, slowRepositoryNanos);
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, Layer layer, long slowNanos) throws Throwable {
+        long statements = SqlStatementCounter.count();
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            long end = System.nanoTime();
+            MethodTimers method = timers(joinPoint, layer);
+            method.record(end - start, failure);
+            if (end - start >= slowNanos && method.shouldLogSlowCall(end)) {
+                logSlowCall(joinPoint, method, end - start, SqlStatementCounter.count() - statements, failure);
+            }
+        }
+    }
+
+    private MethodTimers timers(ProceedingJoinPoint joinPoint, Layer layer) {
+        Object target = joinPoint.getTarget();
+        Class<?> targetClass = target != null ? target.getClass() : joinPoint.getSignature().getDeclaringType();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return timers
+            .computeIfAbsent(targetClass, type -> new ConcurrentHashMap<>())
+            .computeIfAbsent(method, m -> new MethodTimers(layer, typeName(targetClass, m), m.getName()));
+    }
+
+    /**
+     * The name of the class of a method called: the repository interface rather than the Spring Data proxy
+     * implementing it, or than the interface of Spring Data declaring the method.
+     */
+    private static String typeName(Class<?> targetClass, Method method) {
+        if (Proxy.isProxyClass(targetClass)) {
+            for (Class<?> type : targetClass.getInterfaces()) {
+                if (method.getDeclaringClass().isAssignableFrom(type) && type.getName().startsWith("myapp.")) {
+                    return type.getSimpleName();
+                }
+            }
+            return method.getDeclaringClass().getSimpleName();
+        }
+        return ClassUtils.getUserClass(targetClass).getSimpleName();
+    }
+
+    private void logSlowCall(ProceedingJoinPoint joinPoint, MethodTimers method, long nanos, long statements, Throwable failure) {
+        if (!LOG.isWarnEnabled()) {
+            return;
+        }
+        LOG.warn(
+            "Slow {} call {}.{}() in {} ms, running {} SQL statement(s){}, with argument[s] = {}{}",
+            method.layer.tag,
+            method.type,
+            method.name,
+            TimeUnit.NANOSECONDS.toMillis(nanos),
+            statements,
+            failure != null ? " and throwing " + failure.getClass().getSimpleName() : "",
+            formatArguments(joinPoint.getArgs()),
+            method.skippedSlowCalls(" (%d more slow calls since the last one logged)")
+        );
+    }
+
+    private static String formatArguments(Object[] args) {
+        StringBuilder formatted = new StringBuilder("[");
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) {
+                formatted.append(", ");
+            }
+            String arg;
+            if (args[i] instanceof HttpHeaders || args[i] instanceof ServletRequest || args[i] instanceof ServletResponse) {
+                // the credentials of the request, not to be logged
+                arg = "<" + args[i].getClass().getSimpleName() + ">";
+            } else {
+                try {
+                    arg = String.valueOf(args[i]);
+                } catch (RuntimeException e) {
+                    arg = "<" + args[i].getClass().getSimpleName() + ">";
+                }
+            }
+            formatted.append(arg.length() > MAX_ARGUMENT_LENGTH ? arg.substring(0, MAX_ARGUMENT_LENGTH) + "..." : arg);
+        }
+        return formatted.append(']').toString();
+    }
+
+    /**
+     * The timers of a method, by outcome, if its layer is timed, and the state of its slow call logging.
+     */
+    private final class MethodTimers {
+
+        private final Layer layer;
+
+        private final String type;
+
+        private final String name;
+
+        private final Timer success;
+
+        private final ConcurrentMap<Class<?>, Timer> failures = new ConcurrentHashMap<>();
+
+        private final AtomicLong lastSlowCallLogged = new AtomicLong();
+
+        private final AtomicLong skippedSlowCalls = new AtomicLong();
+
+        private volatile boolean slowCallLogged;
+
+        MethodTimers(Layer layer, String type, String name) {
+            this.layer = layer;
+            this.type = type;
+            this.name = name;
+            this.success = layer.timed ? timer("success", NO_EXCEPTION) : null;
+        }
+
+        void record(long nanos, Throwable failure) {
+            if (success == null) {
+                return;
+            }
+            Timer timer = failure == null
+                ? success
+                : failures.computeIfAbsent(failure.getClass(), exception -> timer("error", exception.getSimpleName()));
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        boolean shouldLogSlowCall(long now) {
+            long last = lastSlowCallLogged.get();
+            if ((!slowCallLogged || now - last >= slowCallLogIntervalNanos) && lastSlowCallLogged.compareAndSet(last, now)) {
+                slowCallLogged = true;
+                return true;
+            }
+            skippedSlowCalls.incrementAndGet();
+            return false;
+        }
+
+        String skippedSlowCalls(String format) {
+            long skipped = skippedSlowCalls.getAndSet(0);
+            return skipped > 0 ? String.format(format, skipped) : "";
+        }
+
+        private Timer timer(String outcome, String exception) {
+            return Timer.builder(CALLS_METER_NAME)
+                .description("Calls of the REST controllers of the application")
+                .tag("class", type)
+                .tag("method", name)
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+        }
+    }
+}
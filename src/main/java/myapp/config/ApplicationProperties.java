@@ -1,5 +1,8 @@
 package myapp.config;
 
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -13,12 +16,78 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
 
+    private final Cache cache = new Cache();
+
+    private final Catalog catalog = new Catalog();
+
+    private final Checkout checkout = new Checkout();
+
+    private final Inventory inventory = new Inventory();
+
+    private final OptimisticRetry optimisticRetry = new OptimisticRetry();
+
+    private final Security security = new Security();
+
+    private final VirtualThreads virtualThreads = new VirtualThreads();
+
+    private final Mail mail = new Mail();
+
+    private final Outbox outbox = new Outbox();
+
+    private final Timing timing = new Timing();
+
+    private final SqlStatements sqlStatements = new SqlStatements();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
         return liquibase;
     }
 
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Catalog getCatalog() {
+        return catalog;
+    }
+
+    public Checkout getCheckout() {
+        return checkout;
+    }
+
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    public OptimisticRetry getOptimisticRetry() {
+        return optimisticRetry;
+    }
+
+    public Security getSecurity() {
+        return security;
+    }
+
+    public VirtualThreads getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public Mail getMail() {
+        return mail;
+    }
+
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    public Timing getTiming() {
+        return timing;
+    }
+
+    public SqlStatements getSqlStatements() {
+        return sqlStatements;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -33,5 +102,519 @@ public class ApplicationProperties {
             this.asyncStart = asyncStart;
         }
     }
+
+    public static class Cache {
+
+        /**
+         * Settings of individual cache regions, by region name. Regions not listed here use the
+         * {@code jhipster.cache.caffeine} defaults.
+         */
+        private final Map<String, Region> regions = new HashMap<>();
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public static class Region {
+
+            private Long maxEntries;
+
+            private Long timeToLiveSeconds;
+
+            public Long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(Long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public Long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+        }
+    }
+
+    public static class Catalog {
+
+        /**
+         * Number of categories whose products are fetched by a single query when listing categories with
+         * their products.
+         */
+        private int productFetchBatchSize = 500;
+
+        public int getProductFetchBatchSize() {
+            return productFetchBatchSize;
+        }
+
+        public void setProductFetchBatchSize(int productFetchBatchSize) {
+            this.productFetchBatchSize = productFetchBatchSize;
+        }
+    }
+
+    public static class Checkout {
+
+        /**
+         * Shipping cost of an order below the free shipping threshold.
+         */
+        private BigDecimal shippingFlatRate = new BigDecimal("4.99");
+
+        /**
+         * Order amount, before shipping, from which shipping is free; no free shipping when not set.
+         */
+        private BigDecimal freeShippingThreshold = new BigDecimal("50.00");
+
+        /**
+         * Maximum number of distinct products in a single order.
+         */
+        private int maxLines = 100;
+
+        public BigDecimal getShippingFlatRate() {
+            return shippingFlatRate;
+        }
+
+        public void setShippingFlatRate(BigDecimal shippingFlatRate) {
+            this.shippingFlatRate = shippingFlatRate;
+        }
+
+        public BigDecimal getFreeShippingThreshold() {
+            return freeShippingThreshold;
+        }
+
+        public void setFreeShippingThreshold(BigDecimal freeShippingThreshold) {
+            this.freeShippingThreshold = freeShippingThreshold;
+        }
+
+        public int getMaxLines() {
+            return maxLines;
+        }
+
+        public void setMaxLines(int maxLines) {
+            this.maxLines = maxLines;
+        }
+    }
+
+    public static class Inventory {
+
+        /**
+         * Minimum number of units of a product a node takes from its stock at once to serve reservations.
+         * The units a node holds are missing from the product stock until they are flushed back, or
+         * lost if the node crashes.
+         */
+        private int leaseSize = 20;
+
+        /**
+         * Number of counters the units a node holds for a product are spread over; the number of
+         * processors when not set.
+         */
+        private Integer stripes;
+
+        /**
+         * Time after which a reservation that was not checked out is released.
+         */
+        private long reservationTimeToLiveSeconds = 900;
+
+        /**
+         * Delay between two releases of the expired reservations, followed by the return to the product
+         * stock of the units held for products nobody reserved since the previous return.
+         */
+        private long flushIntervalMillis = 5000;
+
+        public int getLeaseSize() {
+            return leaseSize;
+        }
+
+        public void setLeaseSize(int leaseSize) {
+            this.leaseSize = leaseSize;
+        }
+
+        public Integer getStripes() {
+            return stripes;
+        }
+
+        public void setStripes(Integer stripes) {
+            this.stripes = stripes;
+        }
+
+        public long getReservationTimeToLiveSeconds() {
+            return reservationTimeToLiveSeconds;
+        }
+
+        public void setReservationTimeToLiveSeconds(long reservationTimeToLiveSeconds) {
+            this.reservationTimeToLiveSeconds = reservationTimeToLiveSeconds;
+        }
+
+        public long getFlushIntervalMillis() {
+            return flushIntervalMillis;
+        }
+
+        public void setFlushIntervalMillis(long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+        }
+    }
+
+    public static class OptimisticRetry {
+
+        /**
+         * Maximum number of attempts of an update that keeps conflicting with concurrent ones.
+         */
+        private int maxAttempts = 5;
+
+        /**
+         * Delay before the first retry, doubled at every retry; the actual delay is a random fraction of it.
+         */
+        private long initialBackoffMillis = 10;
+
+        /**
+         * Upper bound of the delay between two attempts.
+         */
+        private long maxBackoffMillis = 200;
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getInitialBackoffMillis() {
+            return initialBackoffMillis;
+        }
+
+        public void setInitialBackoffMillis(long initialBackoffMillis) {
+            this.initialBackoffMillis = initialBackoffMillis;
+        }
+
+        public long getMaxBackoffMillis() {
+            return maxBackoffMillis;
+        }
+
+        public void setMaxBackoffMillis(long maxBackoffMillis) {
+            this.maxBackoffMillis = maxBackoffMillis;
+        }
+    }
+
+    public static class Security {
+
+        /**
+         * Maximum number of verified JWTs kept until they expire, so that the requests of a client are not all
+         * parsed and verified again; 0 disables the cache.
+         */
+        private long jwtCacheMaxEntries = 10000;
+
+        private final PasswordHashing passwordHashing = new PasswordHashing();
+
+        public long getJwtCacheMaxEntries() {
+            return jwtCacheMaxEntries;
+        }
+
+        public void setJwtCacheMaxEntries(long jwtCacheMaxEntries) {
+            this.jwtCacheMaxEntries = jwtCacheMaxEntries;
+        }
+
+        public PasswordHashing getPasswordHashing() {
+            return passwordHashing;
+        }
+
+        public static class PasswordHashing {
+
+            /**
+             * BCrypt cost of the password hashes; the hash of a user whose password was hashed with another cost is
+             * replaced when the user next logs in.
+             */
+            private int cost = 10;
+
+            /**
+             * Number of threads checking the passwords of the users logging in; 0 for one per processor.
+             */
+            private int threads = 0;
+
+            /**
+             * Maximum number of logins waiting for a hashing thread; the logins beyond are answered with 429 Too
+             * Many Requests.
+             */
+            private int queueCapacity = 100;
+
+            public int getCost() {
+                return cost;
+            }
+
+            public void setCost(int cost) {
+                this.cost = cost;
+            }
+
+            public int getThreads() {
+                return threads;
+            }
+
+            public void setThreads(int threads) {
+                this.threads = threads;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+        }
+    }
+
+    public static class VirtualThreads {
+
+        /**
+         * Maximum number of API requests served at once when requests run on virtual threads, which are not
+         * bounded by a pool; 0 for as many as the database connection pool has connections.
+         */
+        private int maxConcurrentRequests = 0;
+
+        /**
+         * How long an API request waits for its turn before being answered with 503 Service Unavailable.
+         */
+        private long acquireTimeoutMillis = 5000;
+
+        public int getMaxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+
+        public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+
+        public long getAcquireTimeoutMillis() {
+            return acquireTimeoutMillis;
+        }
+
+        public void setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+            this.acquireTimeoutMillis = acquireTimeoutMillis;
+        }
+    }
+
+    public static class Mail {
+
+        /**
+         * Maximum number of emails waiting to be sent; the emails beyond are dropped.
+         */
+        private int queueCapacity = 1000;
+
+        /**
+         * Maximum number of emails sent over one connection to the mail server.
+         */
+        private int batchSize = 50;
+
+        /**
+         * Number of attempts to send an email before it is dropped.
+         */
+        private int maxAttempts = 5;
+
+        /**
+         * Delay before the first retry of an email, doubled at each further retry.
+         */
+        private long initialBackoffMillis = 1000;
+
+        /**
+         * Maximum delay between two attempts to send an email.
+         */
+        private long maxBackoffMillis = 60000;
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getInitialBackoffMillis() {
+            return initialBackoffMillis;
+        }
+
+        public void setInitialBackoffMillis(long initialBackoffMillis) {
+            this.initialBackoffMillis = initialBackoffMillis;
+        }
+
+        public long getMaxBackoffMillis() {
+            return maxBackoffMillis;
+        }
+
+        public void setMaxBackoffMillis(long maxBackoffMillis) {
+            this.maxBackoffMillis = maxBackoffMillis;
+        }
+    }
+
+    public static class Outbox {
+
+        /**
+         * Delay between two relays of the events of the outbox.
+         */
+        private long pollIntervalMillis = 1000;
+
+        /**
+         * Maximum number of events relayed in one transaction.
+         */
+        private int batchSize = 100;
+
+        /**
+         * Delay before an event a listener failed on is relayed again, doubled at each further failure.
+         */
+        private long initialBackoffMillis = 1000;
+
+        /**
+         * Maximum delay before an event a listener failed on is relayed again.
+         */
+        private long maxBackoffMillis = 300000;
+
+        public long getPollIntervalMillis() {
+            return pollIntervalMillis;
+        }
+
+        public void setPollIntervalMillis(long pollIntervalMillis) {
+            this.pollIntervalMillis = pollIntervalMillis;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getInitialBackoffMillis() {
+            return initialBackoffMillis;
+        }
+
+        public void setInitialBackoffMillis(long initialBackoffMillis) {
+            this.initialBackoffMillis = initialBackoffMillis;
+        }
+
+        public long getMaxBackoffMillis() {
+            return maxBackoffMillis;
+        }
+
+        public void setMaxBackoffMillis(long maxBackoffMillis) {
+            this.maxBackoffMillis = maxBackoffMillis;
+        }
+    }
+
+    public static class Timing {
+
+        /**
+         * Whether the calls of the REST controllers and repositories are timed.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Duration beyond which a call of a REST controller is logged, with its arguments and SQL statement count.
+         */
+        private long slowControllerThresholdMillis = 1000;
+
+        /**
+         * Duration beyond which a call of a repository is logged, with its arguments and SQL statement count.
+         */
+        private long slowRepositoryThresholdMillis = 200;
+
+        /**
+         * Minimum delay between two slow calls of the same method being logged; the ones in between are counted.
+         */
+        private long slowCallLogIntervalMillis = 10000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getSlowControllerThresholdMillis() {
+            return slowControllerThresholdMillis;
+        }
+
+        public void setSlowControllerThresholdMillis(long slowControllerThresholdMillis) {
+            this.slowControllerThresholdMillis = slowControllerThresholdMillis;
+        }
+
+        public long getSlowRepositoryThresholdMillis() {
+            return slowRepositoryThresholdMillis;
+        }
+
+        public void setSlowRepositoryThresholdMillis(long slowRepositoryThresholdMillis) {
+            this.slowRepositoryThresholdMillis = slowRepositoryThresholdMillis;
+        }
+
+        public long getSlowCallLogIntervalMillis() {
+            return slowCallLogIntervalMillis;
+        }
+
+        public void setSlowCallLogIntervalMillis(long slowCallLogIntervalMillis) {
+            this.slowCallLogIntervalMillis = slowCallLogIntervalMillis;
+        }
+    }
+
+    public static class SqlStatements {
+
+        /**
+         * Whether the number of SQL statements a request ran and their time are returned in the X-Sql-Count and
+         * X-Sql-Time headers; the response bodies are then buffered.
+         */
+        private boolean responseHeaders = false;
+
+        /**
+         * Whether the requests running more SQL statements than the budget of their endpoint fail.
+         */
+        private boolean enforceBudgets = false;
+
+        /**
+         * Number of times a request runs the same SQL statement from which it is reported as an N+1 query.
+         */
+        private int repeatedStatementThreshold = 10;
+
+        public boolean isResponseHeaders() {
+            return responseHeaders;
+        }
+
+        public void setResponseHeaders(boolean responseHeaders) {
+            this.responseHeaders = responseHeaders;
+        }
+
+        public boolean isEnforceBudgets() {
+            return enforceBudgets;
+        }
+
+        public void setEnforceBudgets(boolean enforceBudgets) {
+            this.enforceBudgets = enforceBudgets;
+        }
+
+        public int getRepeatedStatementThreshold() {
+            return repeatedStatementThreshold;
+        }
+
+        public void setRepeatedStatementThreshold(int repeatedStatementThreshold) {
+            this.repeatedStatementThreshold = repeatedStatementThreshold;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
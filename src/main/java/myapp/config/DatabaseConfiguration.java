@@ -1,8 +1,11 @@
 package myapp.config;
 
 import java.sql.SQLException;
+import myapp.management.SqlStatementCounter;
+import org.hibernate.cfg.AvailableSettings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -27,6 +30,19 @@ public class DatabaseConfiguration {
         this.env = env;
     }
 
+    /**
+     * Count the SQL statements run by each thread, and time them, for the slow calls and the requests to report.
+     *
+     * @return the customizer registering the {@link SqlStatementCounter}.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer() {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+            hibernateProperties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlStatementCounter.class.getName());
+        };
+    }
+
     /**
      * Open the TCP port for the H2 database, so it is available remotely.
      *
@@ -0,0 +1,26 @@
+package myapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import myapp.aop.timing.TimingAspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+
+@Configuration
+@EnableAspectJAutoProxy
+@ConditionalOnProperty(prefix = "application.timing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TimingAspectConfiguration {
+
+    @Bean
+    public TimingAspect timingAspect(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Timing properties = applicationProperties.getTiming();
+        return new TimingAspect(
+            meterRegistry,
+            Duration.ofMillis(properties.getSlowControllerThresholdMillis()),
+            Duration.ofMillis(properties.getSlowRepositoryThresholdMillis()),
+            Duration.ofMillis(properties.getSlowCallLogIntervalMillis())
+        );
+    }
+}
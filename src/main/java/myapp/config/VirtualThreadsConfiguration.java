@@ -0,0 +1,67 @@
+package myapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import javax.sql.DataSource;
+import myapp.management.PinnedThreadMonitor;
+import myapp.web.filter.ConcurrencyLimitFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.embedded.undertow.UndertowDeploymentInfoCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+/**
+ * Serves the requests on virtual threads, when {@code spring.threads.virtual.enabled} is set on Java 21 or later.
+ * <p>
+ * Spring Boot then runs the scheduled jobs on virtual threads, and {@link AsyncConfiguration} the {@code @Async}
+ * tasks; Undertow is given a virtual thread per request here, instead of a thread of its worker pool. As the
+ * number of requests served at once is no longer bounded by that pool, the API requests are bounded by the
+ * size of the database connection pool instead, see {@link ConcurrencyLimitFilter}.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadsConfiguration.class);
+
+    private static final Duration PINNED_THRESHOLD = Duration.ofMillis(20);
+
+    @Bean
+    public UndertowDeploymentInfoCustomizer virtualThreadsDeploymentInfoCustomizer() {
+        return deploymentInfo -> {
+            VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor("undertow-");
+            deploymentInfo.setExecutor(executor);
+            deploymentInfo.setAsyncExecutor(executor);
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+        ApplicationProperties applicationProperties,
+        DataSource dataSource,
+        MeterRegistry meterRegistry
+    ) {
+        ApplicationProperties.VirtualThreads properties = applicationProperties.getVirtualThreads();
+        int maxConcurrentRequests = properties.getMaxConcurrentRequests();
+        if (maxConcurrentRequests <= 0) {
+            maxConcurrentRequests = dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+        }
+        LOG.info("Serving at most {} API requests at once on virtual threads", maxConcurrentRequests);
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+            new ConcurrencyLimitFilter(maxConcurrentRequests, properties.getAcquireTimeoutMillis(), meterRegistry)
+        );
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    @Bean
+    public PinnedThreadMonitor pinnedThreadMonitor(MeterRegistry meterRegistry) {
+        return new PinnedThreadMonitor(PINNED_THRESHOLD, meterRegistry);
+    }
+}
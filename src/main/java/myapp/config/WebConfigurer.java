@@ -2,13 +2,16 @@ package myapp.config;
 
 import static java.net.URLDecoder.decode;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.*;
 import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import myapp.web.filter.SqlStatementFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.web.server.*;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.boot.web.servlet.ServletContextInitializer;
 import org.springframework.boot.web.servlet.server.ConfigurableServletWebServerFactory;
 import org.springframework.context.annotation.Bean;
@@ -100,6 +103,24 @@ public class WebConfigurer implements ServletContextInitializer, WebServerFactor
         return new CorsFilter(source);
     }
 
+    @Bean
+    public FilterRegistrationBean<SqlStatementFilter> sqlStatementFilter(
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        ApplicationProperties.SqlStatements properties = applicationProperties.getSqlStatements();
+        FilterRegistrationBean<SqlStatementFilter> registration = new FilterRegistrationBean<>(
+            new SqlStatementFilter(
+                properties.isResponseHeaders(),
+                properties.isEnforceBudgets(),
+                properties.getRepeatedStatementThreshold(),
+                meterRegistry
+            )
+        );
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
     /**
      * Initializes H2 console.
      */
@@ -18,8 +18,8 @@ public class Customer implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customerSequenceGenerator")
+    @SequenceGenerator(name = "customerSequenceGenerator", sequenceName = "customer_sequence", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -20,11 +20,15 @@ public class Order implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orderSequenceGenerator")
+    @SequenceGenerator(name = "orderSequenceGenerator", sequenceName = "jhi_order_sequence", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Column(name = "order_date", nullable = false)
     private Instant orderDate;
@@ -54,6 +58,10 @@ public class Order implements Serializable {
     @JsonIgnoreProperties(value = { "wishList", "order", "categories" }, allowSetters = true)
     private Set<Product> products = new HashSet<>();
 
+    @OneToMany(fetch = FetchType.LAZY, mappedBy = "order")
+    @JsonIgnoreProperties(value = { "order" }, allowSetters = true)
+    private Set<OrderLine> orderLines = new HashSet<>();
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnoreProperties(value = { "customer" }, allowSetters = true)
     private Address shippingAddress;
@@ -77,6 +85,19 @@ public class Order implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Order version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Instant getOrderDate() {
         return this.orderDate;
     }
@@ -186,6 +207,37 @@ public class Order implements Serializable {
         return this;
     }
 
+    public Set<OrderLine> getOrderLines() {
+        return this.orderLines;
+    }
+
+    public void setOrderLines(Set<OrderLine> orderLines) {
+        if (this.orderLines != null) {
+            this.orderLines.forEach(i -> i.setOrder(null));
+        }
+        if (orderLines != null) {
+            orderLines.forEach(i -> i.setOrder(this));
+        }
+        this.orderLines = orderLines;
+    }
+
+    public Order orderLines(Set<OrderLine> orderLines) {
+        this.setOrderLines(orderLines);
+        return this;
+    }
+
+    public Order addOrderLine(OrderLine orderLine) {
+        this.orderLines.add(orderLine);
+        orderLine.setOrder(this);
+        return this;
+    }
+
+    public Order removeOrderLine(OrderLine orderLine) {
+        this.orderLines.remove(orderLine);
+        orderLine.setOrder(null);
+        return this;
+    }
+
     public Address getShippingAddress() {
         return this.shippingAddress;
     }
@@ -0,0 +1,159 @@
+package myapp.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * A line of an {@link Order}: a quantity of a product, with its title and unit price as they were when
+ * the order was placed.
+ */
+@Entity
+@Table(name = "order_line")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class OrderLine implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orderLineSequenceGenerator")
+    @SequenceGenerator(name = "orderLineSequenceGenerator", sequenceName = "order_line_sequence", allocationSize = 100)
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull
+    @Min(value = 1)
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @NotNull
+    @DecimalMin(value = "0")
+    @Column(name = "unit_price", precision = 21, scale = 2, nullable = false)
+    private BigDecimal unitPrice;
+
+    @NotNull
+    @Size(max = 100)
+    @Column(name = "product_title", length = 100, nullable = false)
+    private String productTitle;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @NotNull
+    @JsonIgnoreProperties(value = { "orderLines", "products", "shippingAddress", "customer" }, allowSetters = true)
+    private Order order;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnoreProperties(value = { "wishList", "order", "categories", "quantityInStock", "status" }, allowSetters = true)
+    private Product product;
+
+    // jhipster-needle-entity-add-field - JHipster will add fields here
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public OrderLine id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getQuantity() {
+        return this.quantity;
+    }
+
+    public OrderLine quantity(Integer quantity) {
+        this.setQuantity(quantity);
+        return this;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public BigDecimal getUnitPrice() {
+        return this.unitPrice;
+    }
+
+    public OrderLine unitPrice(BigDecimal unitPrice) {
+        this.setUnitPrice(unitPrice);
+        return this;
+    }
+
+    public void setUnitPrice(BigDecimal unitPrice) {
+        this.unitPrice = unitPrice;
+    }
+
+    public String getProductTitle() {
+        return this.productTitle;
+    }
+
+    public OrderLine productTitle(String productTitle) {
+        this.setProductTitle(productTitle);
+        return this;
+    }
+
+    public void setProductTitle(String productTitle) {
+        this.productTitle = productTitle;
+    }
+
+    public Order getOrder() {
+        return this.order;
+    }
+
+    public void setOrder(Order order) {
+        this.order = order;
+    }
+
+    public OrderLine order(Order order) {
+        this.setOrder(order);
+        return this;
+    }
+
+    public Product getProduct() {
+        return this.product;
+    }
+
+    public void setProduct(Product product) {
+        this.product = product;
+    }
+
+    public OrderLine product(Product product) {
+        this.setProduct(product);
+        return this;
+    }
+
+    // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OrderLine)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((OrderLine) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "OrderLine{" +
+            "id=" + getId() +
+            ", quantity=" + getQuantity() +
+            ", unitPrice=" + getUnitPrice() +
+            ", productTitle='" + getProductTitle() + "'" +
+            "}";
+    }
+}
@@ -9,23 +9,30 @@ import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 import myapp.domain.enumeration.ProductStatus;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A Product.
  */
 @Entity
 @Table(name = "product")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Product implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "productSequenceGenerator")
+    @SequenceGenerator(name = "productSequenceGenerator", sequenceName = "product_sequence", allocationSize = 100)
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Size(min = 3, max = 100)
     @Column(name = "title", length = 100, nullable = false)
@@ -100,6 +107,19 @@ public class Product implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Product version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getTitle() {
         return this.title;
     }
@@ -243,6 +263,14 @@ public class Product implements Serializable {
         this.dateModified = dateModified;
     }
 
+    /**
+     * Dates every update, so that {@code Last-Modified} moves along with the version.
+     */
+    @PreUpdate
+    protected void onUpdate() {
+        this.dateModified = Instant.now();
+    }
+
     public WishList getWishList() {
         return this.wishList;
     }
@@ -18,8 +18,8 @@ public class WishList implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wishListSequenceGenerator")
+    @SequenceGenerator(name = "wishListSequenceGenerator", sequenceName = "wish_list_sequence", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
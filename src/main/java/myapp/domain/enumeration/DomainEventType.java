@@ -0,0 +1,10 @@
+package myapp.domain.enumeration;
+
+/**
+ * The DomainEventType enumeration.
+ */
+public enum DomainEventType {
+    CREATED,
+    UPDATED,
+    DELETED,
+}
@@ -0,0 +1,83 @@
+package myapp.management;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Reports the virtual threads pinned to their carrier thread.
+ * <p>
+ * A virtual thread blocking inside a {@code synchronized} block or a native call cannot be unmounted: it
+ * keeps its carrier thread, one of as few as there are processors, for as long as it blocks. The JVM
+ * records these as {@code jdk.VirtualThreadPinned} flight recorder events; the ones longer than the
+ * threshold are counted in the {@value #PINNED_METER_NAME} meter and logged with where they blocked.
+ */
+public class PinnedThreadMonitor implements InitializingBean, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+
+    public static final String PINNED_METER_NAME = "jvm.threads.virtual.pinned";
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Duration threshold;
+
+    private final Counter pinned;
+
+    private RecordingStream stream;
+
+    public PinnedThreadMonitor(Duration threshold, MeterRegistry registry) {
+        this.threshold = threshold;
+        this.pinned = Counter.builder(PINNED_METER_NAME)
+            .description("Virtual threads which blocked while pinned to their carrier thread")
+            .register(registry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::pinned);
+            stream.startAsync();
+        } catch (RuntimeException e) {
+            // the flight recorder may be unavailable, or disabled
+            LOG.warn("Could not monitor pinned virtual threads: {}", e.getMessage());
+            stream = null;
+        }
+    }
+
+    private void pinned(RecordedEvent event) {
+        pinned.increment();
+        if (LOG.isWarnEnabled()) {
+            List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+            LOG.warn(
+                "Virtual thread pinned for {} ms at {}",
+                event.getDuration().toMillis(),
+                frames
+                    .stream()
+                    .limit(LOGGED_FRAMES)
+                    .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber())
+                    .collect(Collectors.joining(" < "))
+            );
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package myapp.management;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.hibernate.SessionEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares, and the time it spends executing them, per thread.
+ * <p>
+ * Hibernate calls it as the {@link StatementInspector} of the session factory for every statement it prepares,
+ * and as a {@link SessionEventListener} of every session, instantiated by Hibernate, around every execution.
+ * The count and the time only ever grow: what a piece of code runs is the difference between the values read
+ * before and after it, on the same thread.
+ * <p>
+ * Between {@link #startRecording()} and {@link #stopRecording()}, the statements are also counted by SQL, to
+ * find the ones run again and again, as a lazy association loaded once per element of a list does.
+ */
+public class SqlStatementCounter implements StatementInspector, SessionEventListener {
+
+    /**
+     * Maximum number of distinct statements recorded, beyond which the new ones are not counted by SQL.
+     */
+    private static final int MAX_RECORDED_STATEMENTS = 1000;
+
+    private static final ThreadLocal<Statements> STATEMENTS = ThreadLocal.withInitial(Statements::new);
+
+    private static final class Statements {
+
+        private long count;
+
+        private long nanos;
+
+        private long executionStart;
+
+        private Map<String, Integer> recorded;
+    }
+
+    /**
+     * @return the number of SQL statements prepared by the current thread so far.
+     */
+    public static long count() {
+        return STATEMENTS.get().count;
+    }
+
+    /**
+     * @return the time the current thread spent executing SQL statements so far, in nanoseconds.
+     */
+    public static long nanos() {
+        return STATEMENTS.get().nanos;
+    }
+
+    /**
+     * Starts counting the statements the current thread prepares by SQL.
+     */
+    public static void startRecording() {
+        STATEMENTS.get().recorded = new HashMap<>();
+    }
+
+    /**
+     * Stops counting the statements the current thread prepares by SQL.
+     *
+     * @return the number of times each statement was prepared since {@link #startRecording()}, empty if not recording.
+     */
+    public static Map<String, Integer> stopRecording() {
+        Statements statements = STATEMENTS.get();
+        Map<String, Integer> recorded = statements.recorded;
+        statements.recorded = null;
+        return recorded != null ? recorded : Map.of();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Statements statements = STATEMENTS.get();
+        statements.count++;
+        Map<String, Integer> recorded = statements.recorded;
+        if (recorded != null && (recorded.size() < MAX_RECORDED_STATEMENTS || recorded.containsKey(sql))) {
+            recorded.merge(sql, 1, Integer::sum);
+        }
+        return sql;
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        STATEMENTS.get().executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        executed();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        STATEMENTS.get().executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        executed();
+    }
+
+    private static void executed() {
+        Statements statements = STATEMENTS.get();
+        statements.nanos += System.nanoTime() - statements.executionStart;
+    }
+}
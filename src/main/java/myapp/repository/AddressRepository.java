@@ -1,6 +1,8 @@
 package myapp.repository;
 
 import myapp.domain.Address;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +11,16 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface AddressRepository extends JpaRepository<Address, Long> {}
+public interface AddressRepository extends JpaRepository<Address, Long> {
+    @Query(
+        value = "select new myapp.repository.AddressRepository$AddressRow(address.id, address.address1, address.address2, address.city, address.postcode, address.country, address.customer.id) from Address address",
+        countQuery = "select count(address) from Address address"
+    )
+    Page<AddressRow> findAllRows(Pageable pageable);
+
+    /**
+     * The columns of an address listed by the REST API, read without loading the entity, with the customer as
+     * the id held by its foreign key.
+     */
+    record AddressRow(Long id, String address1, String address2, String city, String postcode, String country, Long customerId) {}
+}
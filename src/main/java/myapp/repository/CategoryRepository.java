@@ -1,11 +1,14 @@
 package myapp.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import myapp.domain.Category;
+import myapp.domain.enumeration.CategoryStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -17,7 +20,7 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface CategoryRepository extends CategoryRepositoryWithBagRelationships, JpaRepository<Category, Long> {
     default Optional<Category> findOneWithEagerRelationships(Long id) {
-        return this.fetchBagRelationships(this.findById(id));
+        return this.findOneWithToManyRelationships(id);
     }
 
     default List<Category> findAllWithEagerRelationships() {
@@ -27,4 +30,71 @@ public interface CategoryRepository extends CategoryRepositoryWithBagRelationshi
     default Page<Category> findAllWithEagerRelationships(Pageable pageable) {
         return this.fetchBagRelationships(this.findAll(pageable));
     }
+
+    @Query("select category from Category category left join fetch category.products where category.id = :id")
+    Optional<Category> findOneWithToManyRelationships(@Param("id") Long id);
+
+    @Query(
+        "select category.id as categoryId, product.id as productId, product.title as productTitle from Category category join category.products product where category.id in :categoryIds order by category.id, product.id"
+    )
+    List<CategoryProductSummary> findProductSummaries(@Param("categoryIds") Collection<Long> categoryIds);
+
+    @Query("select category.id as categoryId, product.id as productId from Category category join category.products product")
+    List<CategoryProductLink> findAllProductLinks();
+
+    @Query(
+        "select category.id as id, category.parent.id as parentId, category.description as description, category.sortOrder as sortOrder, category.status as status from Category category"
+    )
+    List<CategoryTreeRow> findAllTreeRows();
+
+    @Query(
+        "select category.id as id, category.version as version, category.dateModified as dateModified from Category category where category.id = :id"
+    )
+    Optional<VersionStamp> findVersionStampById(@Param("id") Long id);
+
+    @Query(
+        "select product.id as id, product.version as version, product.dateModified as dateModified from Category category join category.products product where category.id = :id"
+    )
+    List<VersionStamp> findProductVersionStampsById(@Param("id") Long id);
+
+    @Query(
+        value = "select category.id as id, category.version as version, category.dateModified as dateModified from Category category",
+        countQuery = "select count(category) from Category category"
+    )
+    Page<VersionStamp> findAllVersionStamps(Pageable pageable);
+
+    /**
+     * A row of the category/product join table.
+     */
+    interface CategoryProductLink {
+        Long getCategoryId();
+
+        Long getProductId();
+    }
+
+    /**
+     * The id and title of a product of a category.
+     */
+    interface CategoryProductSummary {
+        Long getCategoryId();
+
+        Long getProductId();
+
+        String getProductTitle();
+    }
+
+    /**
+     * The columns of a category needed to build the category tree.
+     */
+    interface CategoryTreeRow {
+        Long getId();
+
+        Long getParentId();
+
+        String getDescription();
+
+        Integer getSortOrder();
+
+        CategoryStatus getStatus();
+    }
 }
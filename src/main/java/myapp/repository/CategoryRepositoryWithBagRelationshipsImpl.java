@@ -3,10 +3,11 @@ package myapp.repository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.IntStream;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import myapp.domain.Category;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -45,16 +46,18 @@ public class CategoryRepositoryWithBagRelationshipsImpl implements CategoryRepos
     }
 
     List<Category> fetchProducts(List<Category> categories) {
-        HashMap<Object, Integer> order = new HashMap<>();
-        IntStream.range(0, categories.size()).forEach(index -> order.put(categories.get(index).getId(), index));
-        List<Category> result = entityManager
+        if (categories.isEmpty()) {
+            return categories;
+        }
+        Map<Long, Category> fetched = entityManager
             .createQuery(
-                "select category from Category category left join fetch category.products where category in :categories",
+                "select distinct category from Category category left join fetch category.products where category in :categories",
                 Category.class
             )
             .setParameter(CATEGORIES_PARAMETER, categories)
-            .getResultList();
-        Collections.sort(result, (o1, o2) -> Integer.compare(order.get(o1.getId()), order.get(o2.getId())));
-        return result;
+            .getResultStream()
+            .collect(Collectors.toMap(Category::getId, Function.identity()));
+        // keep the order of the page
+        return categories.stream().map(category -> fetched.get(category.getId())).toList();
     }
 }
@@ -1,7 +1,12 @@
 package myapp.repository;
 
+import java.util.List;
 import myapp.domain.Customer;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +14,19 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {}
+public interface CustomerRepository extends JpaRepository<Customer, Long> {
+    String CUSTOMER_ROWS =
+        "select new myapp.repository.CustomerRepository$CustomerRow(customer.id, customer.firstName, customer.lastName, customer.email, customer.telephone) from Customer customer";
+
+    @Query(value = CUSTOMER_ROWS, countQuery = "select count(customer) from Customer customer")
+    Page<CustomerRow> findAllRows(Pageable pageable);
+
+    @Query(CUSTOMER_ROWS + " where customer.id > :id order by customer.id")
+    List<CustomerRow> findAllRowsAfterId(@Param("id") Long id, Limit limit);
+
+    /**
+     * The columns of a customer listed by the REST API, read without loading the entity and the wrappers of
+     * its collections.
+     */
+    record CustomerRow(Long id, String firstName, String lastName, String email, String telephone) {}
+}
@@ -1,7 +1,17 @@
 package myapp.repository;
 
+import jakarta.persistence.QueryHint;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
 import myapp.domain.Order;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +19,47 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {}
+public interface OrderRepository extends JpaRepository<Order, Long> {
+    int STREAM_FETCH_SIZE = 1000;
+
+    String ORDER_ROWS =
+        "select new myapp.repository.OrderRepository$OrderRow(jhiOrder.id, jhiOrder.version, jhiOrder.orderDate, jhiOrder.shippedDate, jhiOrder.status, jhiOrder.totalAmount, jhiOrder.shippingCost, jhiOrder.trackingNumber, jhiOrder.shippingAddress.id, jhiOrder.customer.id) from Order jhiOrder";
+
+    @Query(value = ORDER_ROWS, countQuery = "select count(jhiOrder) from Order jhiOrder")
+    Page<OrderRow> findAllRows(Pageable pageable);
+
+    @Query(ORDER_ROWS + " where jhiOrder.id > :id order by jhiOrder.id")
+    List<OrderRow> findAllRowsAfterId(@Param("id") Long id, Limit limit);
+
+    @Query(ORDER_ROWS + " order by jhiOrder.orderDate, jhiOrder.id")
+    List<OrderRow> findAllRowsOrderByOrderDate(Limit limit);
+
+    @Query(ORDER_ROWS + " where (jhiOrder.orderDate, jhiOrder.id) > (:orderDate, :id) order by jhiOrder.orderDate, jhiOrder.id")
+    List<OrderRow> findAllRowsAfterOrderDate(@Param("orderDate") Instant orderDate, @Param("id") Long id, Limit limit);
+
+    /**
+     * Stream the rows of all the orders in id order through a forward-only JDBC cursor, {@link #STREAM_FETCH_SIZE}
+     * rows per round trip. No entity is loaded, so the persistence context stays empty however many rows are read.
+     * Must be consumed, and closed, within a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query(ORDER_ROWS + " order by jhiOrder.id")
+    Stream<OrderRow> streamAllRowsOrderById();
+
+    /**
+     * The columns of an order listed by the REST API, read without loading the entity, with the shipping address
+     * and the customer as the ids held by their foreign keys.
+     */
+    record OrderRow(
+        Long id,
+        Long version,
+        Instant orderDate,
+        Instant shippedDate,
+        String status,
+        BigDecimal totalAmount,
+        BigDecimal shippingCost,
+        String trackingNumber,
+        Long shippingAddressId,
+        Long customerId
+    ) {}
+}
@@ -0,0 +1,37 @@
+package myapp.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.List;
+import myapp.domain.OutboxEvent;
+import org.hibernate.LockOptions;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the OutboxEvent entity.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    /**
+     * Lock the oldest events due to be relayed, skipping the events another transaction already locked, so that
+     * concurrent relays each get their own events ({@code FOR UPDATE SKIP LOCKED}). The events stay locked until
+     * the transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "" + LockOptions.SKIP_LOCKED))
+    @Query("select outboxEvent from OutboxEvent outboxEvent where outboxEvent.availableAt <= :now order by outboxEvent.id")
+    List<OutboxEvent> lockDueEvents(@Param("now") Instant now, Limit limit);
+
+    /**
+     * Postpone the relay of an event a listener failed on.
+     */
+    @Modifying
+    @Query(
+        "update OutboxEvent outboxEvent set outboxEvent.attempts = :attempts, outboxEvent.availableAt = :availableAt where outboxEvent.id = :id"
+    )
+    void postpone(@Param("id") Long id, @Param("attempts") int attempts, @Param("availableAt") Instant availableAt);
+}
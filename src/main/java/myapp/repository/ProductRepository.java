@@ -1,7 +1,19 @@
 package myapp.repository;
 
+import jakarta.persistence.QueryHint;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import myapp.domain.Product;
+import myapp.domain.enumeration.ProductStatus;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +21,67 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {}
+public interface ProductRepository extends ProductRepositoryWithStock, JpaRepository<Product, Long> {
+    String PRODUCT_ROWS =
+        "select new myapp.repository.ProductRepository$ProductRow(product.id, product.version, product.title, product.keywords, product.description, product.rating, product.price, product.quantityInStock, product.status, product.weight, product.dimensions, product.dateAdded, product.dateModified, product.wishList.id, product.order.id) from Product product";
+
+    // keyset scans walk the whole catalog, they must not flush the hot products out of the second-level cache
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS"))
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query(value = PRODUCT_ROWS, countQuery = "select count(product) from Product product")
+    Page<ProductRow> findAllRows(Pageable pageable);
+
+    @Query(PRODUCT_ROWS + " where product.id > :id order by product.id")
+    List<ProductRow> findAllRowsAfterId(@Param("id") Long id, Limit limit);
+
+    @Query(PRODUCT_ROWS + " order by product.dateAdded, product.id")
+    List<ProductRow> findAllRowsOrderByDateAdded(Limit limit);
+
+    @Query(PRODUCT_ROWS + " where (product.dateAdded, product.id) > (:dateAdded, :id) order by product.dateAdded, product.id")
+    List<ProductRow> findAllRowsAfterDateAdded(@Param("dateAdded") Instant dateAdded, @Param("id") Long id, Limit limit);
+
+    @Query(
+        "select product.id as id, product.version as version, product.dateModified as dateModified from Product product where product.id = :id"
+    )
+    Optional<VersionStamp> findVersionStampById(@Param("id") Long id);
+
+    @Query(
+        value = "select product.id as id, product.version as version, product.dateModified as dateModified from Product product",
+        countQuery = "select count(product) from Product product"
+    )
+    Page<VersionStamp> findAllVersionStamps(Pageable pageable);
+
+    @Query(
+        "select new myapp.repository.ProductRepository$StatusRow(product.id, product.status) from Product product where product.id in :ids"
+    )
+    List<StatusRow> findStatusRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * The columns of a product listed by the REST API, read without loading the entity: no persistence context
+     * entry, no snapshot for dirty checking and no collection wrapper, and the wish list and the order as the
+     * ids held by their foreign keys.
+     */
+    record ProductRow(
+        Long id,
+        Long version,
+        String title,
+        String keywords,
+        String description,
+        Integer rating,
+        BigDecimal price,
+        Integer quantityInStock,
+        ProductStatus status,
+        Double weight,
+        String dimensions,
+        Instant dateAdded,
+        Instant dateModified,
+        Long wishListId,
+        Long orderId
+    ) {}
+
+    /**
+     * The status of a product, read without loading the entity.
+     */
+    record StatusRow(Long id, ProductStatus status) {}
+}
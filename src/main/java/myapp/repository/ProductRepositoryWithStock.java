@@ -0,0 +1,43 @@
+package myapp.repository;
+
+import java.util.Map;
+
+public interface ProductRepositoryWithStock {
+    /**
+     * Take a quantity of a product out of its stock, provided that much is left.
+     * <p>
+     * The check and the decrement are a single conditional {@code UPDATE}, so concurrent buyers of the
+     * same product only wait for each other's row lock, never for a read-then-write round trip. A product
+     * whose stock drops to zero is marked out of stock. Like every stock update, it increments the version
+     * of the product and dates the change, so that an edit based on an older stock fails instead of
+     * overwriting it and clients holding the older stock see it changed.
+     * <p>
+     * The second-level cache entry of the product is not touched; evict it once the transaction commits.
+     *
+     * @param productId the id of the product.
+     * @param quantity the quantity to take, strictly positive.
+     * @return {@code true} if the stock was decremented, {@code false} if the product does not have that
+     * much left or does not track its stock.
+     */
+    boolean decrementStock(Long productId, int quantity);
+
+    /**
+     * Take a quantity of a product out of its stock for a node to hand out to reservations, provided
+     * that much is left. Unlike {@link #decrementStock}, the status of the product is left unchanged, the
+     * units not being sold yet.
+     *
+     * @param productId the id of the product.
+     * @param quantity the quantity to take, strictly positive.
+     * @return {@code true} if the stock was decremented.
+     */
+    boolean takeStock(Long productId, int quantity);
+
+    /**
+     * Put quantities of products back into their stock, in a single JDBC batch.
+     * <p>
+     * As with {@link #decrementStock}, the second-level cache entries of the products are not touched.
+     *
+     * @param quantities the quantity to put back, by product id.
+     */
+    void returnStock(Map<Long, Integer> quantities);
+}
@@ -0,0 +1,89 @@
+package myapp.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Calendar;
+import java.util.Map;
+import java.util.TimeZone;
+import myapp.domain.enumeration.ProductStatus;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+
+public class ProductRepositoryWithStockImpl implements ProductRepositoryWithStock {
+
+    /**
+     * Query space the stock update declares instead of the {@code product} table. Hibernate invalidates
+     * the whole second-level cache region of every table a native update may touch; declaring a space no
+     * entity maps to keeps the cached catalog warm, the affected products being evicted one by one instead.
+     */
+    private static final String STOCK_QUERY_SPACE = "product_stock";
+
+    private static final String DECREMENT_STOCK =
+        "update product set status = case when quantity_in_stock = :quantity then :outOfStock else status end, " +
+        "quantity_in_stock = quantity_in_stock - :quantity, version = version + 1, date_modified = :modified " +
+        "where id = :id and quantity_in_stock >= :quantity";
+
+    private static final String TAKE_STOCK =
+        "update product set quantity_in_stock = quantity_in_stock - :quantity, version = version + 1, date_modified = :modified " +
+        "where id = :id and quantity_in_stock >= :quantity";
+
+    private static final String RETURN_STOCK =
+        "update product set quantity_in_stock = quantity_in_stock + ?, version = version + 1, date_modified = ? where id = ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public boolean decrementStock(Long productId, int quantity) {
+        return (
+            stockUpdate(DECREMENT_STOCK, productId, quantity)
+                .setParameter("outOfStock", ProductStatus.OUT_OF_STOCK.name())
+                .executeUpdate() ==
+            1
+        );
+    }
+
+    @Override
+    public boolean takeStock(Long productId, int quantity) {
+        return stockUpdate(TAKE_STOCK, productId, quantity).executeUpdate() == 1;
+    }
+
+    @Override
+    public void returnStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        // plain JDBC: Hibernate knows nothing of this update, hence invalidates no cache region
+        entityManager
+            .unwrap(Session.class)
+            .doWork(connection -> {
+                // stored in UTC, like Hibernate does (hibernate.jdbc.time_zone)
+                Calendar utc = Calendar.getInstance(TimeZone.getTimeZone(ZoneOffset.UTC));
+                Timestamp modified = Timestamp.from(Instant.now());
+                try (PreparedStatement statement = connection.prepareStatement(RETURN_STOCK)) {
+                    for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                        statement.setInt(1, entry.getValue());
+                        statement.setTimestamp(2, modified, utc);
+                        statement.setLong(3, entry.getKey());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+            });
+    }
+
+    @SuppressWarnings("unchecked")
+    private NativeQuery<?> stockUpdate(String sql, Long productId, int quantity) {
+        return entityManager
+            .createNativeQuery(sql)
+            .unwrap(NativeQuery.class)
+            .addSynchronizedQuerySpace(STOCK_QUERY_SPACE)
+            .setParameter("id", productId)
+            .setParameter("quantity", quantity)
+            .setParameter("modified", Instant.now());
+    }
+}
@@ -0,0 +1,15 @@
+package myapp.repository;
+
+import java.time.Instant;
+
+/**
+ * The version and last modification date of a versioned entity, read without loading the entity to tell
+ * whether the copy a client holds is still current.
+ */
+public interface VersionStamp {
+    Long getId();
+
+    Long getVersion();
+
+    Instant getDateModified();
+}
@@ -1,5 +1,6 @@
 package myapp.repository;
 
+import java.util.List;
 import myapp.domain.WishList;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
@@ -9,4 +10,15 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface WishListRepository extends JpaRepository<WishList, Long> {}
+public interface WishListRepository extends JpaRepository<WishList, Long> {
+    @Query(
+        "select new myapp.repository.WishListRepository$WishListRow(wishList.id, wishList.title, wishList.restricted, wishList.customer.id) from WishList wishList"
+    )
+    List<WishListRow> findAllRows();
+
+    /**
+     * The columns of a wish list listed by the REST API, read without loading the entity, with the customer as
+     * the id held by its foreign key.
+     */
+    record WishListRow(Long id, String title, Boolean restricted, Long customerId) {}
+}
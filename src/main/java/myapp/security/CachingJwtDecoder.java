@@ -0,0 +1,139 @@
+package myapp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.BadJWSException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import myapp.management.SecurityMetersService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+/**
+ * A {@link JwtDecoder} remembering the tokens it verified until they expire.
+ * <p>
+ * A client sends the same token with every request; parsing it and checking its signature again each time is
+ * wasted work once it was found valid. The cache is keyed by the token itself, so that only the very token that
+ * was verified can hit it, and only tokens that passed validation are kept. Rejected tokens are counted by
+ * cause in the {@link SecurityMetersService} meters.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CachingJwtDecoder.class);
+
+    public static final String CACHE_NAME = "verifiedJwts";
+
+    private final JwtDecoder delegate;
+
+    private final SecurityMetersService metersService;
+
+    private final Cache<String, Jwt> verified;
+
+    /**
+     * @param delegate the decoder verifying the tokens; its only validation must be the expiry of the tokens,
+     * which is how its validation failures are counted.
+     * @param metersService the meters counting the rejected tokens.
+     * @param maxEntries the maximum number of tokens to remember.
+     * @param clock the clock telling when tokens expire.
+     */
+    public CachingJwtDecoder(JwtDecoder delegate, SecurityMetersService metersService, long maxEntries, Clock clock) {
+        this.delegate = delegate;
+        this.metersService = metersService;
+        this.verified = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfter(
+                new Expiry<String, Jwt>() {
+                    @Override
+                    public long expireAfterCreate(String token, Jwt jwt, long currentTime) {
+                        return timeToLive(jwt, clock).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Jwt jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Jwt jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                }
+            )
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Publish the hits and misses of the cache.
+     *
+     * @param registry the meter registry.
+     * @return this decoder.
+     */
+    public CachingJwtDecoder monitor(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, verified, CACHE_NAME);
+        return this;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        Jwt jwt = verified.getIfPresent(token);
+        if (jwt != null) {
+            return jwt;
+        }
+        jwt = verify(token);
+        if (jwt.getExpiresAt() != null) {
+            verified.put(token, jwt);
+        }
+        return jwt;
+    }
+
+    private Jwt verify(String token) {
+        try {
+            return delegate.decode(token);
+        } catch (JwtValidationException e) {
+            metersService.trackTokenExpired();
+            throw e;
+        } catch (BadJwtException e) {
+            if (hasCause(e, BadJWSException.class)) {
+                metersService.trackTokenInvalidSignature();
+            } else if (hasCause(e, ParseException.class)) {
+                metersService.trackTokenMalformed();
+            } else if (e.getCause() == null || hasCause(e, BadJOSEException.class)) {
+                // unsigned tokens are rejected before being processed, encrypted ones while being processed
+                metersService.trackTokenUnsupported();
+            } else {
+                LOG.error("Unknown JWT error {}", e.getMessage());
+            }
+            throw e;
+        } catch (JwtException e) {
+            LOG.error("Unknown JWT error {}", e.getMessage());
+            throw e;
+        }
+    }
+
+    private static Duration timeToLive(Jwt jwt, Clock clock) {
+        Instant expiresAt = jwt.getExpiresAt();
+        Duration timeToLive = expiresAt == null ? Duration.ZERO : Duration.between(clock.instant(), expiresAt);
+        return timeToLive.isNegative() ? Duration.ZERO : timeToLive;
+    }
+
+    private static boolean hasCause(Throwable e, Class<? extends Throwable> type) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,14 +1,20 @@
 package myapp.security;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import myapp.domain.Authority;
 import myapp.domain.User;
 import myapp.repository.UserRepository;
+import myapp.service.AfterCommit;
 import org.hibernate.validator.internal.constraintvalidators.hv.EmailValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
@@ -16,47 +22,127 @@ import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Authenticate a user from the database.
+ * <p>
+ * The login, password, activation and authorities of the users who authenticated recently are kept in the
+ * {@value #USER_DETAILS_CACHE} cache, bounded in size and time to live, so that a burst of logins does not
+ * read the same users again and again. {@link myapp.service.UserService} evicts a user whenever it changes one
+ * of these.
+ * <p>
+ * The password hash of a user logging in with a hash of another cost than the configured one is replaced by
+ * the hash Spring Security computes at the configured cost, see {@link MeteredBCryptPasswordEncoder}.
  */
 @Component("userDetailsService")
-public class DomainUserDetailsService implements UserDetailsService {
+public class DomainUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private static final Logger LOG = LoggerFactory.getLogger(DomainUserDetailsService.class);
 
+    public static final String USER_DETAILS_CACHE = "userDetails";
+
+    private static final String LOGIN_KEY_PREFIX = "login:";
+
+    private static final String EMAIL_KEY_PREFIX = "email:";
+
+    private static final EmailValidator EMAIL_VALIDATOR = new EmailValidator();
+
+    /**
+     * What authentication needs to know of a user. Immutable, the same copy serves concurrent logins.
+     */
+    private record AuthenticationDetails(String login, String password, boolean activated, List<String> authorities) {
+        private AuthenticationDetails(User user) {
+            this(user.getLogin(), user.getPassword(), user.isActivated(), user.getAuthorities().stream().map(Authority::getName).toList());
+        }
+    }
+
     private final UserRepository userRepository;
 
-    public DomainUserDetailsService(UserRepository userRepository) {
+    private final Cache userDetailsCache;
+
+    /**
+     * Counts the evictions, so that a user read before an eviction is not cached after it.
+     */
+    private final AtomicLong evictions = new AtomicLong();
+
+    public DomainUserDetailsService(UserRepository userRepository, CacheManager cacheManager) {
         this.userRepository = userRepository;
+        this.userDetailsCache = Objects.requireNonNull(cacheManager.getCache(USER_DETAILS_CACHE), USER_DETAILS_CACHE);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(final String login) {
         LOG.debug("Authenticating {}", login);
 
-        if (new EmailValidator().isValid(login, null)) {
-            return userRepository
-                .findOneWithAuthoritiesByEmailIgnoreCase(login)
-                .map(user -> createSpringSecurityUser(login, user))
-                .orElseThrow(() -> new UsernameNotFoundException("User with email " + login + " was not found in the database"));
+        if (EMAIL_VALIDATOR.isValid(login, null)) {
+            AuthenticationDetails user = load(EMAIL_KEY_PREFIX + login.toLowerCase(Locale.ENGLISH), () ->
+                userRepository.findOneWithAuthoritiesByEmailIgnoreCase(login)
+            ).orElseThrow(() -> new UsernameNotFoundException("User with email " + login + " was not found in the database"));
+            return createSpringSecurityUser(login, user);
         }
 
         String lowercaseLogin = login.toLowerCase(Locale.ENGLISH);
-        return userRepository
-            .findOneWithAuthoritiesByLogin(lowercaseLogin)
-            .map(user -> createSpringSecurityUser(lowercaseLogin, user))
-            .orElseThrow(() -> new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the database"));
+        AuthenticationDetails user = load(LOGIN_KEY_PREFIX + lowercaseLogin, () ->
+            userRepository.findOneWithAuthoritiesByLogin(lowercaseLogin)
+        ).orElseThrow(() -> new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the database"));
+        return createSpringSecurityUser(lowercaseLogin, user);
+    }
+
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository
+            .findOneByLogin(user.getUsername())
+            .ifPresent(domainUser -> {
+                List<String> keys = cacheKeys(domainUser);
+                domainUser.setPassword(newPassword);
+                AfterCommit.run(() -> evict(keys));
+                LOG.debug("Rehashed the password of {}", domainUser.getLogin());
+            });
+        return org.springframework.security.core.userdetails.User.withUserDetails(user).password(newPassword).build();
+    }
+
+    /**
+     * @param user a user.
+     * @return the keys the user can be cached under, as it is now.
+     */
+    public static List<String> cacheKeys(User user) {
+        List<String> keys = new ArrayList<>(2);
+        if (user.getLogin() != null) {
+            keys.add(LOGIN_KEY_PREFIX + user.getLogin().toLowerCase(Locale.ENGLISH));
+        }
+        if (user.getEmail() != null) {
+            keys.add(EMAIL_KEY_PREFIX + user.getEmail().toLowerCase(Locale.ENGLISH));
+        }
+        return keys;
+    }
+
+    /**
+     * Evict users from the cache, once their changes are committed.
+     *
+     * @param keys the {@link #cacheKeys(User) keys} of the users.
+     */
+    public void evict(Collection<String> keys) {
+        evictions.incrementAndGet();
+        keys.forEach(userDetailsCache::evict);
+    }
+
+    private Optional<AuthenticationDetails> load(String key, Supplier<Optional<User>> query) {
+        AuthenticationDetails cached = userDetailsCache.get(key, AuthenticationDetails.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long evictionsBefore = evictions.get();
+        Optional<AuthenticationDetails> user = query.get().map(AuthenticationDetails::new);
+        // a user changed while it was read may have been read before the change
+        if (user.isPresent() && evictions.get() == evictionsBefore) {
+            userDetailsCache.put(key, user.get());
+        }
+        return user;
     }
 
-    private org.springframework.security.core.userdetails.User createSpringSecurityUser(String lowercaseLogin, User user) {
-        if (!user.isActivated()) {
+    private org.springframework.security.core.userdetails.User createSpringSecurityUser(String lowercaseLogin, AuthenticationDetails user) {
+        if (!user.activated()) {
             throw new UserNotActivatedException("User " + lowercaseLogin + " was not activated");
         }
-        List<SimpleGrantedAuthority> grantedAuthorities = user
-            .getAuthorities()
-            .stream()
-            .map(Authority::getName)
-            .map(SimpleGrantedAuthority::new)
-            .toList();
-        return new org.springframework.security.core.userdetails.User(user.getLogin(), user.getPassword(), grantedAuthorities);
+        List<SimpleGrantedAuthority> grantedAuthorities = user.authorities().stream().map(SimpleGrantedAuthority::new).toList();
+        return new org.springframework.security.core.userdetails.User(user.login(), user.password(), grantedAuthorities);
     }
 }
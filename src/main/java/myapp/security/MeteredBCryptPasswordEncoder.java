@@ -0,0 +1,65 @@
+package myapp.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * A BCrypt {@link PasswordEncoder} timing its hashes, and asking for the hashes of another cost than the
+ * configured one to be upgraded.
+ * <p>
+ * Spring Security re-encodes the password of a user whose hash must be upgraded once the user logged in with
+ * it, through the {@link org.springframework.security.core.userdetails.UserDetailsPasswordService}. The cost can
+ * thus be raised as hardware gets faster, or lowered, without resetting any password.
+ */
+public class MeteredBCryptPasswordEncoder implements PasswordEncoder {
+
+    public static final String HASHING_METER_NAME = "security.password.hashing";
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final BCryptPasswordEncoder delegate;
+
+    private final int cost;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    public MeteredBCryptPasswordEncoder(int cost, MeterRegistry registry) {
+        this.delegate = new BCryptPasswordEncoder(cost);
+        this.cost = cost;
+        this.encodeTimer = hashingTimer("encode", registry);
+        this.matchesTimer = hashingTimer("matches", registry);
+    }
+
+    private static Timer hashingTimer(String operation, MeterRegistry registry) {
+        return Timer.builder(HASHING_METER_NAME)
+            .description("Time spent hashing passwords")
+            .tag("operation", operation)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return Boolean.TRUE.equals(matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != cost;
+    }
+}
@@ -0,0 +1,82 @@
+package myapp.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import myapp.config.ApplicationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the password checks of the users logging in, away from the request threads.
+ * <p>
+ * Hashing a password keeps a processor busy for tens of milliseconds: run on the request threads, a burst of
+ * logins would hold them all and stall every other request. The checks rather run on a fixed number of
+ * threads, behind a bounded queue; a login arriving when the queue is full is turned away at once with a
+ * {@link PasswordHashingSaturatedException}, rather than left waiting for longer than the client would.
+ * The depth of the queue and the busy threads are published as the {@value #EXECUTOR_NAME} executor meters.
+ */
+@Component
+public class PasswordHashingExecutor implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PasswordHashingExecutor.class);
+
+    public static final String EXECUTOR_NAME = "passwordHashing";
+
+    public static final String REJECTED_METER_NAME = "security.password.hashing.rejected";
+
+    private final ThreadPoolExecutor executor;
+
+    private final Counter rejected;
+
+    public PasswordHashingExecutor(ApplicationProperties applicationProperties, MeterRegistry registry) {
+        ApplicationProperties.Security.PasswordHashing properties = applicationProperties.getSecurity().getPasswordHashing();
+        int threads = properties.getThreads() > 0 ? properties.getThreads() : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+            new CustomizableThreadFactory("password-hashing-"),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        new ExecutorServiceMetrics(executor, EXECUTOR_NAME, Tags.empty()).bindTo(registry);
+        this.rejected = Counter.builder(REJECTED_METER_NAME)
+            .description("Number of logins turned away because too many were waiting for their password to be checked")
+            .register(registry);
+    }
+
+    /**
+     * Run a password check.
+     *
+     * @param check the password check.
+     * @param <T> the type of the result.
+     * @return the result of the check, once it ran.
+     * @throws PasswordHashingSaturatedException if too many checks are already waiting.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> check) {
+        try {
+            return CompletableFuture.supplyAsync(check, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            LOG.debug("Password hashing saturated, {} checks waiting", executor.getQueue().size());
+            throw new PasswordHashingSaturatedException("Too many logins in progress, try again later", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,13 @@
+package myapp.security;
+
+/**
+ * This exception is thrown when too many logins are already waiting for their password to be checked.
+ */
+public class PasswordHashingSaturatedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PasswordHashingSaturatedException(String message, Throwable t) {
+        super(message, t);
+    }
+}
@@ -1,13 +1,28 @@
 package myapp.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import myapp.config.ApplicationProperties;
 import myapp.domain.Category;
+import myapp.domain.Product;
 import myapp.repository.CategoryRepository;
+import myapp.repository.CategoryRepository.CategoryProductSummary;
+import myapp.repository.VersionStamp;
+import myapp.service.catalog.CategoryNode;
+import myapp.service.catalog.CategoryTree;
+import myapp.service.catalog.CategoryTreeCache;
+import myapp.service.dto.CategoryDTO;
+import myapp.service.dto.ProductSummaryDTO;
+import myapp.service.search.ProductFacetIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -21,8 +36,26 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    private final ProductFacetIndex productFacetIndex;
+
+    private final CategoryTreeCache categoryTreeCache;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final OptimisticRetry optimisticRetry;
+
+    public CategoryService(
+        CategoryRepository categoryRepository,
+        ProductFacetIndex productFacetIndex,
+        CategoryTreeCache categoryTreeCache,
+        ApplicationProperties applicationProperties,
+        OptimisticRetry optimisticRetry
+    ) {
         this.categoryRepository = categoryRepository;
+        this.productFacetIndex = productFacetIndex;
+        this.categoryTreeCache = categoryTreeCache;
+        this.applicationProperties = applicationProperties;
+        this.optimisticRetry = optimisticRetry;
     }
 
     /**
@@ -33,51 +66,88 @@ public class CategoryService {
      */
     public Category save(Category category) {
         LOG.debug("Request to save Category : {}", category);
-        return categoryRepository.save(category);
+        Category result = categoryRepository.save(category);
+        indexProductsAfterCommit(result);
+        categoryTreeCache.reloadAfterCommit();
+        return result;
     }
 
     /**
      * Update a category.
+     * <p>
+     * The update is based on the version of the category, if given, and fails with a {@link StaleVersionException}
+     * if the category was updated since. Without a version, the category is overwritten, the update being retried if
+     * it conflicts with a concurrent one.
      *
      * @param category the entity to save.
      * @return the persisted entity.
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Category update(Category category) {
         LOG.debug("Request to update Category : {}", category);
-        return categoryRepository.save(category);
+        Long expectedVersion = category.getVersion();
+        return optimisticRetry.execute(() -> {
+            categoryRepository
+                .findById(category.getId())
+                .ifPresent(existingCategory ->
+                    category.setVersion(
+                        StaleVersionException.check(Category.class, category.getId(), expectedVersion, existingCategory.getVersion())
+                    )
+                );
+            Category result = categoryRepository.save(category);
+            indexProductsAfterCommit(result);
+            categoryTreeCache.reloadAfterCommit();
+            return result;
+        });
+    }
+
+    private void indexProductsAfterCommit(Category category) {
+        // read the members while the persistence context is still open
+        List<Long> productIds = category.getProducts() == null
+            ? List.of()
+            : category.getProducts().stream().map(Product::getId).toList();
+        productFacetIndex.setCategoryProductsAfterCommit(category.getId(), productIds);
     }
 
     /**
      * Partially update a category.
+     * <p>
+     * As for {@link #update}, the update is based on the version of the category, if given; without one, the
+     * fields are set again on top of the concurrent update the update conflicted with, if any.
      *
      * @param category the entity to update partially.
      * @return the persisted entity.
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<Category> partialUpdate(Category category) {
         LOG.debug("Request to partially update Category : {}", category);
 
-        return categoryRepository
-            .findById(category.getId())
-            .map(existingCategory -> {
-                if (category.getDescription() != null) {
-                    existingCategory.setDescription(category.getDescription());
-                }
-                if (category.getSortOrder() != null) {
-                    existingCategory.setSortOrder(category.getSortOrder());
-                }
-                if (category.getDateAdded() != null) {
-                    existingCategory.setDateAdded(category.getDateAdded());
-                }
-                if (category.getDateModified() != null) {
-                    existingCategory.setDateModified(category.getDateModified());
-                }
-                if (category.getStatus() != null) {
-                    existingCategory.setStatus(category.getStatus());
-                }
-
-                return existingCategory;
-            })
-            .map(categoryRepository::save);
+        return optimisticRetry.execute(() ->
+            categoryRepository
+                .findById(category.getId())
+                .map(existingCategory -> {
+                    StaleVersionException.check(Category.class, category.getId(), category.getVersion(), existingCategory.getVersion());
+                    if (category.getDescription() != null) {
+                        existingCategory.setDescription(category.getDescription());
+                    }
+                    if (category.getSortOrder() != null) {
+                        existingCategory.setSortOrder(category.getSortOrder());
+                    }
+                    if (category.getDateAdded() != null) {
+                        existingCategory.setDateAdded(category.getDateAdded());
+                    }
+                    if (category.getDateModified() != null) {
+                        existingCategory.setDateModified(category.getDateModified());
+                    }
+                    if (category.getStatus() != null) {
+                        existingCategory.setStatus(category.getStatus());
+                    }
+
+                    categoryTreeCache.reloadAfterCommit();
+                    return existingCategory;
+                })
+                .map(categoryRepository::save)
+        );
     }
 
     /**
@@ -87,18 +157,38 @@ public class CategoryService {
      * @return the list of entities.
      */
     @Transactional(readOnly = true)
-    public Page<Category> findAll(Pageable pageable) {
+    public Page<CategoryDTO> findAll(Pageable pageable) {
         LOG.debug("Request to get all Categories");
-        return categoryRepository.findAll(pageable);
+        return categoryRepository.findAll(pageable).map(CategoryDTO::new);
     }
 
     /**
-     * Get all the categories with eager load of many-to-many relationships.
+     * Get all the categories with the id and title of their products.
+     * <p>
+     * The products of the whole page are read by one projection query per batch of
+     * {@code application.catalog.product-fetch-batch-size} categories, without loading product entities.
      *
-     * @return the list of entities.
+     * @param pageable the pagination information.
+     * @return the list of categories, with their products.
      */
-    public Page<Category> findAllWithEagerRelationships(Pageable pageable) {
-        return categoryRepository.findAllWithEagerRelationships(pageable);
+    @Transactional(readOnly = true)
+    public Page<CategoryDTO> findAllWithProductSummaries(Pageable pageable) {
+        LOG.debug("Request to get all Categories with their products");
+        Page<CategoryDTO> page = findAll(pageable);
+        Map<Long, CategoryDTO> byId = new HashMap<>();
+        for (CategoryDTO category : page) {
+            category.setProducts(new ArrayList<>());
+            byId.put(category.getId(), category);
+        }
+        List<Long> ids = List.copyOf(byId.keySet());
+        int batchSize = Math.max(1, applicationProperties.getCatalog().getProductFetchBatchSize());
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            for (CategoryProductSummary row : categoryRepository.findProductSummaries(batch)) {
+                byId.get(row.getCategoryId()).getProducts().add(new ProductSummaryDTO(row.getProductId(), row.getProductTitle()));
+            }
+        }
+        return page;
     }
 
     /**
@@ -113,6 +203,42 @@ public class CategoryService {
         return categoryRepository.findOneWithEagerRelationships(id);
     }
 
+    /**
+     * Get the version stamp of one category, without loading it.
+     *
+     * @param id the id of the entity.
+     * @return the version stamp of the entity.
+     */
+    @Transactional(readOnly = true)
+    public Optional<VersionStamp> findVersionStamp(Long id) {
+        LOG.debug("Request to get the version of Category : {}", id);
+        return categoryRepository.findVersionStampById(id);
+    }
+
+    /**
+     * Get the version stamps of the products of one category, without loading them.
+     *
+     * @param id the id of the entity.
+     * @return the version stamps of its products.
+     */
+    @Transactional(readOnly = true)
+    public List<VersionStamp> findProductVersionStamps(Long id) {
+        LOG.debug("Request to get the versions of the Products of Category : {}", id);
+        return categoryRepository.findProductVersionStampsById(id);
+    }
+
+    /**
+     * Get the version stamps of a page of categories, without loading them.
+     *
+     * @param pageable the pagination information.
+     * @return the version stamps of the page, in the order {@link #findAll(Pageable)} returns its entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<VersionStamp> findAllVersionStamps(Pageable pageable) {
+        LOG.debug("Request to get the versions of all Categories");
+        return categoryRepository.findAllVersionStamps(pageable);
+    }
+
     /**
      * Delete the category by id.
      *
@@ -121,5 +247,44 @@ public class CategoryService {
     public void delete(Long id) {
         LOG.debug("Request to delete Category : {}", id);
         categoryRepository.deleteById(id);
+        productFacetIndex.removeCategoryAfterCommit(id);
+        categoryTreeCache.reloadAfterCommit();
+    }
+
+    /**
+     * Get the whole category hierarchy, from the in-memory tree.
+     *
+     * @return the root categories with their sub-categories.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<CategoryTree.Branch> findTree() {
+        LOG.debug("Request to get the Category tree");
+        return categoryTreeCache.current().roots();
+    }
+
+    /**
+     * Get the ancestors of a category, from the in-memory tree.
+     *
+     * @param id the id of the category.
+     * @return the ancestors from the root down to the parent, or empty if the category does not exist.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<List<CategoryNode>> findAncestors(Long id) {
+        LOG.debug("Request to get the ancestors of Category : {}", id);
+        CategoryTree tree = categoryTreeCache.current();
+        return tree.contains(id) ? Optional.of(tree.ancestors(id)) : Optional.empty();
+    }
+
+    /**
+     * Get all the categories under a category, from the in-memory tree.
+     *
+     * @param id the id of the category.
+     * @return the descendants in depth-first order, or empty if the category does not exist.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<List<CategoryNode>> findDescendants(Long id) {
+        LOG.debug("Request to get the descendants of Category : {}", id);
+        CategoryTree tree = categoryTreeCache.current();
+        return tree.contains(id) ? Optional.of(tree.descendants(id)) : Optional.empty();
     }
 }
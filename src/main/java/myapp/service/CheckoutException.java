@@ -0,0 +1,20 @@
+package myapp.service;
+
+/**
+ * Thrown when an order cannot be placed; nothing has been written when it is.
+ */
+public class CheckoutException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String errorKey;
+
+    public CheckoutException(String message, String errorKey) {
+        super(message);
+        this.errorKey = errorKey;
+    }
+
+    public String getErrorKey() {
+        return errorKey;
+    }
+}
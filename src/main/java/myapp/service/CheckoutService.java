@@ -0,0 +1,221 @@
+package myapp.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import myapp.config.ApplicationProperties;
+import myapp.domain.Address;
+import myapp.domain.Customer;
+import myapp.domain.Order;
+import myapp.domain.OrderLine;
+import myapp.domain.Product;
+import myapp.domain.enumeration.DomainEventType;
+import myapp.domain.enumeration.ProductStatus;
+import myapp.repository.AddressRepository;
+import myapp.repository.CustomerRepository;
+import myapp.repository.ProductRepository;
+import myapp.repository.ProductRepository.StatusRow;
+import myapp.service.dto.CheckoutDTO;
+import myapp.service.dto.CheckoutItemDTO;
+import myapp.service.outbox.OutboxService;
+import myapp.service.search.ProductFacetIndex;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service placing {@link Order}s from a cart.
+ * <p>
+ * An order is placed in one transaction: the order and its lines are inserted first, in JDBC batches,
+ * then the stock of every product is taken by a conditional update, and the transaction commits right
+ * away. The row locks of the products, the only contended rows during a sale, are thus held for the
+ * shortest time possible, and always taken in product id order so that two carts never deadlock.
+ * <p>
+ * The stock update may mark a product out of stock behind the back of the persistence context: an
+ * {@link DomainEventType#UPDATED} event is recorded for every product whose stock is taken, and their
+ * status is read again once the order is committed to update the {@link ProductFacetIndex}.
+ */
+@Service
+@Transactional
+public class CheckoutService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CheckoutService.class);
+
+    public static final String PLACED = "PLACED";
+
+    private final ProductRepository productRepository;
+
+    private final InventoryReservationService inventoryReservationService;
+
+    private final CustomerRepository customerRepository;
+
+    private final AddressRepository addressRepository;
+
+    private final EntityManager entityManager;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final OutboxService outboxService;
+
+    private final ProductFacetIndex productFacetIndex;
+
+    private final TransactionTemplate readTransaction;
+
+    private final ApplicationProperties.Checkout properties;
+
+    public CheckoutService(
+        ProductRepository productRepository,
+        InventoryReservationService inventoryReservationService,
+        CustomerRepository customerRepository,
+        AddressRepository addressRepository,
+        EntityManager entityManager,
+        EntityManagerFactory entityManagerFactory,
+        OutboxService outboxService,
+        ProductFacetIndex productFacetIndex,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.productRepository = productRepository;
+        this.inventoryReservationService = inventoryReservationService;
+        this.customerRepository = customerRepository;
+        this.addressRepository = addressRepository;
+        this.entityManager = entityManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.outboxService = outboxService;
+        this.productFacetIndex = productFacetIndex;
+        // the statuses are read once the order committed, out of its transaction
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+        this.properties = applicationProperties.getCheckout();
+    }
+
+    /**
+     * Place an order.
+     * <p>
+     * Unit prices and titles are copied from the products, and the shipping cost and total amount are
+     * computed from them; a cart holding the same product several times gets a single line for it.
+     * Products reserved for the cart are served from its reservation, the others straight from the stock,
+     * or from the units this node holds for reservations when the stock is short of them.
+     *
+     * @param checkout the cart.
+     * @return the placed order, with its lines.
+     * @throws CheckoutException if a product is unknown, not for sale or short of stock, if the
+     * customer or the shipping address is invalid, or if the reservation expired; nothing is written then.
+     */
+    public Order checkout(CheckoutDTO checkout) {
+        LOG.debug("Request to check out : {}", checkout);
+        Map<Long, Integer> quantities = quantitiesByProductId(checkout.getItems());
+        if (quantities.size() > properties.getMaxLines()) {
+            throw new CheckoutException("An order cannot have more than " + properties.getMaxLines() + " lines", "toomanylines");
+        }
+
+        Customer customer = customerRepository
+            .findById(checkout.getCustomerId())
+            .orElseThrow(() -> new CheckoutException("Unknown customer", "customernotfound"));
+        Address shippingAddress = null;
+        if (checkout.getShippingAddressId() != null) {
+            shippingAddress = addressRepository
+                .findById(checkout.getShippingAddressId())
+                .filter(address -> address.getCustomer() != null && Objects.equals(address.getCustomer().getId(), customer.getId()))
+                .orElseThrow(() -> new CheckoutException("Unknown shipping address", "addressnotfound"));
+        }
+
+        // multiLoad reads through the second-level cache, a query on the ids would always hit the database
+        List<Product> products = entityManager
+            .unwrap(Session.class)
+            .byMultipleIds(Product.class)
+            .multiLoad(new ArrayList<>(quantities.keySet()));
+
+        Order order = new Order().orderDate(Instant.now()).status(PLACED).customer(customer).shippingAddress(shippingAddress);
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (Product product : products) {
+            if (product == null) {
+                throw new CheckoutException("Unknown product", "productnotfound");
+            }
+            if (product.getStatus() == ProductStatus.DISCONTINUED) {
+                throw new CheckoutException("Product " + product.getId() + " is discontinued", "discontinued");
+            }
+            int quantity = quantities.get(product.getId());
+            OrderLine line = new OrderLine()
+                .product(product)
+                .productTitle(product.getTitle())
+                .unitPrice(product.getPrice())
+                .quantity(quantity);
+            order.addOrderLine(line);
+            subtotal = subtotal.add(product.getPrice().multiply(BigDecimal.valueOf(quantity)));
+        }
+        BigDecimal shippingCost = shippingCost(subtotal, properties);
+        order.shippingCost(shippingCost).totalAmount(subtotal.add(shippingCost).setScale(2, RoundingMode.HALF_UP));
+
+        entityManager.persist(order);
+        order.getOrderLines().forEach(entityManager::persist);
+        outboxService.record(Order.class, order.getId(), DomainEventType.CREATED);
+        entityManager.flush();
+
+        Map<Long, Integer> reserved = checkout.getReservationId() == null
+            ? Map.of()
+            : inventoryReservationService.claim(checkout.getReservationId(), quantities);
+        // the stock goes last: from here on the products are locked until the transaction ends
+        List<Long> decremented = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            int missing = entry.getValue() - reserved.getOrDefault(entry.getKey(), 0);
+            if (missing > 0 && !productRepository.decrementStock(entry.getKey(), missing)) {
+                // the units held by this node for reservations are missing from the row
+                missing -= inventoryReservationService.takeHeld(entry.getKey(), missing);
+                if (missing > 0 && !productRepository.decrementStock(entry.getKey(), missing)) {
+                    throw new CheckoutException("Product " + entry.getKey() + " is out of stock", "outofstock");
+                }
+            }
+            if (missing > 0) {
+                decremented.add(entry.getKey());
+                outboxService.record(Product.class, entry.getKey(), DomainEventType.UPDATED);
+            }
+        }
+        AfterCommit.run(() -> quantities.keySet().forEach(id -> entityManagerFactory.getCache().evict(Product.class, id)));
+        if (!decremented.isEmpty()) {
+            productFacetIndex.setStatusesAfterCommit(() -> readTransaction.execute(status -> statuses(decremented)));
+        }
+        return order;
+    }
+
+    private Map<Long, ProductStatus> statuses(Collection<Long> productIds) {
+        return productRepository.findStatusRowsByIdIn(productIds).stream().collect(Collectors.toMap(StatusRow::id, StatusRow::status));
+    }
+
+    /**
+     * The quantity ordered of every product, by ascending product id.
+     */
+    static Map<Long, Integer> quantitiesByProductId(List<CheckoutItemDTO> items) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (CheckoutItemDTO item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Math::addExact);
+        }
+        return quantities;
+    }
+
+    /**
+     * The shipping cost of an order: free from the free shipping threshold on, the flat rate below it.
+     */
+    static BigDecimal shippingCost(BigDecimal subtotal, ApplicationProperties.Checkout properties) {
+        BigDecimal threshold = properties.getFreeShippingThreshold();
+        if (threshold != null && subtotal.compareTo(threshold) >= 0) {
+            return BigDecimal.ZERO.setScale(2);
+        }
+        return properties.getShippingFlatRate().setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -1,10 +1,16 @@
 package myapp.service;
 
+import java.util.List;
 import java.util.Optional;
 import myapp.domain.Customer;
+import myapp.domain.enumeration.DomainEventType;
 import myapp.repository.CustomerRepository;
+import myapp.service.dto.CustomerDTO;
+import myapp.service.mapper.CustomerMapper;
+import myapp.service.outbox.OutboxService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -21,8 +27,14 @@ public class CustomerService {
 
     private final CustomerRepository customerRepository;
 
-    public CustomerService(CustomerRepository customerRepository) {
+    private final OutboxService outboxService;
+
+    private final CustomerMapper customerMapper;
+
+    public CustomerService(CustomerRepository customerRepository, OutboxService outboxService, CustomerMapper customerMapper) {
         this.customerRepository = customerRepository;
+        this.outboxService = outboxService;
+        this.customerMapper = customerMapper;
     }
 
     /**
@@ -33,7 +45,9 @@ public class CustomerService {
      */
     public Customer save(Customer customer) {
         LOG.debug("Request to save Customer : {}", customer);
-        return customerRepository.save(customer);
+        Customer result = customerRepository.save(customer);
+        outboxService.record(Customer.class, result.getId(), DomainEventType.CREATED);
+        return result;
     }
 
     /**
@@ -44,7 +58,9 @@ public class CustomerService {
      */
     public Customer update(Customer customer) {
         LOG.debug("Request to update Customer : {}", customer);
-        return customerRepository.save(customer);
+        Customer result = customerRepository.save(customer);
+        outboxService.record(Customer.class, result.getId(), DomainEventType.UPDATED);
+        return result;
     }
 
     /**
@@ -74,19 +90,40 @@ public class CustomerService {
 
                 return existingCustomer;
             })
-            .map(customerRepository::save);
+            .map(customerRepository::save)
+            .map(savedCustomer -> {
+                outboxService.record(Customer.class, savedCustomer.getId(), DomainEventType.UPDATED);
+                return savedCustomer;
+            });
     }
 
     /**
-     * Get all the customers.
+     * Get all the customers, read as rows rather than entities.
      *
      * @param pageable the pagination information.
-     * @return the list of entities.
+     * @return the list of DTOs.
      */
     @Transactional(readOnly = true)
-    public Page<Customer> findAll(Pageable pageable) {
+    public Page<CustomerDTO> findAll(Pageable pageable) {
         LOG.debug("Request to get all Customers");
-        return customerRepository.findAll(pageable);
+        return customerRepository.findAllRows(pageable).map(customerMapper::toDto);
+    }
+
+    /**
+     * Get the customers following a position in id order (keyset pagination).
+     *
+     * @param afterId the id of the last customer of the previous page, or {@code null} for the first page.
+     * @param limit the maximum number of customers to return.
+     * @return the list of DTOs.
+     */
+    @Transactional(readOnly = true)
+    public List<CustomerDTO> findAllAfterId(Long afterId, int limit) {
+        LOG.debug("Request to get Customers after id : {}", afterId);
+        return customerRepository
+            .findAllRowsAfterId(afterId == null ? Long.MIN_VALUE : afterId, Limit.of(limit))
+            .stream()
+            .map(customerMapper::toDto)
+            .toList();
     }
 
     /**
@@ -109,5 +146,6 @@ public class CustomerService {
     public void delete(Long id) {
         LOG.debug("Request to delete Customer : {}", id);
         customerRepository.deleteById(id);
+        outboxService.record(Customer.class, id, DomainEventType.DELETED);
     }
 }
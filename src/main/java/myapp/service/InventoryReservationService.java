@@ -0,0 +1,348 @@
+package myapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import myapp.config.ApplicationProperties;
+import myapp.domain.Product;
+import myapp.repository.ProductRepository;
+import myapp.service.dto.CheckoutItemDTO;
+import myapp.service.inventory.StockReservation;
+import myapp.service.inventory.StripedStock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service reserving units of products for carts, until they are checked out or abandoned.
+ * <p>
+ * Reservations are served from blocks of units this node takes out of the product stock with a
+ * conditional update, then hands out from in-memory {@link StripedStock} counters: a sale on a hot
+ * product costs one update of its row per block instead of one per buyer, and the product stock never
+ * goes negative however many nodes serve it. Expired reservations are released, and the units held for
+ * products nobody reserved lately are put back into the product stock, in batches, every
+ * {@code application.inventory.flush-interval-millis}.
+ * <p>
+ * Reservations and the units held live in this node's memory only. A reservation has to be checked out
+ * on the node that made it, and a node that crashes loses them, the stock of the products it served
+ * being short by at most a lease per product until it is counted again.
+ * <p>
+ * The units a node holds are missing from the product stock, so a checkout without a reservation may find
+ * the row short while this node still holds units of the product: it then takes them with
+ * {@link #takeHeld(Long, int)}, and the last units of a product can be sold whether they were reserved or not.
+ */
+@Service
+public class InventoryReservationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InventoryReservationService.class);
+
+    public static final String RESERVATIONS_METER_NAME = "inventory.reservations";
+
+    private final ProductRepository productRepository;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.Inventory properties;
+
+    private final int maxLines;
+
+    private final int stripes;
+
+    private final ConcurrentMap<Long, StripedStock> stocks = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<UUID, StockReservation> reservations = new ConcurrentHashMap<>();
+
+    /**
+     * Stocks removed from {@link #stocks} by the previous flush: a thread may still have been putting units
+     * into one of them, so they are drained once more before being dropped.
+     */
+    private Map<Long, StripedStock> retiredStocks = new HashMap<>();
+
+    /**
+     * Serializes the flushes, which write to the database: a lock, so that a flush running on a virtual thread
+     * does not keep its carrier thread while it waits.
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Counter reservedCounter;
+
+    private final Counter rejectedCounter;
+
+    private final Counter releasedCounter;
+
+    private final Counter expiredCounter;
+
+    private final Counter checkedOutCounter;
+
+    public InventoryReservationService(
+        ProductRepository productRepository,
+        EntityManagerFactory entityManagerFactory,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.productRepository = productRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        // stock taken or returned is committed at once, whatever the transaction of the caller
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = applicationProperties.getInventory();
+        this.maxLines = applicationProperties.getCheckout().getMaxLines();
+        this.stripes = properties.getStripes() != null ? properties.getStripes() : StripedStock.defaultStripes();
+        this.reservedCounter = outcomeCounter(meterRegistry, "reserved");
+        this.rejectedCounter = outcomeCounter(meterRegistry, "rejected");
+        this.releasedCounter = outcomeCounter(meterRegistry, "released");
+        this.expiredCounter = outcomeCounter(meterRegistry, "expired");
+        this.checkedOutCounter = outcomeCounter(meterRegistry, "checked_out");
+        Gauge.builder(RESERVATIONS_METER_NAME + ".active", reservations, Map::size)
+            .description("Reservations neither checked out, released nor expired.")
+            .register(meterRegistry);
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(RESERVATIONS_METER_NAME)
+            .description("Stock reservations, by outcome.")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Reserve products for a cart.
+     *
+     * @param items the products and their quantities.
+     * @return the reservation.
+     * @throws CheckoutException if a product is short of stock, or unknown; nothing is reserved then.
+     */
+    public StockReservation reserve(List<CheckoutItemDTO> items) {
+        LOG.debug("Request to reserve : {}", items);
+        Map<Long, Integer> quantities = CheckoutService.quantitiesByProductId(items);
+        if (quantities.size() > maxLines) {
+            throw new CheckoutException("A reservation cannot have more than " + maxLines + " products", "toomanylines");
+        }
+        Map<Long, Integer> taken = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (!stock(entry.getKey()).take(entry.getValue())) {
+                taken.forEach(this::putBack);
+                rejectedCounter.increment();
+                throw new CheckoutException("Product " + entry.getKey() + " is out of stock", "outofstock");
+            }
+            taken.put(entry.getKey(), entry.getValue());
+        }
+        StockReservation reservation = new StockReservation(
+            UUID.randomUUID(),
+            Map.copyOf(quantities),
+            Instant.now().plusSeconds(properties.getReservationTimeToLiveSeconds())
+        );
+        reservations.put(reservation.id(), reservation);
+        reservedCounter.increment();
+        return reservation;
+    }
+
+    /**
+     * Get a reservation.
+     *
+     * @param id the id of the reservation.
+     * @return the reservation, if it is still pending.
+     */
+    public Optional<StockReservation> findOne(UUID id) {
+        return Optional.ofNullable(reservations.get(id));
+    }
+
+    /**
+     * Release a reservation, its units going back to the stock.
+     *
+     * @param id the id of the reservation.
+     * @return {@code true} if the reservation was pending.
+     */
+    public boolean release(UUID id) {
+        LOG.debug("Request to release reservation : {}", id);
+        StockReservation reservation = reservations.remove(id);
+        if (reservation == null) {
+            return false;
+        }
+        reservation.quantities().forEach(this::putBack);
+        releasedCounter.increment();
+        return true;
+    }
+
+    /**
+     * Use a reservation to check out a cart, within the checkout transaction.
+     * <p>
+     * The reservation is consumed if the transaction commits, its units not in the cart going back to the
+     * stock; it is pending again if the transaction rolls back.
+     *
+     * @param id the id of the reservation.
+     * @param quantities the quantity ordered, by product id.
+     * @return the quantity covered by the reservation, by product id; the rest has to be taken from the stock.
+     * @throws CheckoutException if the reservation is unknown or expired.
+     */
+    public Map<Long, Integer> claim(UUID id, Map<Long, Integer> quantities) {
+        StockReservation reservation = reservations.remove(id);
+        if (reservation == null) {
+            throw new CheckoutException("Unknown or expired reservation", "reservationnotfound");
+        }
+        Map<Long, Integer> covered = new HashMap<>();
+        Map<Long, Integer> surplus = new HashMap<>();
+        reservation
+            .quantities()
+            .forEach((productId, reserved) -> {
+                int used = Math.min(reserved, quantities.getOrDefault(productId, 0));
+                if (used > 0) {
+                    covered.put(productId, used);
+                }
+                if (reserved > used) {
+                    surplus.put(productId, reserved - used);
+                }
+            });
+        afterCompletion(committed -> {
+            if (committed) {
+                surplus.forEach(this::putBack);
+                checkedOutCounter.increment();
+            } else {
+                reservations.put(id, reservation);
+            }
+        });
+        return covered;
+    }
+
+    /**
+     * Take the units this node holds for a product, up to a quantity, within the checkout transaction: they
+     * are missing from the product stock, which a checkout without a reservation may thus find short.
+     * <p>
+     * No unit is leased from the product stock. The units taken go back to the ones held if the transaction
+     * rolls back.
+     *
+     * @param productId the id of the product.
+     * @param quantity the maximum number of units.
+     * @return the number of units taken, possibly zero.
+     */
+    public int takeHeld(Long productId, int quantity) {
+        StripedStock stock = stocks.get(productId);
+        int taken = stock == null ? 0 : stock.takeHeld(quantity);
+        if (taken > 0) {
+            afterCompletion(committed -> {
+                if (!committed) {
+                    putBack(productId, taken);
+                }
+            });
+        }
+        return taken;
+    }
+
+    /**
+     * Release the expired reservations, then put the units held for products nobody reserved since the
+     * previous flush back into the product stock.
+     */
+    @Scheduled(fixedDelayString = "${application.inventory.flush-interval-millis:5000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Instant now = Instant.now();
+            for (StockReservation reservation : reservations.values()) {
+                if (reservation.expiresAt().isBefore(now) && reservations.remove(reservation.id(), reservation)) {
+                    reservation.quantities().forEach(this::putBack);
+                    expiredCounter.increment();
+                }
+            }
+
+            Map<Long, Integer> idle = new HashMap<>();
+            retiredStocks.forEach((productId, stock) -> idle.merge(productId, stock.drain(), Integer::sum));
+            Map<Long, StripedStock> retiring = new HashMap<>();
+            stocks.forEach((productId, stock) -> {
+                if (!stock.clearTouched() && stocks.remove(productId, stock)) {
+                    retiring.put(productId, stock);
+                    idle.merge(productId, stock.drain(), Integer::sum);
+                }
+            });
+            retiredStocks = retiring;
+            idle.values().removeIf(units -> units == 0);
+            returnStock(idle);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushLock.lock();
+        try {
+            reservations.values().forEach(reservation -> reservation.quantities().forEach(this::putBack));
+            reservations.clear();
+            Map<Long, Integer> held = new HashMap<>();
+            retiredStocks.forEach((productId, stock) -> held.merge(productId, stock.drain(), Integer::sum));
+            stocks.forEach((productId, stock) -> held.merge(productId, stock.drain(), Integer::sum));
+            held.values().removeIf(units -> units == 0);
+            returnStock(held);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private StripedStock stock(Long productId) {
+        return stocks.computeIfAbsent(productId, id ->
+            new StripedStock(stripes, properties.getLeaseSize(), quantity -> takeStock(id, quantity))
+        );
+    }
+
+    private void putBack(Long productId, int units) {
+        stock(productId).put(units);
+    }
+
+    private boolean takeStock(Long productId, int quantity) {
+        boolean taken = Boolean.TRUE.equals(transactionTemplate.execute(status -> productRepository.takeStock(productId, quantity)));
+        if (taken) {
+            entityManagerFactory.getCache().evict(Product.class, productId);
+        }
+        return taken;
+    }
+
+    private void returnStock(Map<Long, Integer> units) {
+        if (units.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> productRepository.returnStock(units));
+            units.keySet().forEach(productId -> entityManagerFactory.getCache().evict(Product.class, productId));
+            LOG.debug("Returned the units held for {} product(s) to their stock", units.size());
+        } catch (RuntimeException e) {
+            LOG.warn("Could not return the units held for {} product(s), keeping them: {}", units.size(), e.getMessage());
+            units.forEach(this::putBack);
+        }
+    }
+
+    private static void afterCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.accept(status == STATUS_COMMITTED);
+                }
+            }
+        );
+    }
+}
@@ -0,0 +1,79 @@
+package myapp.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import myapp.config.ApplicationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs idempotent updates in a transaction of their own, retrying them when they conflict with a
+ * concurrent update of the same entities.
+ * <p>
+ * Entities are versioned and never locked: a conflict is only detected when the update is written, and the
+ * whole transaction is then run again on top of the new state, after a random delay that grows
+ * exponentially with the number of attempts so that the competing updates spread out. Only updates that
+ * give the same result whatever state they start from can be retried this way, such as setting fields to
+ * given values; a {@link StaleVersionException} is never retried.
+ */
+@Component
+public class OptimisticRetry {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OptimisticRetry.class);
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.OptimisticRetry properties;
+
+    public OptimisticRetry(PlatformTransactionManager transactionManager, ApplicationProperties applicationProperties) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getOptimisticRetry();
+    }
+
+    /**
+     * Run an update, retrying it on conflict.
+     * <p>
+     * Within an existing transaction the update runs once: it cannot be retried without retrying the whole
+     * enclosing transaction, which is up to its owner.
+     *
+     * @param update the update.
+     * @param <T> the type of the result.
+     * @return the result of the update.
+     * @throws ConcurrencyFailureException if the update still conflicts after the last attempt.
+     */
+    public <T> T execute(Supplier<T> update) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return update.get();
+        }
+        for (int attempt = 1;; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> update.get());
+            } catch (StaleVersionException e) {
+                throw e;
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= properties.getMaxAttempts()) {
+                    LOG.warn("Update still conflicting after {} attempts: {}", attempt, e.getMessage());
+                    throw e;
+                }
+                LOG.debug("Update conflicting at attempt {}, retrying: {}", attempt, e.getMessage());
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void backOff(int attempt) {
+        long ceiling = Math.min(properties.getMaxBackoffMillis(), properties.getInitialBackoffMillis() << Math.min(attempt - 1, 20));
+        try {
+            TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrencyFailureException("Interrupted while waiting to retry a conflicting update", e);
+        }
+    }
+}
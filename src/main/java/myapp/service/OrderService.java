@@ -1,13 +1,23 @@
 package myapp.service;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import myapp.domain.Order;
+import myapp.domain.enumeration.DomainEventType;
 import myapp.repository.OrderRepository;
+import myapp.service.dto.OrderDTO;
+import myapp.service.mapper.OrderMapper;
+import myapp.service.outbox.OutboxService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -21,8 +31,22 @@ public class OrderService {
 
     private final OrderRepository orderRepository;
 
-    public OrderService(OrderRepository orderRepository) {
+    private final OptimisticRetry optimisticRetry;
+
+    private final OutboxService outboxService;
+
+    private final OrderMapper orderMapper;
+
+    public OrderService(
+        OrderRepository orderRepository,
+        OptimisticRetry optimisticRetry,
+        OutboxService outboxService,
+        OrderMapper orderMapper
+    ) {
         this.orderRepository = orderRepository;
+        this.optimisticRetry = optimisticRetry;
+        this.outboxService = outboxService;
+        this.orderMapper = orderMapper;
     }
 
     /**
@@ -33,66 +57,150 @@ public class OrderService {
      */
     public Order save(Order order) {
         LOG.debug("Request to save Order : {}", order);
-        return orderRepository.save(order);
+        Order result = orderRepository.save(order);
+        outboxService.record(Order.class, result.getId(), DomainEventType.CREATED);
+        return result;
     }
 
     /**
      * Update a order.
+     * <p>
+     * The update is based on the version of the order, if given, and fails with a {@link StaleVersionException}
+     * if the order was updated since. Without a version, the order is overwritten, the update being retried if
+     * it conflicts with a concurrent one.
      *
      * @param order the entity to save.
      * @return the persisted entity.
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Order update(Order order) {
         LOG.debug("Request to update Order : {}", order);
-        return orderRepository.save(order);
+        Long expectedVersion = order.getVersion();
+        return optimisticRetry.execute(() -> {
+            orderRepository
+                .findById(order.getId())
+                .ifPresent(existingOrder ->
+                    order.setVersion(StaleVersionException.check(Order.class, order.getId(), expectedVersion, existingOrder.getVersion()))
+                );
+            Order result = orderRepository.save(order);
+            outboxService.record(Order.class, result.getId(), DomainEventType.UPDATED);
+            return result;
+        });
     }
 
     /**
      * Partially update a order.
+     * <p>
+     * As for {@link #update}, the update is based on the version of the order, if given; without one, the
+     * fields are set again on top of the concurrent update the update conflicted with, if any.
      *
      * @param order the entity to update partially.
      * @return the persisted entity.
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<Order> partialUpdate(Order order) {
         LOG.debug("Request to partially update Order : {}", order);
 
-        return orderRepository
-            .findById(order.getId())
-            .map(existingOrder -> {
-                if (order.getOrderDate() != null) {
-                    existingOrder.setOrderDate(order.getOrderDate());
-                }
-                if (order.getShippedDate() != null) {
-                    existingOrder.setShippedDate(order.getShippedDate());
-                }
-                if (order.getStatus() != null) {
-                    existingOrder.setStatus(order.getStatus());
-                }
-                if (order.getTotalAmount() != null) {
-                    existingOrder.setTotalAmount(order.getTotalAmount());
-                }
-                if (order.getShippingCost() != null) {
-                    existingOrder.setShippingCost(order.getShippingCost());
-                }
-                if (order.getTrackingNumber() != null) {
-                    existingOrder.setTrackingNumber(order.getTrackingNumber());
-                }
-
-                return existingOrder;
-            })
-            .map(orderRepository::save);
+        return optimisticRetry.execute(() ->
+            orderRepository
+                .findById(order.getId())
+                .map(existingOrder -> {
+                    StaleVersionException.check(Order.class, order.getId(), order.getVersion(), existingOrder.getVersion());
+                    if (order.getOrderDate() != null) {
+                        existingOrder.setOrderDate(order.getOrderDate());
+                    }
+                    if (order.getShippedDate() != null) {
+                        existingOrder.setShippedDate(order.getShippedDate());
+                    }
+                    if (order.getStatus() != null) {
+                        existingOrder.setStatus(order.getStatus());
+                    }
+                    if (order.getTotalAmount() != null) {
+                        existingOrder.setTotalAmount(order.getTotalAmount());
+                    }
+                    if (order.getShippingCost() != null) {
+                        existingOrder.setShippingCost(order.getShippingCost());
+                    }
+                    if (order.getTrackingNumber() != null) {
+                        existingOrder.setTrackingNumber(order.getTrackingNumber());
+                    }
+
+                    return existingOrder;
+                })
+                .map(orderRepository::save)
+                .map(savedOrder -> {
+                    outboxService.record(Order.class, savedOrder.getId(), DomainEventType.UPDATED);
+                    return savedOrder;
+                })
+        );
     }
 
     /**
-     * Get all the orders.
+     * Get all the orders, read as rows rather than entities.
      *
      * @param pageable the pagination information.
-     * @return the list of entities.
+     * @return the list of DTOs.
      */
     @Transactional(readOnly = true)
-    public Page<Order> findAll(Pageable pageable) {
+    public Page<OrderDTO> findAll(Pageable pageable) {
         LOG.debug("Request to get all Orders");
-        return orderRepository.findAll(pageable);
+        return orderRepository.findAllRows(pageable).map(orderMapper::toDto);
+    }
+
+    /**
+     * Get the orders following a position in id order (keyset pagination).
+     *
+     * @param afterId the id of the last order of the previous page, or {@code null} for the first page.
+     * @param limit the maximum number of orders to return.
+     * @return the list of DTOs.
+     */
+    @Transactional(readOnly = true)
+    public List<OrderDTO> findAllAfterId(Long afterId, int limit) {
+        LOG.debug("Request to get Orders after id : {}", afterId);
+        return orderRepository
+            .findAllRowsAfterId(afterId == null ? Long.MIN_VALUE : afterId, Limit.of(limit))
+            .stream()
+            .map(orderMapper::toDto)
+            .toList();
+    }
+
+    /**
+     * Get the orders following a position in (orderDate, id) order (keyset pagination).
+     *
+     * @param afterOrderDate the orderDate of the last order of the previous page, or {@code null} for the first page.
+     * @param afterId the id of the last order of the previous page.
+     * @param limit the maximum number of orders to return.
+     * @return the list of DTOs.
+     */
+    @Transactional(readOnly = true)
+    public List<OrderDTO> findAllAfterOrderDate(Instant afterOrderDate, Long afterId, int limit) {
+        LOG.debug("Request to get Orders after orderDate : {}, id : {}", afterOrderDate, afterId);
+        List<OrderRepository.OrderRow> rows = afterOrderDate == null
+            ? orderRepository.findAllRowsOrderByOrderDate(Limit.of(limit))
+            : orderRepository.findAllRowsAfterOrderDate(afterOrderDate, afterId, Limit.of(limit));
+        return rows.stream().map(orderMapper::toDto).toList();
+    }
+
+    /**
+     * Hand every order, in id order, to a consumer while reading them through a database cursor.
+     * <p>
+     * The orders are read as rows rather than entities, their references as the ids held by their foreign keys,
+     * so nothing enters the persistence context and the heap does not grow with the number of orders.
+     *
+     * @param consumer the consumer of the orders, called in the calling thread.
+     * @return the number of orders consumed.
+     */
+    @Transactional(readOnly = true)
+    public long exportAll(Consumer<OrderDTO> consumer) {
+        LOG.debug("Request to export all Orders");
+        long count = 0;
+        try (Stream<OrderRepository.OrderRow> rows = orderRepository.streamAllRowsOrderById()) {
+            for (OrderRepository.OrderRow row : (Iterable<OrderRepository.OrderRow>) rows::iterator) {
+                consumer.accept(orderMapper.toDto(row));
+                count++;
+            }
+        }
+        return count;
     }
 
     /**
@@ -115,5 +223,6 @@ public class OrderService {
     public void delete(Long id) {
         LOG.debug("Request to delete Order : {}", id);
         orderRepository.deleteById(id);
+        outboxService.record(Order.class, id, DomainEventType.DELETED);
     }
 }
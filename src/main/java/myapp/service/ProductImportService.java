@@ -0,0 +1,312 @@
+package myapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import myapp.domain.Product;
+import myapp.domain.enumeration.DomainEventType;
+import myapp.service.dto.ProductImportReportDTO;
+import myapp.service.outbox.OutboxService;
+import myapp.service.search.ProductFacetIndex;
+import myapp.service.search.ProductSearchIndex;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for importing large product feeds.
+ * <p>
+ * The feed is parsed as a stream and handled in chunks of {@link #CHUNK_SIZE} rows: the Bean Validation
+ * constraints of a chunk are checked in parallel, then its valid rows are persisted in a single transaction
+ * so that Hibernate sends them as JDBC batches of {@link #JDBC_BATCH_SIZE} inserts. If the database rejects
+ * a chunk, its rows are retried one by one to report the offending ones.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductImportService.class);
+
+    public static final String ROWS_METER_NAME = "products.import.rows";
+    public static final String CHUNK_METER_NAME = "products.import.chunk";
+
+    static final int CHUNK_SIZE = 1000;
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    /** JDBC batch size used while importing, larger than the default one of interactive sessions. */
+    static final int JDBC_BATCH_SIZE = 100;
+
+    /** Columns accepted from a feed; relationships are managed through their own endpoints. */
+    private static final Set<String> IMPORTED_PROPERTIES = Set.of(
+        "title",
+        "keywords",
+        "description",
+        "rating",
+        "price",
+        "quantityInStock",
+        "status",
+        "weight",
+        "dimensions",
+        "dateAdded",
+        "dateModified"
+    );
+
+    /**
+     * Supported feed formats.
+     */
+    public enum Format {
+        CSV,
+        NDJSON,
+    }
+
+    private final ObjectMapper objectMapper;
+
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    private final Validator validator;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ProductSearchIndex productSearchIndex;
+
+    private final ProductFacetIndex productFacetIndex;
+
+    private final OutboxService outboxService;
+
+    private final Counter importedCounter;
+
+    private final Counter rejectedCounter;
+
+    private final Timer chunkTimer;
+
+    public ProductImportService(
+        ObjectMapper objectMapper,
+        Validator validator,
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        ProductSearchIndex productSearchIndex,
+        ProductFacetIndex productFacetIndex,
+        OutboxService outboxService,
+        MeterRegistry meterRegistry
+    ) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productSearchIndex = productSearchIndex;
+        this.productFacetIndex = productFacetIndex;
+        this.outboxService = outboxService;
+        this.importedCounter = Counter.builder(ROWS_METER_NAME)
+            .description("Rows read from product import feeds.")
+            .tag("outcome", "imported")
+            .register(meterRegistry);
+        this.rejectedCounter = Counter.builder(ROWS_METER_NAME)
+            .description("Rows read from product import feeds.")
+            .tag("outcome", "rejected")
+            .register(meterRegistry);
+        this.chunkTimer = Timer.builder(CHUNK_METER_NAME)
+            .description("Time to validate and store a chunk of imported products.")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Import a product feed.
+     *
+     * @param input the feed.
+     * @param format the format of the feed.
+     * @param separator the column separator, for CSV feeds.
+     * @return the report of the import.
+     * @throws IOException if the feed cannot be read.
+     */
+    public ProductImportReportDTO importProducts(InputStream input, Format format, char separator) throws IOException {
+        LOG.debug("Request to import a {} product feed", format);
+        long start = System.nanoTime();
+        ProductImportReportDTO report = new ProductImportReportDTO();
+        try (MappingIterator<Map<String, Object>> values = reader(format, separator).readValues(input)) {
+            List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+            long rowNumber = 0;
+            while (true) {
+                Map<String, Object> value;
+                try {
+                    if (!values.hasNextValue()) {
+                        break;
+                    }
+                    value = values.nextValue();
+                } catch (JsonProcessingException e) {
+                    // the stream cannot be resynchronized reliably after a syntax error; the rows before it are
+                    // still imported, and reported first
+                    processChunk(chunk, report);
+                    chunk = new ArrayList<>(0);
+                    reject(report, new Row(++rowNumber, null), List.of("Unreadable row, import stopped: " + e.getOriginalMessage()));
+                    break;
+                }
+                chunk.add(toRow(++rowNumber, value));
+                if (chunk.size() == CHUNK_SIZE) {
+                    processChunk(chunk, report);
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            processChunk(chunk, report);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        report.setElapsedMillis(elapsedNanos / 1_000_000);
+        report.setRowsPerSecond(elapsedNanos == 0 ? 0 : (report.getImported() + report.getRejected()) * 1e9 / elapsedNanos);
+        LOG.info("Imported {} products, rejected {}, at {} rows/s", report.getImported(), report.getRejected(), (long) report.getRowsPerSecond());
+        return report;
+    }
+
+    private ObjectReader reader(Format format, char separator) {
+        if (format == Format.CSV) {
+            CsvSchema schema = CsvSchema.emptySchema().withHeader().withColumnSeparator(separator);
+            return csvMapper.readerFor(Map.class).with(schema);
+        }
+        return objectMapper.readerFor(Map.class);
+    }
+
+    private Row toRow(long rowNumber, Map<String, Object> value) {
+        Row row = new Row(rowNumber, null);
+        Map<String, Object> properties = new HashMap<>();
+        for (Map.Entry<String, Object> entry : value.entrySet()) {
+            String property = toCamelCase(entry.getKey());
+            if ("id".equals(property) && entry.getValue() != null && !"".equals(entry.getValue())) {
+                row.messages.add("id: a new product cannot already have an ID");
+            } else if (IMPORTED_PROPERTIES.contains(property) && entry.getValue() != null && !"".equals(entry.getValue())) {
+                properties.put(property, entry.getValue());
+            }
+        }
+        try {
+            row.product = objectMapper.convertValue(properties, Product.class);
+        } catch (IllegalArgumentException e) {
+            // keep the first line only, the rest locates the value in the intermediate map
+            row.messages.add(e.getMessage().lines().findFirst().orElse(e.getMessage()));
+        }
+        return row;
+    }
+
+    private static String toCamelCase(String column) {
+        String trimmed = column.trim();
+        StringBuilder property = new StringBuilder(trimmed.length());
+        boolean upperNext = false;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c == '_' || c == '-' || c == ' ') {
+                upperNext = property.length() > 0;
+            } else {
+                property.append(upperNext ? Character.toUpperCase(c) : c);
+                upperNext = false;
+            }
+        }
+        return property.toString();
+    }
+
+    private void processChunk(List<Row> chunk, ProductImportReportDTO report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        chunkTimer.record(() -> {
+            chunk
+                .parallelStream()
+                .filter(row -> row.product != null && row.messages.isEmpty())
+                .forEach(row -> {
+                    for (ConstraintViolation<Product> violation : validator.validate(row.product)) {
+                        row.messages.add(violation.getPropertyPath() + ": " + violation.getMessage());
+                    }
+                });
+
+            List<Row> valid = new ArrayList<>(chunk.size());
+            for (Row row : chunk) {
+                if (row.product != null && row.messages.isEmpty()) {
+                    valid.add(row);
+                } else {
+                    reject(report, row, row.messages);
+                }
+            }
+            try {
+                persist(valid);
+                report.setImported(report.getImported() + valid.size());
+                importedCounter.increment(valid.size());
+            } catch (RuntimeException e) {
+                LOG.debug("Chunk rejected by the database, retrying its rows one by one: {}", e.getMessage());
+                for (Row row : valid) {
+                    try {
+                        row.product.setId(null);
+                        persist(List.of(row));
+                        report.setImported(report.getImported() + 1);
+                        importedCounter.increment();
+                    } catch (RuntimeException rowException) {
+                        reject(report, row, List.of("Could not be stored: " + mostSpecificMessage(rowException)));
+                    }
+                }
+            }
+        });
+    }
+
+    private void persist(List<Row> rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            session.setJdbcBatchSize(JDBC_BATCH_SIZE);
+            // a feed is written once and read back later, if at all: keep it out of the second-level cache
+            session.setCacheMode(CacheMode.IGNORE);
+            for (Row row : rows) {
+                entityManager.persist(row.product);
+                productSearchIndex.indexAfterCommit(row.product);
+                productFacetIndex.indexAfterCommit(row.product);
+                outboxService.record(Product.class, row.product.getId(), DomainEventType.CREATED);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private void reject(ProductImportReportDTO report, Row row, List<String> messages) {
+        report.setRejected(report.getRejected() + 1);
+        rejectedCounter.increment();
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(new ProductImportReportDTO.RowError(row.number, List.copyOf(messages)));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private static String mostSpecificMessage(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    private static final class Row {
+
+        private final long number;
+        private Product product;
+        private final List<String> messages = new ArrayList<>(0);
+
+        private Row(long number, Product product) {
+            this.number = number;
+            this.product = product;
+        }
+    }
+}
@@ -1,13 +1,31 @@
 package myapp.service;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import myapp.domain.Product;
+import myapp.domain.enumeration.DomainEventType;
 import myapp.repository.ProductRepository;
+import myapp.repository.VersionStamp;
+import myapp.service.dto.ProductDTO;
+import myapp.service.mapper.ProductMapper;
+import myapp.service.outbox.OutboxService;
+import myapp.service.search.ProductFacetIndex;
+import myapp.service.search.ProductFacets;
+import myapp.service.search.ProductFilter;
+import myapp.service.search.ProductSearchIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -21,8 +39,30 @@ public class ProductService {
 
     private final ProductRepository productRepository;
 
-    public ProductService(ProductRepository productRepository) {
+    private final ProductSearchIndex productSearchIndex;
+
+    private final ProductFacetIndex productFacetIndex;
+
+    private final OptimisticRetry optimisticRetry;
+
+    private final OutboxService outboxService;
+
+    private final ProductMapper productMapper;
+
+    public ProductService(
+        ProductRepository productRepository,
+        ProductSearchIndex productSearchIndex,
+        ProductFacetIndex productFacetIndex,
+        OptimisticRetry optimisticRetry,
+        OutboxService outboxService,
+        ProductMapper productMapper
+    ) {
         this.productRepository = productRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.productFacetIndex = productFacetIndex;
+        this.optimisticRetry = optimisticRetry;
+        this.outboxService = outboxService;
+        this.productMapper = productMapper;
     }
 
     /**
@@ -33,81 +73,208 @@ public class ProductService {
      */
     public Product save(Product product) {
         LOG.debug("Request to save Product : {}", product);
-        return productRepository.save(product);
+        Product result = productRepository.save(product);
+        productSearchIndex.indexAfterCommit(result);
+        productFacetIndex.indexAfterCommit(result);
+        outboxService.record(Product.class, result.getId(), DomainEventType.CREATED);
+        return result;
     }
 
     /**
      * Update a product.
+     * <p>
+     * The update is based on the version of the product, if given, and fails with a {@link StaleVersionException}
+     * if the product was updated since. Without a version, the product is overwritten, the update being retried if
+     * it conflicts with a concurrent one.
      *
      * @param product the entity to save.
      * @return the persisted entity.
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Product update(Product product) {
         LOG.debug("Request to update Product : {}", product);
-        return productRepository.save(product);
+        Long expectedVersion = product.getVersion();
+        return optimisticRetry.execute(() -> {
+            productRepository
+                .findById(product.getId())
+                .ifPresent(existingProduct ->
+                    product.setVersion(
+                        StaleVersionException.check(Product.class, product.getId(), expectedVersion, existingProduct.getVersion())
+                    )
+                );
+            Product result = productRepository.save(product);
+            productSearchIndex.indexAfterCommit(result);
+            productFacetIndex.indexAfterCommit(result);
+            outboxService.record(Product.class, result.getId(), DomainEventType.UPDATED);
+            return result;
+        });
     }
 
     /**
      * Partially update a product.
+     * <p>
+     * As for {@link #update}, the update is based on the version of the product, if given; without one, the
+     * fields are set again on top of the concurrent update the update conflicted with, if any.
      *
      * @param product the entity to update partially.
      * @return the persisted entity.
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<Product> partialUpdate(Product product) {
         LOG.debug("Request to partially update Product : {}", product);
 
-        return productRepository
-            .findById(product.getId())
-            .map(existingProduct -> {
-                if (product.getTitle() != null) {
-                    existingProduct.setTitle(product.getTitle());
-                }
-                if (product.getKeywords() != null) {
-                    existingProduct.setKeywords(product.getKeywords());
-                }
-                if (product.getDescription() != null) {
-                    existingProduct.setDescription(product.getDescription());
-                }
-                if (product.getRating() != null) {
-                    existingProduct.setRating(product.getRating());
-                }
-                if (product.getPrice() != null) {
-                    existingProduct.setPrice(product.getPrice());
-                }
-                if (product.getQuantityInStock() != null) {
-                    existingProduct.setQuantityInStock(product.getQuantityInStock());
-                }
-                if (product.getStatus() != null) {
-                    existingProduct.setStatus(product.getStatus());
-                }
-                if (product.getWeight() != null) {
-                    existingProduct.setWeight(product.getWeight());
-                }
-                if (product.getDimensions() != null) {
-                    existingProduct.setDimensions(product.getDimensions());
-                }
-                if (product.getDateAdded() != null) {
-                    existingProduct.setDateAdded(product.getDateAdded());
-                }
-                if (product.getDateModified() != null) {
-                    existingProduct.setDateModified(product.getDateModified());
-                }
-
-                return existingProduct;
-            })
-            .map(productRepository::save);
+        return optimisticRetry.execute(() ->
+            productRepository
+                .findById(product.getId())
+                .map(existingProduct -> {
+                    StaleVersionException.check(Product.class, product.getId(), product.getVersion(), existingProduct.getVersion());
+                    if (product.getTitle() != null) {
+                        existingProduct.setTitle(product.getTitle());
+                    }
+                    if (product.getKeywords() != null) {
+                        existingProduct.setKeywords(product.getKeywords());
+                    }
+                    if (product.getDescription() != null) {
+                        existingProduct.setDescription(product.getDescription());
+                    }
+                    if (product.getRating() != null) {
+                        existingProduct.setRating(product.getRating());
+                    }
+                    if (product.getPrice() != null) {
+                        existingProduct.setPrice(product.getPrice());
+                    }
+                    if (product.getQuantityInStock() != null) {
+                        existingProduct.setQuantityInStock(product.getQuantityInStock());
+                    }
+                    if (product.getStatus() != null) {
+                        existingProduct.setStatus(product.getStatus());
+                    }
+                    if (product.getWeight() != null) {
+                        existingProduct.setWeight(product.getWeight());
+                    }
+                    if (product.getDimensions() != null) {
+                        existingProduct.setDimensions(product.getDimensions());
+                    }
+                    if (product.getDateAdded() != null) {
+                        existingProduct.setDateAdded(product.getDateAdded());
+                    }
+                    if (product.getDateModified() != null) {
+                        existingProduct.setDateModified(product.getDateModified());
+                    }
+
+                    return existingProduct;
+                })
+                .map(productRepository::save)
+                .map(savedProduct -> {
+                    productSearchIndex.indexAfterCommit(savedProduct);
+                    productFacetIndex.indexAfterCommit(savedProduct);
+                    outboxService.record(Product.class, savedProduct.getId(), DomainEventType.UPDATED);
+                    return savedProduct;
+                })
+        );
     }
 
     /**
-     * Get all the products.
+     * Get all the products, read as rows rather than entities.
      *
      * @param pageable the pagination information.
-     * @return the list of entities.
+     * @return the list of DTOs.
      */
     @Transactional(readOnly = true)
-    public Page<Product> findAll(Pageable pageable) {
+    public Page<ProductDTO> findAll(Pageable pageable) {
         LOG.debug("Request to get all Products");
-        return productRepository.findAll(pageable);
+        return productRepository.findAllRows(pageable).map(productMapper::toDto);
+    }
+
+    /**
+     * Get the products following a position in id order (keyset pagination).
+     *
+     * @param afterId the id of the last product of the previous page, or {@code null} for the first page.
+     * @param limit the maximum number of products to return.
+     * @return the list of DTOs.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductDTO> findAllAfterId(Long afterId, int limit) {
+        LOG.debug("Request to get Products after id : {}", afterId);
+        return productRepository
+            .findAllRowsAfterId(afterId == null ? Long.MIN_VALUE : afterId, Limit.of(limit))
+            .stream()
+            .map(productMapper::toDto)
+            .toList();
+    }
+
+    /**
+     * Get the products following a position in (dateAdded, id) order (keyset pagination).
+     *
+     * @param afterDateAdded the dateAdded of the last product of the previous page, or {@code null} for the first page.
+     * @param afterId the id of the last product of the previous page.
+     * @param limit the maximum number of products to return.
+     * @return the list of DTOs.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductDTO> findAllAfterDateAdded(Instant afterDateAdded, Long afterId, int limit) {
+        LOG.debug("Request to get Products after dateAdded : {}, id : {}", afterDateAdded, afterId);
+        List<ProductRepository.ProductRow> rows = afterDateAdded == null
+            ? productRepository.findAllRowsOrderByDateAdded(Limit.of(limit))
+            : productRepository.findAllRowsAfterDateAdded(afterDateAdded, afterId, Limit.of(limit));
+        return rows.stream().map(productMapper::toDto).toList();
+    }
+
+    /**
+     * Search the products by title, keywords and description.
+     *
+     * @param query the free-text query.
+     * @param pageable the pagination information.
+     * @return the page of matching DTOs, best match first; empty past {@link ProductSearchIndex#MAX_RESULT_WINDOW} hits.
+     */
+    @Transactional(readOnly = true)
+    public Page<ProductDTO> search(String query, Pageable pageable) {
+        LOG.debug("Request to search Products : {}", query);
+        // pages past the deepest result accepted are empty, whatever their offset
+        int offset = (int) Math.min(pageable.getOffset(), ProductSearchIndex.MAX_RESULT_WINDOW);
+        ProductSearchIndex.Hits hits = productSearchIndex.search(query, offset, pageable.getPageSize());
+        return toPage(hits, pageable);
+    }
+
+    /**
+     * Get the products matching a facet filter, in ascending id order.
+     *
+     * @param filter the facet filter.
+     * @param pageable the pagination information, its sort is ignored.
+     * @return the page of matching DTOs.
+     */
+    @Transactional(readOnly = true)
+    public Page<ProductDTO> findAll(ProductFilter filter, Pageable pageable) {
+        LOG.debug("Request to get Products matching : {}", filter);
+        return toPage(productFacetIndex.filter(filter, pageable.getOffset(), pageable.getPageSize()), pageable);
+    }
+
+    /**
+     * Count the products per facet value for a facet filter.
+     *
+     * @param filter the facet filter.
+     * @return the facet counts.
+     */
+    @Transactional(readOnly = true)
+    public ProductFacets countFacets(ProductFilter filter) {
+        LOG.debug("Request to count Product facets for : {}", filter);
+        return productFacetIndex.facets(filter);
+    }
+
+    // the hits are loaded by id, mostly from the second-level cache, so they are mapped from the entities
+    private Page<ProductDTO> toPage(ProductSearchIndex.Hits hits, Pageable pageable) {
+        Map<Long, Product> productsById = productRepository
+            .findAllById(hits.productIds())
+            .stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<ProductDTO> products = hits
+            .productIds()
+            .stream()
+            .map(productsById::get)
+            .filter(Objects::nonNull)
+            .map(productMapper::toDto)
+            .toList();
+        return new PageImpl<>(products, pageable, hits.totalHits());
     }
 
     /**
@@ -122,6 +289,30 @@ public class ProductService {
         return productRepository.findById(id);
     }
 
+    /**
+     * Get the version stamp of one product, without loading it.
+     *
+     * @param id the id of the entity.
+     * @return the version stamp of the entity.
+     */
+    @Transactional(readOnly = true)
+    public Optional<VersionStamp> findVersionStamp(Long id) {
+        LOG.debug("Request to get the version of Product : {}", id);
+        return productRepository.findVersionStampById(id);
+    }
+
+    /**
+     * Get the version stamps of a page of products, without loading them.
+     *
+     * @param pageable the pagination information.
+     * @return the version stamps of the page, in the order {@link #findAll(Pageable)} returns its products.
+     */
+    @Transactional(readOnly = true)
+    public Page<VersionStamp> findAllVersionStamps(Pageable pageable) {
+        LOG.debug("Request to get the versions of all Products");
+        return productRepository.findAllVersionStamps(pageable);
+    }
+
     /**
      * Delete the product by id.
      *
@@ -130,5 +321,8 @@ public class ProductService {
     public void delete(Long id) {
         LOG.debug("Request to delete Product : {}", id);
         productRepository.deleteById(id);
+        productSearchIndex.removeAfterCommit(id);
+        productFacetIndex.removeAfterCommit(id);
+        outboxService.record(Product.class, id, DomainEventType.DELETED);
     }
 }
@@ -0,0 +1,40 @@
+package myapp.service;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+/**
+ * Thrown when an update is based on another version of an entity than its current one.
+ * <p>
+ * Unlike the conflicts detected when a transaction commits, retrying the update cannot help: it has to be
+ * redone on top of the current version.
+ */
+public class StaleVersionException extends ObjectOptimisticLockingFailureException {
+
+    private static final long serialVersionUID = 1L;
+
+    public StaleVersionException(Class<?> entityClass, Object id, Long expectedVersion, Long currentVersion) {
+        super(
+            entityClass,
+            id,
+            "Version " + expectedVersion + " of " + entityClass.getSimpleName() + " " + id + " is stale, it is at version " + currentVersion,
+            null
+        );
+    }
+
+    /**
+     * Check that an update is based on the current version of an entity.
+     *
+     * @param entityClass the class of the entity.
+     * @param id the id of the entity.
+     * @param expectedVersion the version the update is based on, {@code null} to update whatever the version.
+     * @param currentVersion the current version.
+     * @return the current version.
+     * @throws StaleVersionException if the versions differ.
+     */
+    public static Long check(Class<?> entityClass, Object id, Long expectedVersion, Long currentVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(currentVersion)) {
+            throw new StaleVersionException(entityClass, id, expectedVersion, currentVersion);
+        }
+        return currentVersion;
+    }
+}
@@ -0,0 +1,15 @@
+package myapp.service.catalog;
+
+import myapp.domain.enumeration.CategoryStatus;
+
+/**
+ * A category as seen from the {@link CategoryTree}.
+ *
+ * @param id the id of the category.
+ * @param parentId the id of the parent category, {@code null} for a root.
+ * @param description the description of the category.
+ * @param sortOrder the position of the category among its siblings.
+ * @param status the status of the category.
+ * @param depth the distance to the root of the tree, {@code 0} for a root.
+ */
+public record CategoryNode(Long id, Long parentId, String description, Integer sortOrder, CategoryStatus status, int depth) {}
@@ -0,0 +1,310 @@
+package myapp.service.catalog;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import myapp.repository.CategoryRepository.CategoryTreeRow;
+
+/**
+ * Immutable snapshot of the category hierarchy.
+ * <p>
+ * Categories are laid out in depth-first pre-order, so the descendants of a category are the contiguous
+ * slice that follows it, up to the end of its subtree. Descendant lists and "is under" checks are
+ * therefore a lookup and a sub-list, and every category keeps its precomputed list of ancestors.
+ * Siblings are ordered by sort order, then description.
+ * <p>
+ * A snapshot is never modified: writes build a new one, readers keep using the one they got.
+ */
+public final class CategoryTree {
+
+    public static final CategoryTree EMPTY = build(List.of());
+
+    private static final Comparator<CategoryTreeRow> SIBLING_ORDER = Comparator.comparing(
+        CategoryTreeRow::getSortOrder,
+        Comparator.nullsLast(Comparator.naturalOrder())
+    )
+        .thenComparing(CategoryTreeRow::getDescription, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(CategoryTreeRow::getId);
+
+    private final List<CategoryNode> preorder;
+    private final Map<Long, Integer> positions;
+    private final int[] subtreeEnd;
+    private final List<List<CategoryNode>> ancestors;
+    private final List<Branch> roots;
+    private final int brokenCycles;
+
+    /**
+     * A category with its sub-categories, as rendered by menus.
+     *
+     * @param category the category.
+     * @param children the sub-categories, in sibling order.
+     */
+    public record Branch(@JsonUnwrapped CategoryNode category, List<Branch> children) {}
+
+    private CategoryTree(
+        List<CategoryNode> preorder,
+        Map<Long, Integer> positions,
+        int[] subtreeEnd,
+        List<List<CategoryNode>> ancestors,
+        List<Branch> roots,
+        int brokenCycles
+    ) {
+        this.preorder = preorder;
+        this.positions = positions;
+        this.subtreeEnd = subtreeEnd;
+        this.ancestors = ancestors;
+        this.roots = roots;
+        this.brokenCycles = brokenCycles;
+    }
+
+    /**
+     * Build a snapshot from all the categories.
+     * <p>
+     * Categories whose parent is missing become roots. A cycle in the parent links is broken at its
+     * lowest id, which becomes a root too.
+     *
+     * @param rows all the categories.
+     * @return the snapshot.
+     */
+    public static CategoryTree build(Collection<? extends CategoryTreeRow> rows) {
+        Map<Long, CategoryTreeRow> byId = new HashMap<>(rows.size() * 2);
+        for (CategoryTreeRow row : rows) {
+            byId.put(row.getId(), row);
+        }
+        Map<Long, List<CategoryTreeRow>> children = new HashMap<>();
+        List<CategoryTreeRow> topLevel = new ArrayList<>();
+        for (CategoryTreeRow row : byId.values()) {
+            if (row.getParentId() == null || !byId.containsKey(row.getParentId())) {
+                topLevel.add(row);
+            } else {
+                children.computeIfAbsent(row.getParentId(), id -> new ArrayList<>()).add(row);
+            }
+        }
+        topLevel.sort(SIBLING_ORDER);
+        children.values().forEach(siblings -> siblings.sort(SIBLING_ORDER));
+
+        Builder builder = new Builder(byId.size(), children);
+        topLevel.forEach(builder::visit);
+        int brokenCycles = 0;
+        if (builder.preorder.size() < byId.size()) {
+            // whatever was not reached from a root hangs off a cycle
+            List<CategoryTreeRow> unreached = byId
+                .values()
+                .stream()
+                .filter(row -> !builder.positions.containsKey(row.getId()))
+                .sorted(Comparator.comparing(CategoryTreeRow::getId))
+                .toList();
+            for (CategoryTreeRow row : unreached) {
+                if (!builder.positions.containsKey(row.getId())) {
+                    builder.visit(byId.get(lowestIdOnCycle(row, byId)));
+                    brokenCycles++;
+                }
+            }
+        }
+        return builder.build(brokenCycles);
+    }
+
+    /**
+     * Follow the parents of a category that no root reaches until they loop, and return the lowest id
+     * of that loop.
+     */
+    private static Long lowestIdOnCycle(CategoryTreeRow row, Map<Long, CategoryTreeRow> byId) {
+        Set<Long> seen = new HashSet<>();
+        Long id = row.getId();
+        while (seen.add(id)) {
+            id = byId.get(id).getParentId();
+        }
+        Long lowest = id;
+        for (Long cursor = byId.get(id).getParentId(); !cursor.equals(id); cursor = byId.get(cursor).getParentId()) {
+            lowest = Math.min(lowest, cursor);
+        }
+        return lowest;
+    }
+
+    private static final class Builder {
+
+        private final Map<Long, List<CategoryTreeRow>> children;
+        private final List<CategoryNode> preorder;
+        private final Map<Long, Integer> positions;
+        private final int[] subtreeEnd;
+        private final int[] parentPosition;
+        private final List<List<CategoryNode>> ancestors;
+
+        private Builder(int size, Map<Long, List<CategoryTreeRow>> children) {
+            this.children = children;
+            this.preorder = new ArrayList<>(size);
+            this.positions = new HashMap<>(size * 2);
+            this.subtreeEnd = new int[size];
+            this.parentPosition = new int[size];
+            this.ancestors = new ArrayList<>(size);
+        }
+
+        /**
+         * Depth-first walk with an explicit stack, deep hierarchies must not overflow the thread stack.
+         */
+        private void visit(CategoryTreeRow root) {
+            Deque<int[]> stack = new ArrayDeque<>();
+            stack.push(new int[] { append(root, -1), 0 });
+            while (!stack.isEmpty()) {
+                int[] frame = stack.peek();
+                CategoryNode node = preorder.get(frame[0]);
+                List<CategoryTreeRow> siblings = children.getOrDefault(node.id(), List.of());
+                if (frame[1] < siblings.size()) {
+                    CategoryTreeRow child = siblings.get(frame[1]++);
+                    if (!positions.containsKey(child.getId())) {
+                        stack.push(new int[] { append(child, frame[0]), 0 });
+                    }
+                } else {
+                    subtreeEnd[frame[0]] = preorder.size();
+                    stack.pop();
+                }
+            }
+        }
+
+        private int append(CategoryTreeRow row, int parent) {
+            int position = preorder.size();
+            List<CategoryNode> path;
+            if (parent < 0) {
+                path = List.of();
+            } else {
+                List<CategoryNode> parentPath = ancestors.get(parent);
+                List<CategoryNode> copy = new ArrayList<>(parentPath.size() + 1);
+                copy.addAll(parentPath);
+                copy.add(preorder.get(parent));
+                path = Collections.unmodifiableList(copy);
+            }
+            preorder.add(
+                new CategoryNode(row.getId(), row.getParentId(), row.getDescription(), row.getSortOrder(), row.getStatus(), path.size())
+            );
+            positions.put(row.getId(), position);
+            parentPosition[position] = parent;
+            ancestors.add(path);
+            return position;
+        }
+
+        private CategoryTree build(int brokenCycles) {
+            // assemble the branches bottom-up: in reverse pre-order every child comes before its parent
+            int size = preorder.size();
+            List<List<Branch>> childBranches = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                childBranches.add(new ArrayList<>(0));
+            }
+            List<Branch> roots = new ArrayList<>();
+            for (int i = size - 1; i >= 0; i--) {
+                List<Branch> branchChildren = childBranches.get(i);
+                Collections.reverse(branchChildren);
+                Branch branch = new Branch(preorder.get(i), Collections.unmodifiableList(branchChildren));
+                if (parentPosition[i] < 0) {
+                    roots.add(branch);
+                } else {
+                    childBranches.get(parentPosition[i]).add(branch);
+                }
+            }
+            Collections.reverse(roots);
+            return new CategoryTree(
+                Collections.unmodifiableList(preorder),
+                positions,
+                subtreeEnd,
+                Collections.unmodifiableList(ancestors),
+                Collections.unmodifiableList(roots),
+                brokenCycles
+            );
+        }
+    }
+
+    /**
+     * @return the number of categories.
+     */
+    public int size() {
+        return preorder.size();
+    }
+
+    /**
+     * @return the number of parent cycles that had to be broken to build the tree.
+     */
+    public int brokenCycles() {
+        return brokenCycles;
+    }
+
+    public boolean contains(Long id) {
+        return positions.containsKey(id);
+    }
+
+    public Optional<CategoryNode> get(Long id) {
+        Integer position = positions.get(id);
+        return position == null ? Optional.empty() : Optional.of(preorder.get(position));
+    }
+
+    /**
+     * The ancestors of a category, from its root down to its parent.
+     *
+     * @param id the id of the category.
+     * @return the ancestors, empty for a root or an unknown category.
+     */
+    public List<CategoryNode> ancestors(Long id) {
+        Integer position = positions.get(id);
+        return position == null ? List.of() : ancestors.get(position);
+    }
+
+    /**
+     * All the categories under a category, at any depth, in pre-order.
+     *
+     * @param id the id of the category.
+     * @return the descendants, empty for a leaf or an unknown category.
+     */
+    public List<CategoryNode> descendants(Long id) {
+        Integer position = positions.get(id);
+        return position == null ? List.of() : preorder.subList(position + 1, subtreeEnd[position]);
+    }
+
+    /**
+     * Whether a category is under another one, at any depth.
+     *
+     * @param ancestorId the id of the candidate ancestor.
+     * @param id the id of the category.
+     * @return {@code true} if {@code id} is a strict descendant of {@code ancestorId}.
+     */
+    public boolean isDescendant(Long ancestorId, Long id) {
+        Integer ancestor = positions.get(ancestorId);
+        Integer position = positions.get(id);
+        return ancestor != null && position != null && position > ancestor && position < subtreeEnd[ancestor];
+    }
+
+    /**
+     * Expand a set of categories with all their descendants.
+     *
+     * @param ids the ids of the categories.
+     * @return the ids of the categories and of their descendants; unknown ids are kept as they are.
+     */
+    public Set<Long> withDescendants(Collection<Long> ids) {
+        Set<Long> result = new LinkedHashSet<>(ids);
+        Set<Integer> expanded = new HashSet<>();
+        for (Long id : ids) {
+            Integer position = positions.get(id);
+            if (position != null && expanded.add(position)) {
+                for (int i = position + 1; i < subtreeEnd[position]; i++) {
+                    result.add(preorder.get(i).id());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the whole hierarchy, as the list of root categories.
+     */
+    public List<Branch> roots() {
+        return roots;
+    }
+}
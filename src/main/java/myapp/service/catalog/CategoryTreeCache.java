@@ -0,0 +1,81 @@
+package myapp.service.catalog;
+
+import java.util.concurrent.locks.ReentrantLock;
+import myapp.repository.CategoryRepository;
+import myapp.service.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the current {@link CategoryTree} snapshot.
+ * <p>
+ * The snapshot is rebuilt from the {@code category} table after every committed category write, the
+ * table being small and rarely written compared to how often menus are rendered.
+ */
+@Component
+public class CategoryTreeCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CategoryTreeCache.class);
+
+    private final CategoryRepository categoryRepository;
+
+    private volatile CategoryTree tree = CategoryTree.EMPTY;
+
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    public CategoryTreeCache(CategoryRepository categoryRepository) {
+        this.categoryRepository = categoryRepository;
+    }
+
+    /**
+     * @return the current snapshot.
+     */
+    public CategoryTree current() {
+        return tree;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            LOG.warn("Could not load the category tree: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild the snapshot once the current transaction commits.
+     */
+    public void reloadAfterCommit() {
+        AfterCommit.run(() -> {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                LOG.warn("Could not reload the category tree, serving the previous one: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Rebuild the snapshot from the database.
+     * <p>
+     * Reloads are serialized, so a reload triggered by a later commit always publishes last; by a lock, which a
+     * virtual thread can wait for without keeping its carrier thread.
+     */
+    public void reload() {
+        reloadLock.lock();
+        try {
+            CategoryTree next = CategoryTree.build(categoryRepository.findAllTreeRows());
+            if (next.brokenCycles() > 0) {
+                LOG.warn("Category tree has {} parent cycle(s), broken at their lowest category id", next.brokenCycles());
+            }
+            tree = next;
+            LOG.debug("Category tree rebuilt with {} categories", next.size());
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * In-memory category tree.
+ */
+package myapp.service.catalog;
@@ -0,0 +1,121 @@
+package myapp.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO for listing {@link myapp.domain.Address} entities.
+ * <p>
+ * The customer is a reference holding only its id.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AddressDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String address1;
+
+    private String address2;
+
+    private String city;
+
+    private String postcode;
+
+    private String country;
+
+    private CustomerDTO customer;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getAddress1() {
+        return address1;
+    }
+
+    public void setAddress1(String address1) {
+        this.address1 = address1;
+    }
+
+    public String getAddress2() {
+        return address2;
+    }
+
+    public void setAddress2(String address2) {
+        this.address2 = address2;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public String getPostcode() {
+        return postcode;
+    }
+
+    public void setPostcode(String postcode) {
+        this.postcode = postcode;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public void setCountry(String country) {
+        this.country = country;
+    }
+
+    public CustomerDTO getCustomer() {
+        return customer;
+    }
+
+    public void setCustomer(CustomerDTO customer) {
+        this.customer = customer;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AddressDTO)) {
+            return false;
+        }
+
+        AddressDTO addressDTO = (AddressDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, addressDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AddressDTO{" +
+            "id=" + getId() +
+            ", address1='" + getAddress1() + "'" +
+            ", address2='" + getAddress2() + "'" +
+            ", city='" + getCity() + "'" +
+            ", postcode='" + getPostcode() + "'" +
+            ", country='" + getCountry() + "'" +
+            ", customer=" + getCustomer() +
+            "}";
+    }
+}
@@ -0,0 +1,166 @@
+package myapp.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import myapp.domain.Category;
+import myapp.domain.enumeration.CategoryStatus;
+
+/**
+ * A DTO for listing {@link myapp.domain.Category} entities.
+ * <p>
+ * The parent is a reference holding only its id, and the products are only set when they were asked for,
+ * as {@link ProductSummaryDTO}s.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CategoryDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private Long version;
+
+    private String description;
+
+    private Integer sortOrder;
+
+    private Instant dateAdded;
+
+    private Instant dateModified;
+
+    private CategoryStatus status;
+
+    private CategoryDTO parent;
+
+    private List<ProductSummaryDTO> products;
+
+    public CategoryDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public CategoryDTO(Category category) {
+        this.id = category.getId();
+        this.version = category.getVersion();
+        this.description = category.getDescription();
+        this.sortOrder = category.getSortOrder();
+        this.dateAdded = category.getDateAdded();
+        this.dateModified = category.getDateModified();
+        this.status = category.getStatus();
+        if (category.getParent() != null) {
+            // the id of a lazy parent is known without loading it
+            this.parent = new CategoryDTO();
+            this.parent.setId(category.getParent().getId());
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Integer getSortOrder() {
+        return sortOrder;
+    }
+
+    public void setSortOrder(Integer sortOrder) {
+        this.sortOrder = sortOrder;
+    }
+
+    public Instant getDateAdded() {
+        return dateAdded;
+    }
+
+    public void setDateAdded(Instant dateAdded) {
+        this.dateAdded = dateAdded;
+    }
+
+    public Instant getDateModified() {
+        return dateModified;
+    }
+
+    public void setDateModified(Instant dateModified) {
+        this.dateModified = dateModified;
+    }
+
+    public CategoryStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(CategoryStatus status) {
+        this.status = status;
+    }
+
+    public CategoryDTO getParent() {
+        return parent;
+    }
+
+    public void setParent(CategoryDTO parent) {
+        this.parent = parent;
+    }
+
+    public List<ProductSummaryDTO> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<ProductSummaryDTO> products) {
+        this.products = products;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CategoryDTO)) {
+            return false;
+        }
+
+        CategoryDTO categoryDTO = (CategoryDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, categoryDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CategoryDTO{" +
+            "id=" + getId() +
+            ", version=" + getVersion() +
+            ", description='" + getDescription() + "'" +
+            ", sortOrder=" + getSortOrder() +
+            ", dateAdded='" + getDateAdded() + "'" +
+            ", dateModified='" + getDateModified() + "'" +
+            ", status='" + getStatus() + "'" +
+            ", parent=" + getParent() +
+            "}";
+    }
+}
@@ -0,0 +1,73 @@
+package myapp.service.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A DTO representing a cart being checked out: who buys, where to ship, and what, possibly reserved beforehand.
+ * <p>
+ * Prices, shipping cost and total are deliberately absent, they are computed when the order is placed.
+ */
+public class CheckoutDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    private Long customerId;
+
+    private Long shippingAddressId;
+
+    private UUID reservationId;
+
+    @NotEmpty
+    @Valid
+    private List<CheckoutItemDTO> items = new ArrayList<>();
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public Long getShippingAddressId() {
+        return shippingAddressId;
+    }
+
+    public void setShippingAddressId(Long shippingAddressId) {
+        this.shippingAddressId = shippingAddressId;
+    }
+
+    public UUID getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(UUID reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    public List<CheckoutItemDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<CheckoutItemDTO> items) {
+        this.items = items;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CheckoutDTO{" +
+            "customerId=" + getCustomerId() +
+            ", shippingAddressId=" + getShippingAddressId() +
+            ", reservationId=" + getReservationId() +
+            ", items=" + getItems() +
+            "}";
+    }
+}
@@ -0,0 +1,54 @@
+package myapp.service.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.io.Serializable;
+
+/**
+ * A DTO representing a product and the quantity of it being ordered.
+ */
+public class CheckoutItemDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    private Long productId;
+
+    @NotNull
+    @Min(1)
+    private Integer quantity;
+
+    public CheckoutItemDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public CheckoutItemDTO(Long productId, Integer quantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CheckoutItemDTO{" +
+            "productId=" + getProductId() +
+            ", quantity=" + getQuantity() +
+            "}";
+    }
+}
@@ -0,0 +1,157 @@
+package myapp.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A DTO for listing {@link myapp.domain.Order} entities.
+ * <p>
+ * The shipping address and the customer are references holding only their id, and the products and order lines
+ * are not listed.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private Long version;
+
+    private Instant orderDate;
+
+    private Instant shippedDate;
+
+    private String status;
+
+    private BigDecimal totalAmount;
+
+    private BigDecimal shippingCost;
+
+    private String trackingNumber;
+
+    private AddressDTO shippingAddress;
+
+    private CustomerDTO customer;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getOrderDate() {
+        return orderDate;
+    }
+
+    public void setOrderDate(Instant orderDate) {
+        this.orderDate = orderDate;
+    }
+
+    public Instant getShippedDate() {
+        return shippedDate;
+    }
+
+    public void setShippedDate(Instant shippedDate) {
+        this.shippedDate = shippedDate;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public BigDecimal getShippingCost() {
+        return shippingCost;
+    }
+
+    public void setShippingCost(BigDecimal shippingCost) {
+        this.shippingCost = shippingCost;
+    }
+
+    public String getTrackingNumber() {
+        return trackingNumber;
+    }
+
+    public void setTrackingNumber(String trackingNumber) {
+        this.trackingNumber = trackingNumber;
+    }
+
+    public AddressDTO getShippingAddress() {
+        return shippingAddress;
+    }
+
+    public void setShippingAddress(AddressDTO shippingAddress) {
+        this.shippingAddress = shippingAddress;
+    }
+
+    public CustomerDTO getCustomer() {
+        return customer;
+    }
+
+    public void setCustomer(CustomerDTO customer) {
+        this.customer = customer;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OrderDTO)) {
+            return false;
+        }
+
+        OrderDTO orderDTO = (OrderDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, orderDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "OrderDTO{" +
+            "id=" + getId() +
+            ", version=" + getVersion() +
+            ", orderDate='" + getOrderDate() + "'" +
+            ", shippedDate='" + getShippedDate() + "'" +
+            ", status='" + getStatus() + "'" +
+            ", totalAmount=" + getTotalAmount() +
+            ", shippingCost=" + getShippingCost() +
+            ", trackingNumber='" + getTrackingNumber() + "'" +
+            ", shippingAddress=" + getShippingAddress() +
+            ", customer=" + getCustomer() +
+            "}";
+    }
+}
@@ -0,0 +1,212 @@
+package myapp.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Objects;
+import myapp.domain.enumeration.ProductStatus;
+
+/**
+ * A DTO for listing {@link myapp.domain.Product} entities.
+ * <p>
+ * The wish list and the order are references holding only their id, and the categories are not listed.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private Long version;
+
+    private String title;
+
+    private String keywords;
+
+    private String description;
+
+    private Integer rating;
+
+    private BigDecimal price;
+
+    private Integer quantityInStock;
+
+    private ProductStatus status;
+
+    private Double weight;
+
+    private String dimensions;
+
+    private Instant dateAdded;
+
+    private Instant dateModified;
+
+    private WishListDTO wishList;
+
+    private OrderDTO order;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getKeywords() {
+        return keywords;
+    }
+
+    public void setKeywords(String keywords) {
+        this.keywords = keywords;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Integer getRating() {
+        return rating;
+    }
+
+    public void setRating(Integer rating) {
+        this.rating = rating;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public Integer getQuantityInStock() {
+        return quantityInStock;
+    }
+
+    public void setQuantityInStock(Integer quantityInStock) {
+        this.quantityInStock = quantityInStock;
+    }
+
+    public ProductStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ProductStatus status) {
+        this.status = status;
+    }
+
+    public Double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Double weight) {
+        this.weight = weight;
+    }
+
+    public String getDimensions() {
+        return dimensions;
+    }
+
+    public void setDimensions(String dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    public Instant getDateAdded() {
+        return dateAdded;
+    }
+
+    public void setDateAdded(Instant dateAdded) {
+        this.dateAdded = dateAdded;
+    }
+
+    public Instant getDateModified() {
+        return dateModified;
+    }
+
+    public void setDateModified(Instant dateModified) {
+        this.dateModified = dateModified;
+    }
+
+    public WishListDTO getWishList() {
+        return wishList;
+    }
+
+    public void setWishList(WishListDTO wishList) {
+        this.wishList = wishList;
+    }
+
+    public OrderDTO getOrder() {
+        return order;
+    }
+
+    public void setOrder(OrderDTO order) {
+        this.order = order;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProductDTO)) {
+            return false;
+        }
+
+        ProductDTO productDTO = (ProductDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, productDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProductDTO{" +
+            "id=" + getId() +
+            ", version=" + getVersion() +
+            ", title='" + getTitle() + "'" +
+            ", keywords='" + getKeywords() + "'" +
+            ", description='" + getDescription() + "'" +
+            ", rating=" + getRating() +
+            ", price=" + getPrice() +
+            ", quantityInStock=" + getQuantityInStock() +
+            ", status='" + getStatus() + "'" +
+            ", weight=" + getWeight() +
+            ", dimensions='" + getDimensions() + "'" +
+            ", dateAdded='" + getDateAdded() + "'" +
+            ", dateModified='" + getDateModified() + "'" +
+            ", wishList=" + getWishList() +
+            ", order=" + getOrder() +
+            "}";
+    }
+}
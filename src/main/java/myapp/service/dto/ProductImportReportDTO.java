@@ -0,0 +1,93 @@
+package myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO reporting the outcome of a bulk product import.
+ */
+public class ProductImportReportDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long imported;
+
+    private long rejected;
+
+    private long elapsedMillis;
+
+    private double rowsPerSecond;
+
+    private List<RowError> errors = new ArrayList<>();
+
+    private boolean errorsTruncated;
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProductImportReportDTO{" +
+            "imported=" + imported +
+            ", rejected=" + rejected +
+            ", elapsedMillis=" + elapsedMillis +
+            ", rowsPerSecond=" + rowsPerSecond +
+            ", errors=" + errors.size() +
+            "}";
+    }
+
+    /**
+     * The reasons a single row of the feed was rejected.
+     *
+     * @param row the 1-based row number in the feed, not counting the CSV header.
+     * @param messages the validation or parsing messages.
+     */
+    public record RowError(long row, List<String> messages) implements Serializable {}
+}
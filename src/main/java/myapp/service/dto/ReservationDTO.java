@@ -0,0 +1,35 @@
+package myapp.service.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the products of a cart to set aside until it is checked out.
+ */
+public class ReservationDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotEmpty
+    @Valid
+    private List<CheckoutItemDTO> items = new ArrayList<>();
+
+    public List<CheckoutItemDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<CheckoutItemDTO> items) {
+        this.items = items;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ReservationDTO{" +
+            "items=" + getItems() +
+            "}";
+    }
+}
@@ -0,0 +1,88 @@
+package myapp.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO for listing {@link myapp.domain.WishList} entities.
+ * <p>
+ * The customer is a reference holding only its id, and the products are not listed.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WishListDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String title;
+
+    private Boolean restricted;
+
+    private CustomerDTO customer;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public Boolean getRestricted() {
+        return restricted;
+    }
+
+    public void setRestricted(Boolean restricted) {
+        this.restricted = restricted;
+    }
+
+    public CustomerDTO getCustomer() {
+        return customer;
+    }
+
+    public void setCustomer(CustomerDTO customer) {
+        this.customer = customer;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof WishListDTO)) {
+            return false;
+        }
+
+        WishListDTO wishListDTO = (WishListDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, wishListDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "WishListDTO{" +
+            "id=" + getId() +
+            ", title='" + getTitle() + "'" +
+            ", restricted=" + getRestricted() +
+            ", customer=" + getCustomer() +
+            "}";
+    }
+}
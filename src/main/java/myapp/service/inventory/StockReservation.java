@@ -0,0 +1,14 @@
+package myapp.service.inventory;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Units of products set aside for a cart until it is checked out or the reservation expires.
+ *
+ * @param id the id of the reservation.
+ * @param quantities the reserved quantity, by product id.
+ * @param expiresAt when the units go back to the stock unless the cart is checked out.
+ */
+public record StockReservation(UUID id, Map<Long, Integer> quantities, Instant expiresAt) {}
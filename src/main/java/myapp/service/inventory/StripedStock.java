@@ -0,0 +1,225 @@
+package myapp.service.inventory;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Units of a product that this node has taken out of the product stock, ready to be handed out to
+ * reservations without a database round trip.
+ * <p>
+ * The units are spread over several counters, each on its own cache line, and every thread starts with
+ * the counter its id hashes to; buyers of a hot product thus rarely compete for the same counter. When
+ * the counters run dry, a single thread leases a new block of units from the {@link Source} while the
+ * others wait for it, so a sale does not turn into a queue of updates on the product row.
+ */
+public final class StripedStock {
+
+    /**
+     * Where the units come from: the product row, decremented by a conditional update.
+     */
+    @FunctionalInterface
+    public interface Source {
+        /**
+         * @param quantity the number of units to take.
+         * @return {@code true} if they were taken, {@code false} if fewer are left; nothing is taken then.
+         */
+        boolean take(int quantity);
+    }
+
+    // 16 ints per 64-byte cache line, so that two counters never share a line
+    private static final int PADDING = 16;
+
+    private static final int MAX_STRIPES = 64;
+
+    private final AtomicIntegerArray cells;
+
+    private final int mask;
+
+    private final Source source;
+
+    private final int leaseSize;
+
+    private volatile boolean touched;
+
+    /**
+     * Serializes the leases. A lock rather than a monitor, as the source is typically the database: a virtual
+     * thread waiting for it while holding a monitor would keep its carrier thread.
+     */
+    private final ReentrantLock leaseLock = new ReentrantLock();
+
+    /**
+     * @param stripes the number of counters, rounded up to a power of two.
+     * @param leaseSize the minimum number of units leased from the source at once.
+     * @param source the source of the units.
+     */
+    public StripedStock(int stripes, int leaseSize, Source source) {
+        int bounded = Math.min(stripes, MAX_STRIPES);
+        int size = bounded <= 1 ? 1 : Integer.highestOneBit(bounded - 1) << 1;
+        this.cells = new AtomicIntegerArray(size * PADDING);
+        this.mask = size - 1;
+        this.leaseSize = Math.max(1, leaseSize);
+        this.source = source;
+    }
+
+    /**
+     * @return the default number of counters for this machine.
+     */
+    public static int defaultStripes() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Take units, leasing more from the source if the counters do not hold enough.
+     *
+     * @param quantity the number of units, strictly positive.
+     * @return {@code true} if the units were taken, {@code false} if the source is short of them too.
+     */
+    public boolean take(int quantity) {
+        if (!touched) {
+            touched = true;
+        }
+        if (takeLocal(quantity)) {
+            return true;
+        }
+        leaseLock.lock();
+        try {
+            // the thread that held the lock before may just have leased enough for us too
+            if (takeLocal(quantity)) {
+                return true;
+            }
+            int gathered = gather(quantity);
+            int missing = quantity - gathered;
+            int lease = Math.max(missing, leaseSize);
+            if (!source.take(lease)) {
+                if (lease == missing || !source.take(missing)) {
+                    put(gathered);
+                    return false;
+                }
+                lease = missing;
+            }
+            spread(lease - missing);
+            return true;
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    /**
+     * Take the units held, up to a quantity, without leasing any from the source.
+     *
+     * @param quantity the maximum number of units.
+     * @return the number of units taken, possibly zero.
+     */
+    public int takeHeld(int quantity) {
+        if (!touched) {
+            touched = true;
+        }
+        return quantity > 0 ? gather(quantity) : 0;
+    }
+
+    /**
+     * Give units back, for instance when a reservation is released.
+     *
+     * @param quantity the number of units.
+     */
+    public void put(int quantity) {
+        if (quantity > 0) {
+            cells.addAndGet(home() * PADDING, quantity);
+        }
+    }
+
+    /**
+     * Take all the units out of the counters, to give them back to the source.
+     *
+     * @return the number of units taken.
+     */
+    public int drain() {
+        int drained = 0;
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            drained += cells.getAndSet(stripe * PADDING, 0);
+        }
+        return drained;
+    }
+
+    /**
+     * @return the number of units currently held.
+     */
+    public int available() {
+        int available = 0;
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            available += cells.get(stripe * PADDING);
+        }
+        return available;
+    }
+
+    /**
+     * Whether units were taken since the previous call.
+     */
+    public boolean clearTouched() {
+        boolean wasTouched = touched;
+        touched = false;
+        return wasTouched;
+    }
+
+    private boolean takeLocal(int quantity) {
+        int home = home();
+        for (int i = 0; i <= mask; i++) {
+            int cell = ((home + i) & mask) * PADDING;
+            int value = cells.get(cell);
+            while (value >= quantity) {
+                if (cells.compareAndSet(cell, value, value - quantity)) {
+                    return true;
+                }
+                value = cells.get(cell);
+            }
+        }
+        if (mask > 0) {
+            // no single counter holds enough, but together they may
+            int gathered = gather(quantity);
+            if (gathered == quantity) {
+                return true;
+            }
+            put(gathered);
+        }
+        return false;
+    }
+
+    /**
+     * Take as many units as possible, up to {@code quantity}, from all the counters.
+     */
+    private int gather(int quantity) {
+        int gathered = 0;
+        int home = home();
+        for (int i = 0; i <= mask && gathered < quantity; i++) {
+            int cell = ((home + i) & mask) * PADDING;
+            int value = cells.get(cell);
+            while (value > 0) {
+                int taken = Math.min(value, quantity - gathered);
+                if (cells.compareAndSet(cell, value, value - taken)) {
+                    gathered += taken;
+                    break;
+                }
+                value = cells.get(cell);
+            }
+        }
+        return gathered;
+    }
+
+    private void spread(int quantity) {
+        int stripes = mask + 1;
+        int share = quantity / stripes;
+        int home = home();
+        for (int i = 0; i < stripes; i++) {
+            int units = share + (i < quantity % stripes ? 1 : 0);
+            if (units > 0) {
+                cells.addAndGet(((home + i) & mask) * PADDING, units);
+            }
+        }
+    }
+
+    private int home() {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
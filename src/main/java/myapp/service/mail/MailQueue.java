@@ -0,0 +1,247 @@
+package myapp.service.mail;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.TimeUnit;
+import myapp.config.ApplicationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Queue of the emails to send, sent in batches by a single worker thread.
+ * <p>
+ * Queuing an email never waits for the mail server. The worker takes the emails that are due in batches of
+ * {@code application.mail.batch-size}, each batch being sent over a single connection to the server. An email
+ * that could not be sent is queued again, due after a delay doubling at each attempt, until it is dropped after
+ * {@code application.mail.max-attempts} attempts. The queue is bounded and lives in memory: the emails beyond
+ * its capacity are dropped, as are the emails still queued when the application stops, after a last attempt.
+ */
+@Component
+public class MailQueue implements SmartLifecycle {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MailQueue.class);
+
+    public static final String QUEUE_METER_NAME = "mail.queue.size";
+
+    public static final String SEND_METER_NAME = "mail.send";
+
+    public static final String DELIVERY_METER_NAME = "mail.delivery";
+
+    public static final String MESSAGES_METER_NAME = "mail.messages";
+
+    private final JavaMailSender javaMailSender;
+
+    private final String from;
+
+    private final ApplicationProperties.Mail properties;
+
+    private final DelayQueue<OutboundMail> queue = new DelayQueue<>();
+
+    private final Timer sendSuccessTimer;
+
+    private final Timer sendFailureTimer;
+
+    private final Timer deliveryTimer;
+
+    private final Counter sentCounter;
+
+    private final Counter retriedCounter;
+
+    private final Counter droppedCounter;
+
+    private final Counter rejectedCounter;
+
+    private volatile Thread worker;
+
+    public MailQueue(
+        JavaMailSender javaMailSender,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.javaMailSender = javaMailSender;
+        this.from = jHipsterProperties.getMail().getFrom();
+        this.properties = applicationProperties.getMail();
+        Gauge.builder(QUEUE_METER_NAME, queue, Collection::size).description("Emails waiting to be sent").register(meterRegistry);
+        this.sendSuccessTimer = sendTimer(meterRegistry, "success");
+        this.sendFailureTimer = sendTimer(meterRegistry, "failure");
+        this.deliveryTimer = Timer.builder(DELIVERY_METER_NAME)
+            .description("Time from the queuing of an email to its sending")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.sentCounter = outcomeCounter(meterRegistry, "sent");
+        this.retriedCounter = outcomeCounter(meterRegistry, "retried");
+        this.droppedCounter = outcomeCounter(meterRegistry, "dropped");
+        this.rejectedCounter = outcomeCounter(meterRegistry, "rejected");
+    }
+
+    private static Timer sendTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder(SEND_METER_NAME)
+            .description("Time spent sending a batch of emails to the mail server")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(MESSAGES_METER_NAME).description("Emails, by outcome").tag("outcome", outcome).register(meterRegistry);
+    }
+
+    /**
+     * Queue an email.
+     *
+     * @param to the recipient.
+     * @param subject the subject.
+     * @param content the content.
+     * @param isMultipart whether the email is multipart.
+     * @param isHtml whether the content is HTML.
+     * @return {@code true} if the email was queued, {@code false} if it was dropped as the queue is full.
+     */
+    public boolean enqueue(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
+        if (queue.size() >= properties.getQueueCapacity()) {
+            rejectedCounter.increment();
+            LOG.warn("Mail queue full, email to '{}' with subject '{}' dropped", to, subject);
+            return false;
+        }
+        long now = System.nanoTime();
+        queue.add(new OutboundMail(to, subject, content, isMultipart, isHtml, 1, now, now));
+        return true;
+    }
+
+    @Override
+    public void start() {
+        Thread thread = new Thread(this::work, "mail-sender");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        Thread thread = worker;
+        worker = null;
+        if (thread == null) {
+            return;
+        }
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<OutboundMail> remaining = new ArrayList<>(queue);
+        queue.clear();
+        if (!remaining.isEmpty()) {
+            LOG.info("Sending the {} queued emails before stopping", remaining.size());
+            for (int offset = 0; offset < remaining.size(); offset += properties.getBatchSize()) {
+                send(remaining.subList(offset, Math.min(remaining.size(), offset + properties.getBatchSize())), false);
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return worker != null;
+    }
+
+    private void work() {
+        List<OutboundMail> batch = new ArrayList<>(properties.getBatchSize());
+        while (worker == Thread.currentThread()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, properties.getBatchSize() - 1);
+            try {
+                send(batch, true);
+            } catch (RuntimeException e) {
+                LOG.error("Emails could not be sent", e);
+            }
+            batch.clear();
+        }
+    }
+
+    private void send(List<OutboundMail> batch, boolean retry) {
+        Map<MimeMessage, OutboundMail> messages = new IdentityHashMap<>(batch.size());
+        for (OutboundMail mail : batch) {
+            try {
+                messages.put(mimeMessage(mail), mail);
+            } catch (MessagingException e) {
+                droppedCounter.increment();
+                LOG.warn("Email could not be sent to user '{}'", mail.to(), e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        Map<Object, Exception> failed;
+        try {
+            javaMailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+            sendSuccessTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            failed = Map.of();
+        } catch (MailSendException e) {
+            sendFailureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            failed = e.getFailedMessages().isEmpty() ? failAll(messages, e) : e.getFailedMessages();
+        } catch (MailException e) {
+            sendFailureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            failed = failAll(messages, e);
+        }
+        long sent = System.nanoTime();
+        for (Map.Entry<MimeMessage, OutboundMail> message : messages.entrySet()) {
+            OutboundMail mail = message.getValue();
+            Exception failure = failed.get(message.getKey());
+            if (failure == null) {
+                sentCounter.increment();
+                deliveryTimer.record(sent - mail.enqueuedNanos(), TimeUnit.NANOSECONDS);
+                LOG.debug("Sent email to User '{}'", mail.to());
+            } else if (retry && mail.attempt() < properties.getMaxAttempts()) {
+                retriedCounter.increment();
+                LOG.debug("Email could not be sent to user '{}' at attempt {}, retrying: {}", mail.to(), mail.attempt(), failure.getMessage());
+                queue.add(mail.retry(TimeUnit.MILLISECONDS.toNanos(backoffMillis(mail.attempt()))));
+            } else {
+                droppedCounter.increment();
+                LOG.warn("Email could not be sent to user '{}'", mail.to(), failure);
+            }
+        }
+    }
+
+    private MimeMessage mimeMessage(OutboundMail mail) throws MessagingException {
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper message = new MimeMessageHelper(mimeMessage, mail.multipart(), StandardCharsets.UTF_8.name());
+        message.setTo(mail.to());
+        message.setFrom(from);
+        message.setSubject(mail.subject());
+        message.setText(mail.content(), mail.html());
+        return mimeMessage;
+    }
+
+    private static Map<Object, Exception> failAll(Map<MimeMessage, OutboundMail> messages, Exception e) {
+        Map<Object, Exception> failed = new IdentityHashMap<>(messages.size());
+        messages.keySet().forEach(message -> failed.put(message, e));
+        return failed;
+    }
+
+    private long backoffMillis(int attempt) {
+        return Math.min(properties.getMaxBackoffMillis(), properties.getInitialBackoffMillis() << Math.min(attempt - 1, 20));
+    }
+}
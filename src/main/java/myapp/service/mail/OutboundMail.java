@@ -0,0 +1,46 @@
+package myapp.service.mail;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An email waiting to be sent, due at a given time.
+ *
+ * @param to the recipient.
+ * @param subject the subject.
+ * @param content the content.
+ * @param multipart whether the email is multipart.
+ * @param html whether the content is HTML.
+ * @param attempt the number of the next attempt to send it, from 1.
+ * @param enqueuedNanos when it was queued, in {@link System#nanoTime()} nanoseconds.
+ * @param dueNanos when it is due to be sent, in {@link System#nanoTime()} nanoseconds.
+ */
+public record OutboundMail(
+    String to,
+    String subject,
+    String content,
+    boolean multipart,
+    boolean html,
+    int attempt,
+    long enqueuedNanos,
+    long dueNanos
+)
+    implements Delayed {
+    /**
+     * @param delayNanos the delay before the next attempt.
+     * @return this email, to be sent again after the delay.
+     */
+    public OutboundMail retry(long delayNanos) {
+        return new OutboundMail(to, subject, content, multipart, html, attempt + 1, enqueuedNanos, System.nanoTime() + delayNanos);
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+        return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Outbound mail queue.
+ */
+package myapp.service.mail;
@@ -0,0 +1,26 @@
+package myapp.service.mapper;
+
+import myapp.domain.Address;
+import myapp.repository.AddressRepository.AddressRow;
+import myapp.service.dto.AddressDTO;
+import myapp.service.dto.CustomerDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+/**
+ * Mapper for listing {@link Address} entities as {@link AddressDTO}s, from their rows.
+ */
+@Mapper(componentModel = "spring")
+public interface AddressMapper {
+    @Mapping(target = "customer", source = "customerId")
+    AddressDTO toDto(AddressRow row);
+
+    default CustomerDTO toCustomerReference(Long id) {
+        if (id == null) {
+            return null;
+        }
+        CustomerDTO customer = new CustomerDTO();
+        customer.setId(id);
+        return customer;
+    }
+}
@@ -0,0 +1,14 @@
+package myapp.service.mapper;
+
+import myapp.domain.Customer;
+import myapp.repository.CustomerRepository.CustomerRow;
+import myapp.service.dto.CustomerDTO;
+import org.mapstruct.Mapper;
+
+/**
+ * Mapper for listing {@link Customer} entities as {@link CustomerDTO}s, from their rows.
+ */
+@Mapper(componentModel = "spring")
+public interface CustomerMapper {
+    CustomerDTO toDto(CustomerRow row);
+}
@@ -0,0 +1,37 @@
+package myapp.service.mapper;
+
+import myapp.domain.Order;
+import myapp.repository.OrderRepository.OrderRow;
+import myapp.service.dto.AddressDTO;
+import myapp.service.dto.CustomerDTO;
+import myapp.service.dto.OrderDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+/**
+ * Mapper for listing {@link Order} entities as {@link OrderDTO}s, from their rows.
+ */
+@Mapper(componentModel = "spring")
+public interface OrderMapper {
+    @Mapping(target = "shippingAddress", source = "shippingAddressId")
+    @Mapping(target = "customer", source = "customerId")
+    OrderDTO toDto(OrderRow row);
+
+    default AddressDTO toAddressReference(Long id) {
+        if (id == null) {
+            return null;
+        }
+        AddressDTO address = new AddressDTO();
+        address.setId(id);
+        return address;
+    }
+
+    default CustomerDTO toCustomerReference(Long id) {
+        if (id == null) {
+            return null;
+        }
+        CustomerDTO customer = new CustomerDTO();
+        customer.setId(id);
+        return customer;
+    }
+}
@@ -0,0 +1,42 @@
+package myapp.service.mapper;
+
+import myapp.domain.Product;
+import myapp.repository.ProductRepository.ProductRow;
+import myapp.service.dto.OrderDTO;
+import myapp.service.dto.ProductDTO;
+import myapp.service.dto.WishListDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+/**
+ * Mapper for listing {@link Product} entities as {@link ProductDTO}s, from their rows or from the entities
+ * themselves when they come from the second-level cache.
+ */
+@Mapper(componentModel = "spring")
+public interface ProductMapper {
+    @Mapping(target = "wishList", source = "wishListId")
+    @Mapping(target = "order", source = "orderId")
+    ProductDTO toDto(ProductRow row);
+
+    @Mapping(target = "wishList", source = "wishList.id")
+    @Mapping(target = "order", source = "order.id")
+    ProductDTO toDto(Product product);
+
+    default WishListDTO toWishListReference(Long id) {
+        if (id == null) {
+            return null;
+        }
+        WishListDTO wishList = new WishListDTO();
+        wishList.setId(id);
+        return wishList;
+    }
+
+    default OrderDTO toOrderReference(Long id) {
+        if (id == null) {
+            return null;
+        }
+        OrderDTO order = new OrderDTO();
+        order.setId(id);
+        return order;
+    }
+}
@@ -0,0 +1,26 @@
+package myapp.service.mapper;
+
+import myapp.domain.WishList;
+import myapp.repository.WishListRepository.WishListRow;
+import myapp.service.dto.CustomerDTO;
+import myapp.service.dto.WishListDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+/**
+ * Mapper for listing {@link WishList} entities as {@link WishListDTO}s, from their rows.
+ */
+@Mapper(componentModel = "spring")
+public interface WishListMapper {
+    @Mapping(target = "customer", source = "customerId")
+    WishListDTO toDto(WishListRow row);
+
+    default CustomerDTO toCustomerReference(Long id) {
+        if (id == null) {
+            return null;
+        }
+        CustomerDTO customer = new CustomerDTO();
+        customer.setId(id);
+        return customer;
+    }
+}
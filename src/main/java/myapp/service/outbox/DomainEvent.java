@@ -0,0 +1,20 @@
+package myapp.service.outbox;
+
+import java.time.Instant;
+import myapp.domain.enumeration.DomainEventType;
+
+/**
+ * A committed change of an entity, published to the {@code @EventListener}s by the {@link OutboxRelay}.
+ * <p>
+ * An event names the entity that changed, not its new state: a listener reads the entity if it needs it.
+ * An event may be published more than once, so listeners must be idempotent. The listeners of an event run
+ * in a transaction of their own, committed before the event is deleted from the outbox: a listener failing
+ * rolls back the writes of all the listeners of the event, which is relayed again later.
+ *
+ * @param id the id of the event, increasing with the order in which changes were recorded.
+ * @param aggregateType the simple name of the entity class, such as {@code Order}.
+ * @param aggregateId the id of the entity.
+ * @param type the kind of change.
+ * @param occurredAt when the change was recorded.
+ */
+public record DomainEvent(Long id, String aggregateType, Long aggregateId, DomainEventType type, Instant occurredAt) {}
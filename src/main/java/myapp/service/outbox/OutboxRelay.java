@@ -0,0 +1,166 @@
+package myapp.service.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import myapp.config.ApplicationProperties;
+import myapp.domain.OutboxEvent;
+import myapp.repository.OutboxEventRepository;
+import myapp.service.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Relays the events of the outbox to the {@code @EventListener}s of {@link DomainEvent}, every
+ * {@code application.outbox.poll-interval-millis}.
+ * <p>
+ * The events are taken in batches, each in a transaction of its own: the oldest due events are locked,
+ * skipping those another relay, on this node or another one, is relaying; they are published one by one,
+ * the listeners of each event running in a new transaction, and the published events are deleted when the
+ * transaction of the batch commits. An event is thus delivered at least once: if that transaction does not
+ * commit, its events are relayed again. An event a listener failed on is kept, to be relayed again after a
+ * delay doubling at each failure, without holding back the events after it; as the failure rolled back the
+ * transaction of the listeners only, the batch still commits, and the delay is saved once it has, in a
+ * transaction of its own.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OutboxRelay.class);
+
+    public static final String BATCH_METER_NAME = "outbox.relay.batch";
+
+    public static final String LAG_METER_NAME = "outbox.events.lag";
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate publishTransactionTemplate;
+
+    private final ApplicationProperties.Outbox properties;
+
+    private final Counter publishedCounter;
+
+    private final Counter failedCounter;
+
+    private final Timer batchTimer;
+
+    private final Timer lagTimer;
+
+    public OutboxRelay(
+        OutboxEventRepository outboxEventRepository,
+        ApplicationEventPublisher eventPublisher,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // a listener failing rolls back its own transaction, not the one of the batch
+        this.publishTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.publishTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = applicationProperties.getOutbox();
+        this.publishedCounter = OutboxService.eventsCounter(meterRegistry, "published");
+        this.failedCounter = OutboxService.eventsCounter(meterRegistry, "failed");
+        this.batchTimer = Timer.builder(BATCH_METER_NAME)
+            .description("Time spent relaying a batch of outbox events")
+            .register(meterRegistry);
+        this.lagTimer = Timer.builder(LAG_METER_NAME)
+            .description("Time from the recording of an outbox event to its publication")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    /**
+     * Relay the due events, batch after batch, until there are none left.
+     */
+    @Scheduled(fixedDelayString = "${application.outbox.poll-interval-millis:1000}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                List<Failure> failures = new ArrayList<>();
+                try {
+                    relayed = batchTimer.record(() -> transactionTemplate.execute(status -> relayBatch(failures)));
+                } finally {
+                    postpone(failures);
+                }
+            } while (relayed >= properties.getBatchSize());
+        } catch (RuntimeException e) {
+            LOG.warn("Could not relay the outbox events: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @param failures the events a listener failed on, filled in.
+     * @return the number of events taken, published or not.
+     */
+    private int relayBatch(List<Failure> failures) {
+        Instant now = Instant.now();
+        List<OutboxEvent> events = outboxEventRepository.lockDueEvents(now, Limit.of(properties.getBatchSize()));
+        List<OutboxEvent> published = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            try {
+                publishTransactionTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(domainEvent(event)));
+                published.add(event);
+            } catch (RuntimeException e) {
+                int attempts = event.getAttempts() + 1;
+                failures.add(new Failure(event.getId(), attempts, now.plus(backoff(attempts))));
+                failedCounter.increment();
+                LOG.warn("Outbox event {} failed at attempt {}, retrying later: {}", event, attempts, e.getMessage());
+            }
+        }
+        outboxEventRepository.deleteAllInBatch(published);
+        AfterCommit.run(() -> {
+            publishedCounter.increment(published.size());
+            published.forEach(event -> lagTimer.record(Duration.between(event.getOccurredAt(), now)));
+        });
+        return events.size();
+    }
+
+    /**
+     * Save the delays of the events a listener failed on, once the transaction of their batch is over and their
+     * locks released.
+     */
+    private void postpone(List<Failure> failures) {
+        if (failures.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status ->
+            failures.forEach(failure -> outboxEventRepository.postpone(failure.eventId(), failure.attempts(), failure.availableAt()))
+        );
+    }
+
+    private static DomainEvent domainEvent(OutboxEvent event) {
+        return new DomainEvent(
+            event.getId(),
+            event.getAggregateType(),
+            event.getAggregateId(),
+            event.getEventType(),
+            event.getOccurredAt()
+        );
+    }
+
+    private Duration backoff(int attempts) {
+        return Duration.ofMillis(
+            Math.min(properties.getMaxBackoffMillis(), properties.getInitialBackoffMillis() << Math.min(attempts - 1, 20))
+        );
+    }
+
+    private record Failure(Long eventId, int attempts, Instant availableAt) {}
+}
@@ -0,0 +1,63 @@
+package myapp.service.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import myapp.domain.OutboxEvent;
+import myapp.domain.enumeration.DomainEventType;
+import myapp.repository.OutboxEventRepository;
+import myapp.service.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service recording the changes of the entities in the outbox.
+ * <p>
+ * A change is recorded in the transaction that makes it: it is relayed if, and only if, that transaction
+ * commits, without another system to write to and to keep consistent with the database.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OutboxService.class);
+
+    public static final String EVENTS_METER_NAME = "outbox.events";
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final Counter recordedCounter;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.recordedCounter = eventsCounter(meterRegistry, "recorded");
+    }
+
+    static Counter eventsCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(EVENTS_METER_NAME).description("Outbox events, by outcome").tag("outcome", outcome).register(meterRegistry);
+    }
+
+    /**
+     * Record the change of an entity, in the current transaction.
+     *
+     * @param aggregateType the class of the entity.
+     * @param aggregateId the id of the entity.
+     * @param type the kind of change.
+     */
+    public void record(Class<?> aggregateType, Long aggregateId, DomainEventType type) {
+        LOG.debug("Request to record {} {} : {}", type, aggregateType.getSimpleName(), aggregateId);
+        Instant now = Instant.now();
+        outboxEventRepository.save(
+            new OutboxEvent()
+                .aggregateType(aggregateType.getSimpleName())
+                .aggregateId(aggregateId)
+                .eventType(type)
+                .occurredAt(now)
+                .availableAt(now)
+        );
+        AfterCommit.run(recordedCounter::increment);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Transactional outbox of the changes of the entities.
+ */
+package myapp.service.outbox;
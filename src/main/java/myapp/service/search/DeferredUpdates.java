@@ -0,0 +1,64 @@
+package myapp.service.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds back the committed updates of an in-memory index while {@link ProductIndexLoader} loads it, and replays
+ * them in commit order once the load is over.
+ * <p>
+ * The loader reads the products batch after batch while writes keep being committed: applied right away, an update
+ * could be overwritten by an older row the loader reads after it, and a product deleted during the load could come
+ * back. Replayed after the load, every update lands on top of what the loader read, and the last one wins.
+ */
+final class DeferredUpdates {
+
+    /**
+     * The updates held back, {@code null} when no load is running.
+     */
+    private List<Runnable> deferred;
+
+    /**
+     * Start holding back the updates, before the load reads its first product.
+     */
+    synchronized void defer() {
+        deferred = new ArrayList<>();
+    }
+
+    /**
+     * Apply an update, or hold it back while a load is running.
+     *
+     * @param update the update to apply.
+     */
+    void runOrDefer(Runnable update) {
+        synchronized (this) {
+            if (deferred != null) {
+                deferred.add(update);
+                return;
+            }
+        }
+        update.run();
+    }
+
+    /**
+     * Replay the updates held back, including the ones committed while replaying, then stop holding them back.
+     *
+     * @return the number of updates replayed.
+     */
+    int replay() {
+        int replayed = 0;
+        while (true) {
+            List<Runnable> updates;
+            synchronized (this) {
+                if (deferred == null || deferred.isEmpty()) {
+                    deferred = null;
+                    return replayed;
+                }
+                updates = deferred;
+                deferred = new ArrayList<>();
+            }
+            updates.forEach(Runnable::run);
+            replayed += updates.size();
+        }
+    }
+}
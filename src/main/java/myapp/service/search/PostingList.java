@@ -0,0 +1,163 @@
+package myapp.service.search;
+
+import java.util.Arrays;
+
+/**
+ * Postings of a single term: the document ordinals containing it, in increasing order, with the
+ * weighted term frequency in each document.
+ * <p>
+ * Postings are stored as variable-byte encoded {@code (ordinal delta, frequency)} pairs in a single
+ * {@code byte[]}, so a posting usually costs two bytes instead of two boxed objects. Every
+ * {@link #BLOCK_SIZE} postings a skip entry records the last ordinal of the block and where the next
+ * block starts, which lets {@link Cursor#advance(int)} jump over whole blocks during intersections.
+ */
+final class PostingList {
+
+    static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+    static final int BLOCK_SIZE = 64;
+
+    private byte[] data = new byte[8];
+    private int length;
+    private int size;
+    private int lastDoc = -1;
+
+    private int[] skipDocs = new int[0];
+    private int[] skipOffsets = new int[0];
+    private int skipCount;
+
+    /**
+     * Append a posting. Ordinals are handed out monotonically by the index, so the list stays
+     * sorted without any re-ordering.
+     */
+    void add(int doc, int freq) {
+        if (doc <= lastDoc) {
+            throw new IllegalArgumentException("Postings must be added in increasing order: " + doc + " <= " + lastDoc);
+        }
+        writeVInt(doc - lastDoc);
+        writeVInt(freq);
+        lastDoc = doc;
+        size++;
+        if (size % BLOCK_SIZE == 0) {
+            if (skipCount == skipDocs.length) {
+                int capacity = Math.max(4, skipCount * 2);
+                skipDocs = Arrays.copyOf(skipDocs, capacity);
+                skipOffsets = Arrays.copyOf(skipOffsets, capacity);
+            }
+            skipDocs[skipCount] = doc;
+            skipOffsets[skipCount] = length;
+            skipCount++;
+        }
+    }
+
+    private void writeVInt(int value) {
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, Math.max(length + 5, data.length + (data.length >> 1)));
+        }
+        while ((value & ~0x7F) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Release the unused tail of the encoding buffers once the list is no longer being appended to
+     * in bulk.
+     */
+    void trim() {
+        if (data.length != length) {
+            data = Arrays.copyOf(data, length);
+        }
+        if (skipDocs.length != skipCount) {
+            skipDocs = Arrays.copyOf(skipDocs, skipCount);
+            skipOffsets = Arrays.copyOf(skipOffsets, skipCount);
+        }
+    }
+
+    /**
+     * Approximate heap footprint of this list, in bytes.
+     */
+    long sizeInBytes() {
+        // object header and fields, plus the three arrays with their own headers
+        return 40 + 16 + data.length + 2 * (16 + 4L * skipDocs.length);
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Forward-only iterator over the postings. Decoding happens in place, nothing is allocated while
+     * iterating.
+     */
+    final class Cursor {
+
+        private int offset;
+        private int index;
+        private int doc = -1;
+        private int freq;
+
+        /**
+         * The current ordinal, {@code -1} before the first call to {@link #nextDoc()} and
+         * {@link #NO_MORE_DOCS} once exhausted.
+         */
+        int doc() {
+            return doc;
+        }
+
+        int freq() {
+            return freq;
+        }
+
+        int nextDoc() {
+            if (index >= size) {
+                doc = NO_MORE_DOCS;
+                return doc;
+            }
+            doc += readVInt();
+            freq = readVInt();
+            index++;
+            return doc;
+        }
+
+        /**
+         * Move to the first posting whose ordinal is greater than or equal to {@code target}.
+         *
+         * @return the new current ordinal, or {@link #NO_MORE_DOCS}.
+         */
+        int advance(int target) {
+            if (doc >= target) {
+                return doc;
+            }
+            // skip whole blocks whose last ordinal is still below the target
+            int block = index / BLOCK_SIZE;
+            if (block < skipCount && skipDocs[block] < target) {
+                while (block + 1 < skipCount && skipDocs[block + 1] < target) {
+                    block++;
+                }
+                doc = skipDocs[block];
+                offset = skipOffsets[block];
+                index = (block + 1) * BLOCK_SIZE;
+            }
+            while (doc < target) {
+                nextDoc();
+            }
+            return doc;
+        }
+
+        private int readVInt() {
+            byte b = data[offset++];
+            int value = b & 0x7F;
+            for (int shift = 7; b < 0; shift += 7) {
+                b = data[offset++];
+                value |= (b & 0x7F) << shift;
+            }
+            return value;
+        }
+    }
+}
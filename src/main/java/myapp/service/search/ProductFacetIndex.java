@@ -0,0 +1,396 @@
+package myapp.service.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import myapp.domain.Product;
+import myapp.domain.enumeration.ProductStatus;
+import myapp.service.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory bitset indexes over the product facets: one {@link BitSet} per {@link ProductStatus}, per
+ * rating value and per category, plus a price column for range filters.
+ * <p>
+ * Products are addressed directly by id: ids come from a sequence and are dense, so a bit per id is both
+ * the smallest and the fastest representation, and updates happen in place without any compaction.
+ * <p>
+ * Product facets are maintained by {@link myapp.service.ProductService}; category membership is owned by
+ * {@link myapp.domain.Category} and is therefore maintained by {@link myapp.service.CategoryService}. The
+ * writes committed while {@link ProductIndexLoader} loads the index are replayed once it is over.
+ */
+@Component
+public class ProductFacetIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductFacetIndex.class);
+
+    static final int MIN_RATING = 0;
+    static final int MAX_RATING = 5;
+
+    private static final BigDecimal MIN_PRICE_BOUND = BigDecimal.valueOf(Long.MIN_VALUE + 1, 2);
+    private static final BigDecimal MAX_PRICE_BOUND = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final DeferredUpdates deferredUpdates = new DeferredUpdates();
+
+    private final BitSet all = new BitSet();
+    private final Map<ProductStatus, BitSet> byStatus = new EnumMap<>(ProductStatus.class);
+    private final BitSet[] byRating = new BitSet[MAX_RATING - MIN_RATING + 1];
+    private final Map<Long, BitSet> byCategory = new HashMap<>();
+    private long[] priceCents = new long[1024];
+
+    public ProductFacetIndex() {
+        for (ProductStatus status : ProductStatus.values()) {
+            byStatus.put(status, new BitSet());
+        }
+        for (int i = 0; i < byRating.length; i++) {
+            byRating[i] = new BitSet();
+        }
+    }
+
+    /**
+     * Index (or re-index) the facets of a product once the current transaction commits.
+     *
+     * @param product the product to index.
+     */
+    public void indexAfterCommit(Product product) {
+        AfterCommit.run(() -> deferredUpdates.runOrDefer(() -> index(product)));
+    }
+
+    /**
+     * Remove a product once the current transaction commits.
+     *
+     * @param productId the id of the product to remove.
+     */
+    public void removeAfterCommit(Long productId) {
+        AfterCommit.run(() -> deferredUpdates.runOrDefer(() -> remove(productId)));
+    }
+
+    /**
+     * Replace the status of products once the current transaction commits, their other facets being left
+     * untouched.
+     *
+     * @param statuses reads the status of the products, by id, once the transaction has committed.
+     */
+    public void setStatusesAfterCommit(Supplier<Map<Long, ProductStatus>> statuses) {
+        AfterCommit.run(() -> deferredUpdates.runOrDefer(() -> setStatuses(statuses.get())));
+    }
+
+    /**
+     * Replace the members of a category once the current transaction commits.
+     *
+     * @param categoryId the id of the category.
+     * @param productIds the ids of all the products of the category.
+     */
+    public void setCategoryProductsAfterCommit(Long categoryId, Collection<Long> productIds) {
+        AfterCommit.run(() -> deferredUpdates.runOrDefer(() -> setCategoryProducts(categoryId, productIds)));
+    }
+
+    /**
+     * Remove a category once the current transaction commits.
+     *
+     * @param categoryId the id of the category.
+     */
+    public void removeCategoryAfterCommit(Long categoryId) {
+        AfterCommit.run(() -> deferredUpdates.runOrDefer(() -> removeCategory(categoryId)));
+    }
+
+    /**
+     * Hold back the committed writes while the index is loaded.
+     */
+    void deferUpdates() {
+        deferredUpdates.defer();
+    }
+
+    /**
+     * Replay the committed writes held back while the index was loaded.
+     *
+     * @return the number of writes replayed.
+     */
+    int replayDeferredUpdates() {
+        return deferredUpdates.replay();
+    }
+
+    /**
+     * Index (or re-index) the facets of a product. Category membership is left untouched.
+     *
+     * @param product the product to index.
+     */
+    public void index(Product product) {
+        int bit = bitOf(product.getId());
+        if (bit < 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            clearFacets(bit);
+            all.set(bit);
+            if (product.getStatus() != null) {
+                byStatus.get(product.getStatus()).set(bit);
+            }
+            Integer rating = product.getRating();
+            if (rating != null && rating >= MIN_RATING && rating <= MAX_RATING) {
+                byRating[rating - MIN_RATING].set(bit);
+            }
+            if (bit >= priceCents.length) {
+                priceCents = Arrays.copyOf(priceCents, Math.max(bit + 1, priceCents.length * 2));
+            }
+            priceCents[bit] = product.getPrice() == null ? Long.MIN_VALUE : toCents(product.getPrice());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the status of indexed products, their other facets being left untouched.
+     *
+     * @param statuses the status of the products, by id.
+     */
+    public void setStatuses(Map<Long, ProductStatus> statuses) {
+        lock.writeLock().lock();
+        try {
+            statuses.forEach((productId, status) -> {
+                int bit = bitOf(productId);
+                if (bit >= 0 && all.get(bit)) {
+                    byStatus.values().forEach(members -> members.clear(bit));
+                    if (status != null) {
+                        byStatus.get(status).set(bit);
+                    }
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a product, including its category memberships.
+     *
+     * @param productId the id of the product to remove.
+     */
+    public void remove(Long productId) {
+        int bit = bitOf(productId);
+        if (bit < 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            clearFacets(bit);
+            all.clear(bit);
+            byCategory.values().forEach(members -> members.clear(bit));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clearFacets(int bit) {
+        byStatus.values().forEach(members -> members.clear(bit));
+        for (BitSet members : byRating) {
+            members.clear(bit);
+        }
+    }
+
+    /**
+     * Add a single product to a category, used when loading the index.
+     */
+    public void addCategoryProduct(Long categoryId, Long productId) {
+        int bit = bitOf(productId);
+        if (bit < 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            byCategory.computeIfAbsent(categoryId, id -> new BitSet()).set(bit);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the members of a category.
+     *
+     * @param categoryId the id of the category.
+     * @param productIds the ids of all the products of the category.
+     */
+    public void setCategoryProducts(Long categoryId, Collection<Long> productIds) {
+        BitSet members = new BitSet();
+        productIds.stream().mapToInt(ProductFacetIndex::bitOf).filter(bit -> bit >= 0).forEach(members::set);
+        lock.writeLock().lock();
+        try {
+            byCategory.put(categoryId, members);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a category.
+     *
+     * @param categoryId the id of the category.
+     */
+    public void removeCategory(Long categoryId) {
+        lock.writeLock().lock();
+        try {
+            byCategory.remove(categoryId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get a window of the ids of the products matching a filter, in ascending id order.
+     *
+     * @param filter the filter to apply.
+     * @param offset the number of matching products to skip.
+     * @param limit the maximum number of ids to return.
+     * @return the matching ids and the total number of matches.
+     */
+    public ProductSearchIndex.Hits filter(ProductFilter filter, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = matching(filter, null);
+            List<Long> ids = new ArrayList<>(Math.min(limit, 1024));
+            int bit = matches.nextSetBit(0);
+            for (long skipped = 0; bit >= 0 && skipped < offset; skipped++) {
+                bit = matches.nextSetBit(bit + 1);
+            }
+            while (bit >= 0 && ids.size() < limit) {
+                ids.add((long) bit);
+                bit = matches.nextSetBit(bit + 1);
+            }
+            return new ProductSearchIndex.Hits(ids, matches.cardinality());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count the products per facet value for a filter.
+     *
+     * @param filter the filter to apply.
+     * @return the facet counts.
+     */
+    public ProductFacets facets(ProductFilter filter) {
+        lock.readLock().lock();
+        try {
+            long total = matching(filter, null).cardinality();
+
+            BitSet withoutStatus = matching(filter, Facet.STATUS);
+            Map<ProductStatus, Long> status = new EnumMap<>(ProductStatus.class);
+            byStatus.forEach((value, members) -> status.put(value, intersectionCount(withoutStatus, members)));
+
+            BitSet withoutRating = matching(filter, Facet.RATING);
+            Map<Integer, Long> rating = new LinkedHashMap<>();
+            for (int i = 0; i < byRating.length; i++) {
+                rating.put(MIN_RATING + i, intersectionCount(withoutRating, byRating[i]));
+            }
+
+            BitSet withoutCategory = matching(filter, Facet.CATEGORY);
+            Map<Long, Long> category = new TreeMap<>();
+            byCategory.forEach((id, members) -> {
+                long count = intersectionCount(withoutCategory, members);
+                if (count > 0) {
+                    category.put(id, count);
+                }
+            });
+            return new ProductFacets(total, status, rating, category);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private enum Facet {
+        STATUS,
+        RATING,
+        CATEGORY,
+    }
+
+    /**
+     * Evaluate the filter, ignoring the criterion of the {@code excluded} facet if any.
+     */
+    private BitSet matching(ProductFilter filter, Facet excluded) {
+        BitSet result = (BitSet) all.clone();
+        if (excluded != Facet.STATUS && filter.statuses() != null && !filter.statuses().isEmpty()) {
+            BitSet union = new BitSet();
+            filter.statuses().forEach(status -> union.or(byStatus.get(status)));
+            result.and(union);
+        }
+        if (excluded != Facet.RATING && filter.ratingMin() != null) {
+            BitSet union = new BitSet();
+            for (int rating = Math.max(MIN_RATING, filter.ratingMin()); rating <= MAX_RATING; rating++) {
+                union.or(byRating[rating - MIN_RATING]);
+            }
+            result.and(union);
+        }
+        if (excluded != Facet.CATEGORY && filter.categoryIds() != null && !filter.categoryIds().isEmpty()) {
+            BitSet union = new BitSet();
+            filter.categoryIds().forEach(id -> {
+                BitSet members = byCategory.get(id);
+                if (members != null) {
+                    union.or(members);
+                }
+            });
+            result.and(union);
+        }
+        // the price column is scanned last, on what the bitsets left over
+        if (filter.priceMin() != null || filter.priceMax() != null) {
+            long min = filter.priceMin() == null ? Long.MIN_VALUE + 1 : boundToCents(filter.priceMin());
+            long max = filter.priceMax() == null ? Long.MAX_VALUE : boundToCents(filter.priceMax());
+            for (int bit = result.nextSetBit(0); bit >= 0; bit = result.nextSetBit(bit + 1)) {
+                long price = priceCents[bit];
+                if (price < min || price > max) {
+                    result.clear(bit);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static long intersectionCount(BitSet a, BitSet b) {
+        BitSet intersection = (BitSet) a.clone();
+        intersection.and(b);
+        return intersection.cardinality();
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * A bound of a price range in cents, a bound out of the range of the price column being clamped to it;
+     * {@code Long.MIN_VALUE} is left to the products without a price, which no range matches.
+     */
+    private static long boundToCents(BigDecimal bound) {
+        if (bound.compareTo(MAX_PRICE_BOUND) >= 0) {
+            return Long.MAX_VALUE;
+        }
+        if (bound.compareTo(MIN_PRICE_BOUND) <= 0) {
+            return Long.MIN_VALUE + 1;
+        }
+        return toCents(bound);
+    }
+
+    private static int bitOf(Long productId) {
+        if (productId == null || productId < 0 || productId > Integer.MAX_VALUE - 1) {
+            if (productId != null) {
+                LOG.warn("Product {} cannot be addressed by the facet index", productId);
+            }
+            return -1;
+        }
+        return productId.intValue();
+    }
+}
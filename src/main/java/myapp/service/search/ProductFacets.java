@@ -0,0 +1,17 @@
+package myapp.service.search;
+
+import java.util.Map;
+import myapp.domain.enumeration.ProductStatus;
+
+/**
+ * Number of products per facet value for a {@link ProductFilter}.
+ * <p>
+ * The counts of a facet are computed with every criterion applied except the facet's own, so that they
+ * tell how many products selecting (or adding) that value would return.
+ *
+ * @param total the number of products matching the whole filter.
+ * @param status the count per product status.
+ * @param rating the count per rating value.
+ * @param category the count per category id, categories without any match are omitted.
+ */
+public record ProductFacets(long total, Map<ProductStatus, Long> status, Map<Integer, Long> rating, Map<Long, Long> category) {}
@@ -0,0 +1,36 @@
+package myapp.service.search;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import myapp.domain.enumeration.ProductStatus;
+
+/**
+ * Facet filter over the product catalog. Every criterion is optional; the criteria that are set are
+ * combined with AND, multiple values of the same criterion with OR.
+ *
+ * @param statuses the accepted {@link ProductStatus} values.
+ * @param priceMin the inclusive lower price bound.
+ * @param priceMax the inclusive upper price bound.
+ * @param ratingMin the inclusive lower rating bound, unrated products never match it.
+ * @param categoryIds the ids of the categories the product must belong to (any of them).
+ */
+public record ProductFilter(
+    Set<ProductStatus> statuses,
+    BigDecimal priceMin,
+    BigDecimal priceMax,
+    Integer ratingMin,
+    Set<Long> categoryIds
+) {
+    /**
+     * Whether at least one criterion is set.
+     */
+    public boolean isActive() {
+        return (
+            (statuses != null && !statuses.isEmpty()) ||
+            priceMin != null ||
+            priceMax != null ||
+            ratingMin != null ||
+            (categoryIds != null && !categoryIds.isEmpty())
+        );
+    }
+}
@@ -0,0 +1,81 @@
+package myapp.service.search;
+
+import java.util.List;
+import myapp.domain.Product;
+import myapp.repository.CategoryRepository;
+import myapp.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the in-memory product indexes from the database once the application is ready, reading the
+ * {@code product} table a single time for all of them.
+ * <p>
+ * The web server already accepts writes while the indexes load: the writes committed in the meantime are held
+ * back and replayed once the load is over, so that a row read before a write never overwrites it.
+ */
+@Component
+public class ProductIndexLoader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductIndexLoader.class);
+
+    private static final int LOAD_BATCH_SIZE = 1_000;
+
+    private final ProductRepository productRepository;
+
+    private final CategoryRepository categoryRepository;
+
+    private final ProductSearchIndex productSearchIndex;
+
+    private final ProductFacetIndex productFacetIndex;
+
+    public ProductIndexLoader(
+        ProductRepository productRepository,
+        CategoryRepository categoryRepository,
+        ProductSearchIndex productSearchIndex,
+        ProductFacetIndex productFacetIndex
+    ) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.productFacetIndex = productFacetIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        productSearchIndex.deferUpdates();
+        productFacetIndex.deferUpdates();
+        try {
+            // keyset pagination on id, so that each batch is an index range scan whatever the table size
+            List<Product> batch = productRepository.findByIdGreaterThanOrderByIdAsc(Long.MIN_VALUE, Limit.of(LOAD_BATCH_SIZE));
+            while (!batch.isEmpty()) {
+                for (Product product : batch) {
+                    productSearchIndex.index(product);
+                    productFacetIndex.index(product);
+                }
+                Long lastId = batch.get(batch.size() - 1).getId();
+                batch = productRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(LOAD_BATCH_SIZE));
+            }
+            productSearchIndex.trim();
+            categoryRepository
+                .findAllProductLinks()
+                .forEach(link -> productFacetIndex.addCategoryProduct(link.getCategoryId(), link.getProductId()));
+            LOG.info(
+                "Product indexes loaded with {} products in {} ms, search index using ~{} KB",
+                productSearchIndex.size(),
+                System.currentTimeMillis() - start,
+                productSearchIndex.memoryUsage() / 1024
+            );
+        } catch (RuntimeException e) {
+            LOG.warn("Could not load the product indexes: {}", e.getMessage());
+        } finally {
+            int replayed = productSearchIndex.replayDeferredUpdates() + productFacetIndex.replayDeferredUpdates();
+            LOG.debug("Replayed {} product index updates committed during the load", replayed);
+        }
+    }
+}
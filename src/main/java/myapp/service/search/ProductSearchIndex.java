@@ -0,0 +1,789 @@
+package myapp.service.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import myapp.domain.Product;
+import myapp.service.AfterCommit;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory inverted index over {@link Product#getTitle()}, {@link Product#getKeywords()} and
+ * {@link Product#getDescription()}, ranked with BM25.
+ * <p>
+ * The index is loaded by {@link ProductIndexLoader} once the application is ready, and kept up to date
+ * by {@link myapp.service.ProductService} after each committed write; the writes committed during the load
+ * are replayed once it is over. Updated or deleted products are tombstoned and their postings are dropped on
+ * the next compaction.
+ * <p>
+ * Products are numbered with dense {@code int} ordinals. Ordinals loaded in id order form a sorted
+ * prefix of {@link #productIds} that is looked up by binary search; only products re-indexed out of
+ * order live in a small side map until the next compaction restores the id order.
+ * <p>
+ * A compaction is run by the write that triggers it, once that write has released the lock: searches
+ * and other writes carry on against the current index while the compacted one is built.
+ */
+@Component
+public class ProductSearchIndex {
+
+    public static final String MEMORY_METER_NAME = "search.index.product.memory";
+    public static final String DOCUMENTS_METER_NAME = "search.index.product.documents";
+    public static final String TERMS_METER_NAME = "search.index.product.terms";
+
+    static final int TITLE_WEIGHT = 3;
+    static final int KEYWORDS_WEIGHT = 2;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /** Deepest result accepted, so that a single query cannot keep an unbounded heap. */
+    public static final int MAX_RESULT_WINDOW = 10_000;
+
+    private static final int MIN_OUT_OF_ORDER_BEFORE_COMPACTION = 1_024;
+
+    /** Postings rewritten per hold of the read lock during a compaction. */
+    private static final int COMPACTION_BATCH_POSTINGS = 65_536;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final DeferredUpdates deferredUpdates = new DeferredUpdates();
+
+    private Map<String, PostingList> postings = new HashMap<>();
+    private long[] productIds = new long[1024];
+    private int[] docLengths = new int[1024];
+    private BitSet deleted = new BitSet();
+    private int deletedCount;
+    private int nextOrdinal;
+    private int sortedLimit;
+    private Map<Long, Integer> outOfOrderOrdinals = new HashMap<>();
+    private int liveDocs;
+    private long totalLength;
+    private Compaction compaction;
+
+    public ProductSearchIndex(MeterRegistry meterRegistry) {
+        Gauge.builder(MEMORY_METER_NAME, this, ProductSearchIndex::memoryUsage)
+            .baseUnit("bytes")
+            .description("Approximate heap used by the product search index.")
+            .register(meterRegistry);
+        Gauge.builder(DOCUMENTS_METER_NAME, this, ProductSearchIndex::size)
+            .description("Number of products in the product search index.")
+            .register(meterRegistry);
+        Gauge.builder(TERMS_METER_NAME, this, ProductSearchIndex::termCount)
+            .description("Number of distinct terms in the product search index.")
+            .register(meterRegistry);
+    }
+
+    /**
+     * A ranked window of matching product ids.
+     *
+     * @param productIds the ids of the matching products, best match first.
+     * @param totalHits the number of products matching the query.
+     */
+    public record Hits(List<Long> productIds, long totalHits) {}
+
+    private enum Occur {
+        SHOULD,
+        MUST,
+        MUST_NOT,
+    }
+
+    /**
+     * Release the spare capacity of the posting lists, once a bulk load is over.
+     */
+    public void trim() {
+        lock.writeLock().lock();
+        try {
+            postings.values().forEach(PostingList::trim);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Index (or re-index) a product once the current transaction commits, or immediately if there is none.
+     *
+     * @param product the product to index.
+     */
+    public void indexAfterCommit(Product product) {
+        AfterCommit.run(() -> deferredUpdates.runOrDefer(() -> index(product)));
+    }
+
+    /**
+     * Remove a product once the current transaction commits, or immediately if there is none.
+     *
+     * @param productId the id of the product to remove.
+     */
+    public void removeAfterCommit(Long productId) {
+        AfterCommit.run(() -> deferredUpdates.runOrDefer(() -> remove(productId)));
+    }
+
+    /**
+     * Hold back the committed writes while the index is loaded.
+     */
+    void deferUpdates() {
+        deferredUpdates.defer();
+    }
+
+    /**
+     * Replay the committed writes held back while the index was loaded.
+     *
+     * @return the number of writes replayed.
+     */
+    int replayDeferredUpdates() {
+        return deferredUpdates.replay();
+    }
+
+    /**
+     * Index (or re-index) a product.
+     *
+     * @param product the product to index.
+     */
+    public void index(Product product) {
+        if (product.getId() == null) {
+            return;
+        }
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = addTerms(frequencies, product.getTitle(), TITLE_WEIGHT);
+        length += addTerms(frequencies, product.getKeywords(), KEYWORDS_WEIGHT);
+        length += addTerms(frequencies, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        Compaction started;
+        lock.writeLock().lock();
+        try {
+            long productId = product.getId();
+            removeLocked(productId);
+            int ordinal = nextOrdinal++;
+            if (ordinal == productIds.length) {
+                productIds = Arrays.copyOf(productIds, ordinal * 2);
+                docLengths = Arrays.copyOf(docLengths, ordinal * 2);
+            }
+            productIds[ordinal] = productId;
+            docLengths[ordinal] = length;
+            if (sortedLimit == ordinal && outOfOrderOrdinals.isEmpty() && (ordinal == 0 || productIds[ordinal - 1] < productId)) {
+                sortedLimit++;
+            } else {
+                outOfOrderOrdinals.put(productId, ordinal);
+            }
+            liveDocs++;
+            totalLength += length;
+            frequencies.forEach((term, freq) -> postings.computeIfAbsent(term, t -> new PostingList()).add(ordinal, freq));
+            if (compaction != null) {
+                compaction.journal.add(new JournaledDocument(ordinal, frequencies));
+            }
+            started = compactionIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (started != null) {
+            compact(started);
+        }
+    }
+
+    private static int addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        List<String> terms = ProductTokenizer.tokenize(text);
+        terms.forEach(term -> frequencies.merge(term, weight, Integer::sum));
+        return terms.size() * weight;
+    }
+
+    /**
+     * Remove a product from the index.
+     *
+     * @param productId the id of the product to remove.
+     */
+    public void remove(Long productId) {
+        Compaction started;
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+            started = compactionIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (started != null) {
+            compact(started);
+        }
+    }
+
+    private void removeLocked(long productId) {
+        int ordinal = ordinalOf(productId);
+        if (ordinal >= 0) {
+            outOfOrderOrdinals.remove(productId);
+            deleted.set(ordinal);
+            deletedCount++;
+            liveDocs--;
+            totalLength -= docLengths[ordinal];
+        }
+    }
+
+    private int ordinalOf(long productId) {
+        Integer ordinal = outOfOrderOrdinals.get(productId);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        int found = Arrays.binarySearch(productIds, 0, sortedLimit, productId);
+        return found >= 0 && !deleted.get(found) ? found : -1;
+    }
+
+    /**
+     * Start a compaction when enough tombstones or out-of-order ordinals have piled up, unless one is
+     * already running. Called with the write lock held.
+     *
+     * @return the compaction to run once the write lock is released, or {@code null}.
+     */
+    private Compaction compactionIfNeeded() {
+        if (
+            compaction != null ||
+            (deletedCount <= liveDocs && outOfOrderOrdinals.size() <= Math.max(MIN_OUT_OF_ORDER_BEFORE_COMPACTION, liveDocs / 16))
+        ) {
+            return null;
+        }
+        int[] tail = outOfOrderOrdinals.values().stream().mapToInt(Integer::intValue).toArray();
+        compaction = new Compaction(nextOrdinal, sortedLimit, productIds, docLengths, (BitSet) deleted.clone(), tail, postings);
+        return compaction;
+    }
+
+    /**
+     * Rewrite the postings without tombstoned documents, re-numbering the live ones in product id order.
+     * <p>
+     * The rewrite works on the ordinals handed out before the compaction started, without holding the
+     * write lock: the posting lists are read a batch at a time under the read lock, which searches share
+     * and which only holds writers back for the duration of a batch. The rewritten index is then swapped
+     * in under the write lock, after replaying the writes made in the meantime.
+     */
+    private void compact(Compaction compaction) {
+        boolean rewritten = false;
+        try {
+            compaction.rewrite(lock);
+            rewritten = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (rewritten) {
+                    swap(compaction);
+                }
+                this.compaction = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Install a rewritten index, then apply the deletes and the writes made while it was rewritten.
+     */
+    private void swap(Compaction compaction) {
+        int[] remap = compaction.remap;
+        int live = compaction.live;
+        BitSet compactedDeleted = new BitSet();
+        int compactedDeletedCount = 0;
+        for (int ordinal = deleted.nextSetBit(0); ordinal >= 0 && ordinal < compaction.limit; ordinal = deleted.nextSetBit(ordinal + 1)) {
+            if (remap[ordinal] >= 0) {
+                compactedDeleted.set(remap[ordinal]);
+                compactedDeletedCount++;
+            }
+        }
+
+        long[] compactedIds = compaction.compactedIds;
+        int[] compactedLengths = compaction.compactedLengths;
+        Map<String, PostingList> compacted = compaction.compacted;
+        Map<Long, Integer> compactedOutOfOrder = new HashMap<>();
+        int compactedSortedLimit = live;
+        int next = live;
+        for (JournaledDocument document : compaction.journal) {
+            if (deleted.get(document.ordinal())) {
+                continue;
+            }
+            int ordinal = next++;
+            if (ordinal == compactedIds.length) {
+                compactedIds = Arrays.copyOf(compactedIds, ordinal * 2);
+                compactedLengths = Arrays.copyOf(compactedLengths, ordinal * 2);
+            }
+            long productId = productIds[document.ordinal()];
+            compactedIds[ordinal] = productId;
+            compactedLengths[ordinal] = docLengths[document.ordinal()];
+            if (
+                compactedSortedLimit == ordinal &&
+                compactedOutOfOrder.isEmpty() &&
+                (ordinal == 0 || compactedIds[ordinal - 1] < productId)
+            ) {
+                compactedSortedLimit++;
+            } else {
+                compactedOutOfOrder.put(productId, ordinal);
+            }
+            document.frequencies().forEach((term, freq) -> compacted.computeIfAbsent(term, t -> new PostingList()).add(ordinal, freq));
+        }
+
+        postings = compacted;
+        productIds = compactedIds;
+        docLengths = compactedLengths;
+        deleted = compactedDeleted;
+        deletedCount = compactedDeletedCount;
+        outOfOrderOrdinals = compactedOutOfOrder;
+        nextOrdinal = next;
+        sortedLimit = compactedSortedLimit;
+    }
+
+    /**
+     * Document indexed while a compaction was running, to be re-numbered once it is swapped in.
+     */
+    private record JournaledDocument(int ordinal, Map<String, Integer> frequencies) {}
+
+    /**
+     * Snapshot of the ordinals to compact, the rewritten index once {@link #rewrite} is done, and the
+     * documents indexed in the meantime.
+     * <p>
+     * Ordinals below {@link #limit} are never re-used, so the product ids and document lengths of the
+     * snapshot stay valid without a copy; the posting lists keep growing past the limit, which the
+     * rewrite ignores.
+     */
+    private static final class Compaction {
+
+        private final int limit;
+        private final int sortedLimit;
+        private final long[] productIds;
+        private final int[] docLengths;
+        private final BitSet deleted;
+        private final int[] tail;
+        private final Map<String, PostingList> postings;
+        private final List<JournaledDocument> journal = new ArrayList<>();
+
+        private int[] remap;
+        private int live;
+        private long[] compactedIds;
+        private int[] compactedLengths;
+        private Map<String, PostingList> compacted;
+
+        private Compaction(
+            int limit,
+            int sortedLimit,
+            long[] productIds,
+            int[] docLengths,
+            BitSet deleted,
+            int[] tail,
+            Map<String, PostingList> postings
+        ) {
+            this.limit = limit;
+            this.sortedLimit = sortedLimit;
+            this.productIds = productIds;
+            this.docLengths = docLengths;
+            this.deleted = deleted;
+            this.tail = tail;
+            this.postings = postings;
+        }
+
+        private void rewrite(ReentrantReadWriteLock lock) {
+            renumber();
+            compacted = new HashMap<>();
+            List<Map.Entry<String, PostingList>> lists;
+            lock.readLock().lock();
+            try {
+                // terms added from now on only hold ordinals past the limit, they are left to the journal
+                lists = new ArrayList<>(postings.entrySet());
+            } finally {
+                lock.readLock().unlock();
+            }
+            int index = 0;
+            while (index < lists.size()) {
+                lock.readLock().lock();
+                try {
+                    for (int budget = COMPACTION_BATCH_POSTINGS; index < lists.size() && budget > 0; index++) {
+                        PostingList list = lists.get(index).getValue();
+                        budget -= list.size() + 1;
+                        PostingList rewritten = rewrite(list);
+                        if (rewritten != null) {
+                            compacted.put(lists.get(index).getKey(), rewritten);
+                        }
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+        }
+
+        /**
+         * Number the live documents of the snapshot in product id order.
+         */
+        private void renumber() {
+            // live ordinals of the sorted prefix are already in id order; merge the (few) out-of-order ones in
+            long[] tailIds = new long[tail.length];
+            for (int i = 0; i < tail.length; i++) {
+                tailIds[i] = productIds[tail[i]];
+            }
+            sortByKey(tail, tailIds);
+
+            remap = new int[limit];
+            Arrays.fill(remap, -1);
+            compactedIds = new long[Math.max(1024, limit - deleted.cardinality())];
+            compactedLengths = new int[compactedIds.length];
+            int prefix = deleted.nextClearBit(0);
+            int next = 0;
+            while (prefix < sortedLimit || next < tail.length) {
+                int ordinal;
+                if (next >= tail.length || (prefix < sortedLimit && productIds[prefix] < tailIds[next])) {
+                    ordinal = prefix;
+                    prefix = deleted.nextClearBit(prefix + 1);
+                } else {
+                    ordinal = tail[next++];
+                }
+                remap[ordinal] = live;
+                compactedIds[live] = productIds[ordinal];
+                compactedLengths[live] = docLengths[ordinal];
+                live++;
+            }
+        }
+
+        /**
+         * Rewrite the postings of the snapshot with the new ordinals, or {@code null} if none is left.
+         */
+        private PostingList rewrite(PostingList list) {
+            long[] pairs = new long[list.size()];
+            int count = 0;
+            PostingList.Cursor cursor = list.cursor();
+            for (int doc = cursor.nextDoc(); doc < limit; doc = cursor.nextDoc()) {
+                if (remap[doc] >= 0) {
+                    pairs[count++] = ((long) remap[doc] << 32) | cursor.freq();
+                }
+            }
+            if (count == 0) {
+                return null;
+            }
+            Arrays.sort(pairs, 0, count);
+            PostingList rewritten = new PostingList();
+            for (int i = 0; i < count; i++) {
+                rewritten.add((int) (pairs[i] >>> 32), (int) pairs[i]);
+            }
+            rewritten.trim();
+            return rewritten;
+        }
+    }
+
+    /**
+     * Sort {@code values} by the matching {@code keys}, in place. Only used on the small out-of-order tail.
+     */
+    private static void sortByKey(int[] values, long[] keys) {
+        for (int i = 1; i < values.length; i++) {
+            int value = values[i];
+            long key = keys[i];
+            int j = i - 1;
+            while (j >= 0 && keys[j] > key) {
+                values[j + 1] = values[j];
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            values[j + 1] = value;
+            keys[j + 1] = key;
+        }
+    }
+
+    /**
+     * Number of products currently in the index.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of distinct terms currently in the index.
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate heap used by the index, in bytes.
+     */
+    public long memoryUsage() {
+        lock.readLock().lock();
+        try {
+            long bytes = 16 + 8L * productIds.length + 16 + 4L * docLengths.length + deleted.size() / 8;
+            // out-of-order entries cost a HashMap node plus a boxed Long and Integer each
+            bytes += 80L * outOfOrderOrdinals.size();
+            for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+                // HashMap node, String with its byte[], then the postings themselves
+                bytes += 48 + 40 + entry.getKey().length() + entry.getValue().sizeInBytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search the index.
+     * <p>
+     * Each whitespace separated clause is optional by default; prefix it with {@code +} to require it
+     * (AND) or with {@code -} to exclude it (NOT). Without any required clause, a product matches when it
+     * contains at least one optional term (OR). Only required and optional terms contribute to the score.
+     *
+     * @param query the free-text query.
+     * @param offset the number of best hits to skip.
+     * @param limit the maximum number of hits to return.
+     * @return the requested window of hits, best match first; empty past {@link #MAX_RESULT_WINDOW} hits.
+     * @throws IllegalArgumentException if the offset or the limit is negative.
+     */
+    public Hits search(String query, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative: " + offset + ", " + limit);
+        }
+        Map<String, Occur> clauses = parse(query);
+        int window = (int) Math.min((long) offset + limit, MAX_RESULT_WINDOW);
+        if (window <= offset || !clauses.containsValue(Occur.MUST) && !clauses.containsValue(Occur.SHOULD)) {
+            return new Hits(Collections.emptyList(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return new Hits(Collections.emptyList(), 0);
+            }
+            double avgLength = Math.max(1.0, (double) totalLength / liveDocs);
+
+            List<PostingList.Cursor> must = new ArrayList<>();
+            List<PostingList.Cursor> should = new ArrayList<>();
+            List<PostingList.Cursor> mustNot = new ArrayList<>();
+            List<Double> mustIdf = new ArrayList<>();
+            List<Double> shouldIdf = new ArrayList<>();
+            for (Map.Entry<String, Occur> clause : clauses.entrySet()) {
+                PostingList list = postings.get(clause.getKey());
+                if (list == null) {
+                    if (clause.getValue() == Occur.MUST) {
+                        return new Hits(Collections.emptyList(), 0);
+                    }
+                    continue;
+                }
+                double idf = Math.log(1 + (liveDocs - list.size() + 0.5) / (list.size() + 0.5));
+                switch (clause.getValue()) {
+                    case MUST -> {
+                        must.add(list.cursor());
+                        mustIdf.add(idf);
+                    }
+                    case SHOULD -> {
+                        should.add(list.cursor());
+                        shouldIdf.add(idf);
+                    }
+                    case MUST_NOT -> mustNot.add(list.cursor());
+                }
+            }
+            if (must.isEmpty() && should.isEmpty()) {
+                return new Hits(Collections.emptyList(), 0);
+            }
+            // intersections are driven by the rarest required term
+            if (must.size() > 1) {
+                sortByCost(must, mustIdf);
+            }
+
+            TopHits top = new TopHits(window);
+            long totalHits = 0;
+            int doc = must.isEmpty() ? nextUnion(should, -1) : nextIntersection(must, -1);
+            while (doc != PostingList.NO_MORE_DOCS) {
+                if (!deleted.get(doc) && !excluded(mustNot, doc)) {
+                    double norm = K1 * (1 - B + B * docLengths[doc] / avgLength);
+                    double score = score(must, mustIdf, doc, norm) + score(should, shouldIdf, doc, norm);
+                    totalHits++;
+                    top.offer(doc, score);
+                }
+                doc = must.isEmpty() ? nextUnion(should, doc) : nextIntersection(must, doc);
+            }
+
+            int[] ranked = top.drainBestFirst();
+            List<Long> ids = new ArrayList<>(Math.max(0, ranked.length - offset));
+            for (int i = offset; i < ranked.length; i++) {
+                ids.add(productIds[ranked[i]]);
+            }
+            return new Hits(ids, totalHits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Map<String, Occur> parse(String query) {
+        Map<String, Occur> clauses = new LinkedHashMap<>();
+        if (query == null) {
+            return clauses;
+        }
+        Set<String> excluded = new HashSet<>();
+        for (String clause : query.trim().split("\\s+")) {
+            if (clause.isEmpty()) {
+                continue;
+            }
+            Occur occur = Occur.SHOULD;
+            if (clause.charAt(0) == '+') {
+                occur = Occur.MUST;
+            } else if (clause.charAt(0) == '-') {
+                occur = Occur.MUST_NOT;
+            }
+            for (String term : ProductTokenizer.tokenize(clause)) {
+                if (occur == Occur.MUST_NOT) {
+                    excluded.add(term);
+                    clauses.put(term, occur);
+                } else if (!excluded.contains(term) && clauses.get(term) != Occur.MUST) {
+                    clauses.put(term, occur);
+                }
+            }
+        }
+        return clauses;
+    }
+
+    private static void sortByCost(List<PostingList.Cursor> cursors, List<Double> idf) {
+        // a higher idf means a shorter posting list
+        for (int i = 1; i < cursors.size(); i++) {
+            for (int j = i; j > 0 && idf.get(j) > idf.get(j - 1); j--) {
+                Collections.swap(cursors, j, j - 1);
+                Collections.swap(idf, j, j - 1);
+            }
+        }
+    }
+
+    /**
+     * Next ordinal after {@code current} contained in all cursors (leapfrog intersection).
+     */
+    private static int nextIntersection(List<PostingList.Cursor> cursors, int current) {
+        PostingList.Cursor lead = cursors.get(0);
+        int candidate = lead.advance(current + 1);
+        int i = 1;
+        while (candidate != PostingList.NO_MORE_DOCS && i < cursors.size()) {
+            int doc = cursors.get(i).advance(candidate);
+            if (doc == candidate) {
+                i++;
+            } else if (doc == PostingList.NO_MORE_DOCS) {
+                return doc;
+            } else {
+                candidate = lead.advance(doc);
+                i = 1;
+            }
+        }
+        return candidate;
+    }
+
+    /**
+     * Smallest ordinal after {@code current} contained in any cursor.
+     */
+    private static int nextUnion(List<PostingList.Cursor> cursors, int current) {
+        int next = PostingList.NO_MORE_DOCS;
+        for (PostingList.Cursor cursor : cursors) {
+            next = Math.min(next, cursor.advance(current + 1));
+        }
+        return next;
+    }
+
+    private static boolean excluded(List<PostingList.Cursor> cursors, int doc) {
+        for (PostingList.Cursor cursor : cursors) {
+            if (cursor.advance(doc) == doc) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double score(List<PostingList.Cursor> cursors, List<Double> idf, int doc, double norm) {
+        double score = 0;
+        for (int i = 0; i < cursors.size(); i++) {
+            PostingList.Cursor cursor = cursors.get(i);
+            if (cursor.advance(doc) == doc) {
+                int tf = cursor.freq();
+                score += idf.get(i) * (tf * (K1 + 1)) / (tf + norm);
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Bounded min-heap of the best scoring ordinals, backed by primitive arrays.
+     */
+    private static final class TopHits {
+
+        private final int[] docs;
+        private final double[] scores;
+        private int size;
+
+        TopHits(int capacity) {
+            docs = new int[capacity];
+            scores = new double[capacity];
+        }
+
+        void offer(int doc, double score) {
+            if (size < docs.length) {
+                docs[size] = doc;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (score > scores[0]) {
+                docs[0] = doc;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        int[] drainBestFirst() {
+            int[] result = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                result[i] = docs[0];
+                size--;
+                docs[0] = docs[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return result;
+        }
+
+        private boolean less(int a, int b) {
+            // lower score first; on ties the later ordinal ranks lower so older products come first
+            return scores[a] < scores[b] || (scores[a] == scores[b] && docs[a] > docs[b]);
+        }
+
+        private void swap(int a, int b) {
+            int doc = docs[a];
+            docs[a] = docs[b];
+            docs[b] = doc;
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!less(index, parent)) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int left = 2 * index + 1;
+                if (left >= size) {
+                    return;
+                }
+                int smallest = left + 1 < size && less(left + 1, left) ? left + 1 : left;
+                if (!less(smallest, index)) {
+                    return;
+                }
+                swap(index, smallest);
+                index = smallest;
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package myapp.service.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits product text into normalized search terms.
+ * <p>
+ * Terms are lower-cased, stripped of diacritics (so that "título" matches "titulo") and split on
+ * any character that is neither a letter nor a digit.
+ */
+public final class ProductTokenizer {
+
+    private ProductTokenizer() {}
+
+    /**
+     * Tokenize the given text.
+     *
+     * @param text the text to tokenize, may be {@code null}.
+     * @return the terms in order of appearance, including duplicates.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                term.append(c);
+            } else if (!term.isEmpty()) {
+                terms.add(term.toString().toLowerCase(Locale.ROOT));
+                term.setLength(0);
+            }
+        }
+        if (!term.isEmpty()) {
+            terms.add(term.toString().toLowerCase(Locale.ROOT));
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * In-memory product search.
+ */
+package myapp.service.search;
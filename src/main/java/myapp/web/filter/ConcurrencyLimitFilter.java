@@ -0,0 +1,127 @@
+package myapp.web.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Bounds the number of requests served at once, the others waiting for their turn in arrival order.
+ * <p>
+ * Requests running on virtual threads are not bounded by the size of a thread pool any more, but most of
+ * them still need a database connection: rather than thousands of requests competing for the connections
+ * and timing out in the connection pool, the requests beyond the limit wait here, holding nothing, and are
+ * answered with 503 Service Unavailable if their turn does not come in time.
+ * <p>
+ * An asynchronous request keeps its permit until it completes, errors or times out, not only for its first
+ * dispatch; the later dispatches of the request are not filtered again.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    public static final String REQUESTS_METER_NAME = "http.server.requests.limited";
+
+    private final Semaphore permits;
+
+    private final long acquireTimeoutMillis;
+
+    private final Counter rejected;
+
+    /**
+     * @param maxConcurrentRequests the maximum number of requests served at once.
+     * @param acquireTimeoutMillis how long a request waits for its turn.
+     * @param registry the registry of the meters counting the waiting and rejected requests.
+     */
+    public ConcurrencyLimitFilter(int maxConcurrentRequests, long acquireTimeoutMillis, MeterRegistry registry) {
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        Gauge.builder(REQUESTS_METER_NAME + ".waiting", permits, Semaphore::getQueueLength)
+            .description("Requests waiting for their turn to be served")
+            .register(registry);
+        Gauge.builder(REQUESTS_METER_NAME + ".active", permits, semaphore -> maxConcurrentRequests - semaphore.availablePermits())
+            .description("Requests being served")
+            .register(registry);
+        this.rejected = Counter.builder(REQUESTS_METER_NAME + ".rejected")
+            .description("Requests answered with 503 as their turn did not come in time")
+            .register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            LOG.debug("Request {} rejected, {} requests waiting", request.getRequestURI(), permits.getQueueLength());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        Runnable release = releaseOnce();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private Runnable releaseOnce() {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+    }
+
+    /**
+     * Releases the permit of an asynchronous request once it is over.
+     */
+    private record ReleasingAsyncListener(Runnable release) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // the request is dispatched again, it keeps its permit
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
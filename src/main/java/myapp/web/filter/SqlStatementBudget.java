@@ -0,0 +1,25 @@
+package myapp.web.filter;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements a request of a REST endpoint may run, whatever the size of the page it returns;
+ * on a controller class, for all its endpoints that do not declare their own.
+ * <p>
+ * The {@link SqlStatementFilter} counts the requests over their budget, and fails them when
+ * {@code application.sql-statements.enforce-budgets} is set, as in the tests: an endpoint loading a lazy
+ * association once per element of a page, an N+1 query, is then caught before it ships.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface SqlStatementBudget {
+    /**
+     * @return the maximum number of SQL statements of a request.
+     */
+    int value();
+}
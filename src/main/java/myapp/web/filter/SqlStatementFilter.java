@@ -0,0 +1,284 @@
+package myapp.web.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import myapp.management.SqlStatementCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Counts the SQL statements each request runs, and times them, with the {@link SqlStatementCounter}.
+ * <p>
+ * The statements of a request are recorded in the {@value #METER_NAME} meters, by endpoint. A request running the
+ * same statement {@code repeatedStatementThreshold} times or more, most likely loading a lazy association once per
+ * element of a list, is logged and counted as an N+1 query, and a request running more statements than the
+ * {@link SqlStatementBudget} of its endpoint is counted, or fails when the budgets are enforced.
+ * <p>
+ * With {@code responseHeaders}, the count and the time are also returned in the {@value #SQL_COUNT_HEADER} and
+ * {@value #SQL_TIME_HEADER} headers, which is meant for development only. As the statements run until the whole body
+ * is written, lazy associations serialized by Jackson included, the flushes of a synchronous request are then held
+ * back for the response to be committed once they are counted; the body is not buffered beyond the buffer of the
+ * container though, and a response outgrowing it, or an asynchronous one streaming its body, goes without them.
+ * <p>
+ * Only the statements run by the threads serving the request are counted, not those of the tasks an asynchronous
+ * endpoint hands its work to.
+ */
+public class SqlStatementFilter extends OncePerRequestFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SqlStatementFilter.class);
+
+    public static final String METER_NAME = "http.server.requests.sql";
+
+    public static final String SQL_COUNT_HEADER = "X-Sql-Count";
+
+    public static final String SQL_TIME_HEADER = "X-Sql-Time";
+
+    private static final String STATEMENTS_ATTRIBUTE = SqlStatementFilter.class.getName() + ".statements";
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final boolean responseHeaders;
+
+    private final boolean enforceBudgets;
+
+    private final int repeatedStatementThreshold;
+
+    private final MeterRegistry registry;
+
+    /**
+     * The statements of a request so far, over its dispatches.
+     */
+    private static final class RequestStatements {
+
+        private long count;
+
+        private long nanos;
+
+        private final Map<String, Integer> recorded = new HashMap<>();
+    }
+
+    /**
+     * @param responseHeaders whether to return the count and the time of the statements in response headers.
+     * @param enforceBudgets whether to fail the requests over their {@link SqlStatementBudget}.
+     * @param repeatedStatementThreshold the number of times a request runs a statement from which it is an N+1 query.
+     * @param registry the registry of the meters of the statements.
+     */
+    public SqlStatementFilter(boolean responseHeaders, boolean enforceBudgets, int repeatedStatementThreshold, MeterRegistry registry) {
+        this.responseHeaders = responseHeaders;
+        this.enforceBudgets = enforceBudgets;
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+        this.registry = registry;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        HttpServletResponse filteredResponse = response;
+        if (responseHeaders && WebUtils.getNativeResponse(response, HeldFlushResponse.class) == null) {
+            filteredResponse = new HeldFlushResponse(request, response);
+        }
+        long count = SqlStatementCounter.count();
+        long nanos = SqlStatementCounter.nanos();
+        SqlStatementCounter.startRecording();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, filteredResponse);
+            completed = true;
+        } finally {
+            Map<String, Integer> recorded = SqlStatementCounter.stopRecording();
+            RequestStatements statements = (RequestStatements) request.getAttribute(STATEMENTS_ATTRIBUTE);
+            if (statements == null) {
+                statements = new RequestStatements();
+                request.setAttribute(STATEMENTS_ATTRIBUTE, statements);
+            }
+            statements.count += SqlStatementCounter.count() - count;
+            statements.nanos += SqlStatementCounter.nanos() - nanos;
+            for (Map.Entry<String, Integer> statement : recorded.entrySet()) {
+                statements.recorded.merge(statement.getKey(), statement.getValue(), Integer::sum);
+            }
+            if (!isAsyncStarted(request)) {
+                served(request, filteredResponse, statements, completed);
+            }
+        }
+    }
+
+    private void served(HttpServletRequest request, HttpServletResponse response, RequestStatements statements, boolean completed) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : UNKNOWN_URI;
+        String endpoint = request.getMethod() + " " + uri;
+        DistributionSummary.builder(METER_NAME + ".statements")
+            .description("SQL statements run by a request")
+            .baseUnit("statements")
+            .tags("method", request.getMethod(), "uri", uri)
+            .register(registry)
+            .record(statements.count);
+        Timer.builder(METER_NAME + ".time")
+            .description("Time a request spent executing SQL statements")
+            .tags("method", request.getMethod(), "uri", uri)
+            .register(registry)
+            .record(statements.nanos, TimeUnit.NANOSECONDS);
+
+        Map.Entry<String, Integer> mostRepeated = statements.recorded.entrySet().stream().max(Map.Entry.comparingByValue()).orElse(null);
+        if (mostRepeated != null && mostRepeated.getValue() >= repeatedStatementThreshold) {
+            Counter.builder(METER_NAME + ".repeated")
+                .description("Requests running the same SQL statement again and again, as N+1 queries do")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(registry)
+                .increment();
+            LOG.warn(
+                "{} ran the same SQL statement {} times, as an N+1 query does: {}",
+                endpoint,
+                mostRepeated.getValue(),
+                mostRepeated.getKey()
+            );
+        }
+
+        String overBudget = null;
+        SqlStatementBudget budget = budget(request);
+        if (budget != null && statements.count > budget.value()) {
+            Counter.builder(METER_NAME + ".over.budget")
+                .description("Requests running more SQL statements than the budget of their endpoint")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(registry)
+                .increment();
+            overBudget = endpoint + " ran " + statements.count + " SQL statements, over its budget of " + budget.value();
+            LOG.warn(overBudget);
+        }
+
+        if (responseHeaders && !response.isCommitted()) {
+            response.setHeader(SQL_COUNT_HEADER, Long.toString(statements.count));
+            response.setHeader(SQL_TIME_HEADER, String.format(Locale.ROOT, "%.3f", statements.nanos / 1e6));
+        }
+        if (overBudget != null && enforceBudgets && completed) {
+            throw new IllegalStateException(overBudget);
+        }
+    }
+
+    private static SqlStatementBudget budget(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+            SqlStatementBudget budget = AnnotatedElementUtils.findMergedAnnotation(handler.getMethod(), SqlStatementBudget.class);
+            return budget != null ? budget : AnnotatedElementUtils.findMergedAnnotation(handler.getBeanType(), SqlStatementBudget.class);
+        }
+        return null;
+    }
+
+    /**
+     * Holds back the flushes of the body of a synchronous request, which would commit the response before its
+     * statements are counted; the flushes of an asynchronous request go through.
+     */
+    private static final class HeldFlushResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+
+        private ServletOutputStream outputStream;
+
+        private PrintWriter writer;
+
+        private HeldFlushResponse(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (request.isAsyncStarted()) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegate.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        if (request.isAsyncStarted()) {
+                            delegate.flush();
+                        }
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        delegate.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                PrintWriter delegate = super.getWriter();
+                writer = new PrintWriter(
+                    new Writer() {
+                        @Override
+                        public void write(char[] cbuf, int off, int len) {
+                            delegate.write(cbuf, off, len);
+                        }
+
+                        @Override
+                        public void flush() {
+                            if (request.isAsyncStarted()) {
+                                delegate.flush();
+                            }
+                        }
+
+                        @Override
+                        public void close() {
+                            delegate.close();
+                        }
+                    }
+                );
+            }
+            return writer;
+        }
+    }
+}
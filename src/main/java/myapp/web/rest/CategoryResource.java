@@ -8,9 +8,15 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import myapp.domain.Category;
+import myapp.domain.Product;
 import myapp.repository.CategoryRepository;
 import myapp.service.CategoryService;
+import myapp.service.catalog.CategoryNode;
+import myapp.service.catalog.CategoryTree;
+import myapp.service.dto.CategoryDTO;
+import myapp.web.filter.SqlStatementBudget;
 import myapp.web.rest.errors.BadRequestAlertException;
+import myapp.web.rest.util.EntityTagUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -70,15 +76,18 @@ public class CategoryResource {
      * {@code PUT  /categories/:id} : Updates an existing category.
      *
      * @param id the id of the category to save.
+     * @param ifMatch the entity tag of the version of the category the update is based on, if any.
      * @param category the category to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated category,
      * or with status {@code 400 (Bad Request)} if the category is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the category was updated since that version,
      * or with status {@code 500 (Internal Server Error)} if the category couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<Category> updateCategory(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody Category category
     ) throws URISyntaxException {
         LOG.debug("REST request to update Category : {}, {}", id, category);
@@ -93,9 +102,11 @@ public class CategoryResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
+        category.setVersion(EntityTagUtil.expectedVersion(ifMatch, category.getVersion(), ENTITY_NAME));
         category = categoryService.update(category);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, category.getId().toString()))
+            .eTag(EntityTagUtil.entityTag(category.getVersion()))
             .body(category);
     }
 
@@ -103,16 +114,19 @@ public class CategoryResource {
      * {@code PATCH  /categories/:id} : Partial updates given fields of an existing category, field will ignore if it is null
      *
      * @param id the id of the category to save.
+     * @param ifMatch the entity tag of the version of the category the update is based on, if any.
      * @param category the category to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated category,
      * or with status {@code 400 (Bad Request)} if the category is not valid,
      * or with status {@code 404 (Not Found)} if the category is not found,
+     * or with status {@code 412 (Precondition Failed)} if the category was updated since that version,
      * or with status {@code 500 (Internal Server Error)} if the category couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Category> partialUpdateCategory(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody Category category
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update Category partially : {}, {}", id, category);
@@ -127,10 +141,12 @@ public class CategoryResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
+        category.setVersion(EntityTagUtil.expectedVersion(ifMatch, category.getVersion(), ENTITY_NAME));
         Optional<Category> result = categoryService.partialUpdate(category);
 
-        return ResponseUtil.wrapOrNotFound(
+        return EntityTagUtil.wrapOrNotFound(
             result,
+            Category::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, category.getId().toString())
         );
     }
@@ -139,36 +155,100 @@ public class CategoryResource {
      * {@code GET  /categories} : get all the categories.
      *
      * @param pageable the pagination information.
-     * @param eagerload flag to eager load entities from relationships (This is applicable for many-to-many).
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of categories in body.
+     * @param eagerload flag to also return the id and title of the products of each category.
+     * @param requestHeaders the headers of the request, for {@code If-None-Match}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of categories in body, with the entity tag of the page
+     * unless {@code eagerload} is set, or with status {@code 304 (Not Modified)} if the client holds the current page.
      */
     @GetMapping("")
-    public ResponseEntity<List<Category>> getAllCategories(
+    @SqlStatementBudget(4)
+    public ResponseEntity<List<CategoryDTO>> getAllCategories(
         @org.springdoc.core.annotations.ParameterObject Pageable pageable,
-        @RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload
+        @RequestParam(name = "eagerload", required = false, defaultValue = "false") boolean eagerload,
+        @RequestHeader HttpHeaders requestHeaders
     ) {
         LOG.debug("REST request to get a page of Categories");
-        Page<Category> page;
         if (eagerload) {
-            page = categoryService.findAllWithEagerRelationships(pageable);
-        } else {
-            page = categoryService.findAll(pageable);
+            // the titles of the products are not covered by the versions of the categories: no entity tag
+            Page<CategoryDTO> page = categoryService.findAllWithProductSummaries(pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
         }
+        Optional<ResponseEntity<List<CategoryDTO>>> notModified = EntityTagUtil.pageNotModified(requestHeaders, () ->
+            categoryService.findAllVersionStamps(pageable)
+        );
+        if (notModified.isPresent()) {
+            return notModified.get();
+        }
+        Page<CategoryDTO> page = categoryService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        return ResponseEntity.ok()
+            .headers(headers)
+            .eTag(EntityTagUtil.pageTag(page, CategoryDTO::getId, CategoryDTO::getVersion))
+            .body(page.getContent());
     }
 
     /**
      * {@code GET  /categories/:id} : get the "id" category.
      *
      * @param id the id of the category to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the category, or with status {@code 404 (Not Found)}.
+     * @param requestHeaders the headers of the request, for {@code If-None-Match} and {@code If-Modified-Since}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the category, its entity tag and last modification date,
+     * or with status {@code 304 (Not Modified)} if the client holds the current version, or with status {@code 404 (Not Found)}. As the
+     * category embeds its products, the entity tag and the last modification date cover them too.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Category> getCategory(@PathVariable("id") Long id) {
+    public ResponseEntity<Category> getCategory(@PathVariable("id") Long id, @RequestHeader HttpHeaders requestHeaders) {
         LOG.debug("REST request to get Category : {}", id);
+        Optional<ResponseEntity<Category>> notModified = EntityTagUtil.notModified(
+            requestHeaders,
+            () -> categoryService.findVersionStamp(id),
+            () -> categoryService.findProductVersionStamps(id)
+        );
+        if (notModified.isPresent()) {
+            return notModified.get();
+        }
         Optional<Category> category = categoryService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(category);
+        return EntityTagUtil.wrapTaggedOrNotFound(
+            category,
+            found -> EntityTagUtil.entityTag(found.getVersion(), found.getProducts(), Product::getId, Product::getVersion),
+            found -> EntityTagUtil.lastModified(found.getDateModified(), found.getProducts(), Product::getDateModified)
+        );
+    }
+
+    /**
+     * {@code GET  /categories/tree} : get the whole category hierarchy.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the root categories, with their sub-categories, in body.
+     */
+    @GetMapping("/tree")
+    public ResponseEntity<List<CategoryTree.Branch>> getCategoryTree() {
+        LOG.debug("REST request to get the Category tree");
+        return ResponseEntity.ok().body(categoryService.findTree());
+    }
+
+    /**
+     * {@code GET  /categories/:id/ancestors} : get the ancestors of the "id" category.
+     *
+     * @param id the id of the category.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the ancestors from the root down to the parent, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{id}/ancestors")
+    public ResponseEntity<List<CategoryNode>> getCategoryAncestors(@PathVariable("id") Long id) {
+        LOG.debug("REST request to get the ancestors of Category : {}", id);
+        return ResponseUtil.wrapOrNotFound(categoryService.findAncestors(id));
+    }
+
+    /**
+     * {@code GET  /categories/:id/descendants} : get all the categories under the "id" category.
+     *
+     * @param id the id of the category.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the descendants in depth-first order, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{id}/descendants")
+    public ResponseEntity<List<CategoryNode>> getCategoryDescendants(@PathVariable("id") Long id) {
+        LOG.debug("REST request to get the descendants of Category : {}", id);
+        return ResponseUtil.wrapOrNotFound(categoryService.findDescendants(id));
     }
 
     /**
@@ -7,10 +7,14 @@ import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import myapp.domain.Customer;
 import myapp.repository.CustomerRepository;
 import myapp.service.CustomerService;
+import myapp.service.dto.CustomerDTO;
+import myapp.web.filter.SqlStatementBudget;
 import myapp.web.rest.errors.BadRequestAlertException;
+import myapp.web.rest.util.KeysetPaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -142,13 +146,54 @@ public class CustomerResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of customers in body.
      */
     @GetMapping("")
-    public ResponseEntity<List<Customer>> getAllCustomers(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+    @SqlStatementBudget(2)
+    public ResponseEntity<List<CustomerDTO>> getAllCustomers(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
         LOG.debug("REST request to get a page of Customers");
-        Page<Customer> page = customerService.findAll(pageable);
+        Page<CustomerDTO> page = customerService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /customers/_scroll} : get a page of customers with keyset pagination.
+     * <p>
+     * The next page, if any, is linked from the {@code Link: rel="next"} header. No total count is computed,
+     * so deep pages cost the same as the first one.
+     *
+     * @param after the opaque cursor of the previous page, omitted for the first page.
+     * @param size the page size.
+     * @param sort the sort key, {@code id}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of customers in body.
+     */
+    @GetMapping("/_scroll")
+    @SqlStatementBudget(1)
+    public ResponseEntity<List<CustomerDTO>> scrollCustomers(
+        @RequestParam(name = "after", required = false) String after,
+        @RequestParam(name = "size", defaultValue = "" + KeysetPaginationUtil.DEFAULT_SIZE) int size,
+        @RequestParam(name = "sort", defaultValue = KeysetPaginationUtil.SORT_BY_ID) String sort
+    ) {
+        LOG.debug("REST request to scroll Customers after : {}", after);
+        int limit = KeysetPaginationUtil.boundedSize(size);
+        KeysetPaginationUtil.Cursor cursor = KeysetPaginationUtil.decodeCursor(after, sort, ENTITY_NAME);
+        List<CustomerDTO> rows;
+        Function<CustomerDTO, KeysetPaginationUtil.Cursor> cursorOf;
+        switch (sort) {
+            case KeysetPaginationUtil.SORT_BY_ID -> {
+                rows = customerService.findAllAfterId(cursor == null ? null : cursor.id(), limit + 1);
+                cursorOf = customer -> new KeysetPaginationUtil.Cursor(sort, null, customer.getId());
+            }
+            default -> throw new BadRequestAlertException("Invalid sort", ENTITY_NAME, "sortinvalid");
+        }
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            rows,
+            limit,
+            sort,
+            cursorOf
+        );
+        return ResponseEntity.ok().headers(headers).body(KeysetPaginationUtil.pageContent(rows, limit));
+    }
+
     /**
      * {@code GET  /customers/:id} : get the "id" customer.
      *
@@ -1,28 +1,43 @@
 package myapp.web.rest;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import myapp.domain.Order;
 import myapp.repository.OrderRepository;
+import myapp.service.CheckoutException;
+import myapp.service.CheckoutService;
 import myapp.service.OrderService;
+import myapp.service.dto.CheckoutDTO;
+import myapp.service.dto.OrderDTO;
+import myapp.web.filter.SqlStatementBudget;
 import myapp.web.rest.errors.BadRequestAlertException;
+import myapp.web.rest.util.EntityTagUtil;
+import myapp.web.rest.util.KeysetPaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link myapp.domain.Order}.
@@ -35,6 +50,10 @@ public class OrderResource {
 
     private static final String ENTITY_NAME = "order";
 
+    private static final String SORT_BY_ORDER_DATE = "orderDate";
+
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -42,9 +61,20 @@ public class OrderResource {
 
     private final OrderRepository orderRepository;
 
-    public OrderResource(OrderService orderService, OrderRepository orderRepository) {
+    private final CheckoutService checkoutService;
+
+    private final ObjectMapper objectMapper;
+
+    public OrderResource(
+        OrderService orderService,
+        OrderRepository orderRepository,
+        CheckoutService checkoutService,
+        ObjectMapper objectMapper
+    ) {
         this.orderService = orderService;
         this.orderRepository = orderRepository;
+        this.checkoutService = checkoutService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -66,19 +96,49 @@ public class OrderResource {
             .body(order);
     }
 
+    /**
+     * {@code POST  /orders/_checkout} : Place an order from a cart.
+     * <p>
+     * Prices, shipping cost and total amount are computed by the server, and the stock of the products
+     * is taken in the same transaction.
+     *
+     * @param checkout the cart.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new order and its lines,
+     * or with status {@code 400 (Bad Request)} if the order cannot be placed.
+     * @throws URISyntaxException if the Location URI syntax is incorrect.
+     */
+    @PostMapping("/_checkout")
+    public ResponseEntity<Order> checkout(@Valid @RequestBody CheckoutDTO checkout) throws URISyntaxException {
+        LOG.debug("REST request to check out : {}", checkout);
+        Order order;
+        try {
+            order = checkoutService.checkout(checkout);
+        } catch (CheckoutException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, e.getErrorKey());
+        }
+        return ResponseEntity.created(new URI("/api/orders/" + order.getId()))
+            .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, order.getId().toString()))
+            .body(order);
+    }
+
     /**
      * {@code PUT  /orders/:id} : Updates an existing order.
      *
      * @param id the id of the order to save.
+     * @param ifMatch the entity tag of the version of the order the update is based on, if any.
      * @param order the order to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated order,
      * or with status {@code 400 (Bad Request)} if the order is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the order was updated since that version,
      * or with status {@code 500 (Internal Server Error)} if the order couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Order> updateOrder(@PathVariable(value = "id", required = false) final Long id, @Valid @RequestBody Order order)
-        throws URISyntaxException {
+    public ResponseEntity<Order> updateOrder(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @Valid @RequestBody Order order
+    ) throws URISyntaxException {
         LOG.debug("REST request to update Order : {}, {}", id, order);
         if (order.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -91,9 +151,11 @@ public class OrderResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
+        order.setVersion(EntityTagUtil.expectedVersion(ifMatch, order.getVersion(), ENTITY_NAME));
         order = orderService.update(order);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, order.getId().toString()))
+            .eTag(EntityTagUtil.entityTag(order.getVersion()))
             .body(order);
     }
 
@@ -101,16 +163,19 @@ public class OrderResource {
      * {@code PATCH  /orders/:id} : Partial updates given fields of an existing order, field will ignore if it is null
      *
      * @param id the id of the order to save.
+     * @param ifMatch the entity tag of the version of the order the update is based on, if any.
      * @param order the order to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated order,
      * or with status {@code 400 (Bad Request)} if the order is not valid,
      * or with status {@code 404 (Not Found)} if the order is not found,
+     * or with status {@code 412 (Precondition Failed)} if the order was updated since that version,
      * or with status {@code 500 (Internal Server Error)} if the order couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Order> partialUpdateOrder(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody Order order
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update Order partially : {}, {}", id, order);
@@ -125,10 +190,12 @@ public class OrderResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
+        order.setVersion(EntityTagUtil.expectedVersion(ifMatch, order.getVersion(), ENTITY_NAME));
         Optional<Order> result = orderService.partialUpdate(order);
 
-        return ResponseUtil.wrapOrNotFound(
+        return EntityTagUtil.wrapOrNotFound(
             result,
+            Order::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, order.getId().toString())
         );
     }
@@ -140,24 +207,106 @@ public class OrderResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of orders in body.
      */
     @GetMapping("")
-    public ResponseEntity<List<Order>> getAllOrders(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+    @SqlStatementBudget(2)
+    public ResponseEntity<List<OrderDTO>> getAllOrders(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
         LOG.debug("REST request to get a page of Orders");
-        Page<Order> page = orderService.findAll(pageable);
+        Page<OrderDTO> page = orderService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /orders/_scroll} : get a page of orders with keyset pagination.
+     * <p>
+     * The next page, if any, is linked from the {@code Link: rel="next"} header. No total count is computed,
+     * so deep pages cost the same as the first one.
+     *
+     * @param after the opaque cursor of the previous page, omitted for the first page.
+     * @param size the page size.
+     * @param sort the sort key, {@code id} or {@code orderDate}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of orders in body.
+     */
+    @GetMapping("/_scroll")
+    @SqlStatementBudget(1)
+    public ResponseEntity<List<OrderDTO>> scrollOrders(
+        @RequestParam(name = "after", required = false) String after,
+        @RequestParam(name = "size", defaultValue = "" + KeysetPaginationUtil.DEFAULT_SIZE) int size,
+        @RequestParam(name = "sort", defaultValue = KeysetPaginationUtil.SORT_BY_ID) String sort
+    ) {
+        LOG.debug("REST request to scroll Orders after : {}", after);
+        int limit = KeysetPaginationUtil.boundedSize(size);
+        KeysetPaginationUtil.Cursor cursor = KeysetPaginationUtil.decodeCursor(after, sort, ENTITY_NAME);
+        List<OrderDTO> rows;
+        Function<OrderDTO, KeysetPaginationUtil.Cursor> cursorOf;
+        switch (sort) {
+            case KeysetPaginationUtil.SORT_BY_ID -> {
+                rows = orderService.findAllAfterId(cursor == null ? null : cursor.id(), limit + 1);
+                cursorOf = order -> new KeysetPaginationUtil.Cursor(sort, null, order.getId());
+            }
+            case SORT_BY_ORDER_DATE -> {
+                rows = orderService.findAllAfterOrderDate(
+                    cursor == null ? null : cursor.value(),
+                    cursor == null ? null : cursor.id(),
+                    limit + 1
+                );
+                cursorOf = order -> new KeysetPaginationUtil.Cursor(sort, order.getOrderDate(), order.getId());
+            }
+            default -> throw new BadRequestAlertException("Invalid sort", ENTITY_NAME, "sortinvalid");
+        }
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            rows,
+            limit,
+            sort,
+            cursorOf
+        );
+        return ResponseEntity.ok().headers(headers).body(KeysetPaginationUtil.pageContent(rows, limit));
+    }
+
+    /**
+     * {@code GET  /orders/_export} : export all the orders as newline-delimited JSON.
+     * <p>
+     * Orders are read through a database cursor and written to the response one line at a time, in id order,
+     * so the export runs in bounded memory whatever the number of orders. The orders are written as their list
+     * {@link OrderDTO}s, with the shipping address and the customer as their identifiers only.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the orders streamed in body.
+     */
+    @GetMapping(value = "/_export", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportOrders() {
+        LOG.debug("REST request to export all Orders");
+        ObjectWriter writer = objectMapper
+            .writerFor(OrderDTO.class)
+            .without(SerializationFeature.INDENT_OUTPUT)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .withRootValueSeparator("");
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = writer.createGenerator(outputStream)) {
+                long count = orderService.exportAll(order -> {
+                    try {
+                        writer.writeValue(generator, order);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                LOG.debug("Exported {} Orders", count);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
+    }
+
     /**
      * {@code GET  /orders/:id} : get the "id" order.
      *
      * @param id the id of the order to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the order, or with status {@code 404 (Not Found)}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the order and its entity tag, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
     public ResponseEntity<Order> getOrder(@PathVariable("id") Long id) {
         LOG.debug("REST request to get Order : {}", id);
         Optional<Order> order = orderService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(order);
+        return EntityTagUtil.wrapOrNotFound(order, Order::getVersion);
     }
 
     /**
@@ -2,27 +2,42 @@ package myapp.web.rest;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import myapp.domain.Product;
+import myapp.domain.enumeration.ProductStatus;
 import myapp.repository.ProductRepository;
+import myapp.service.ProductImportService;
 import myapp.service.ProductService;
+import myapp.service.catalog.CategoryTreeCache;
+import myapp.service.dto.ProductDTO;
+import myapp.service.dto.ProductImportReportDTO;
+import myapp.service.search.ProductFacets;
+import myapp.service.search.ProductFilter;
+import myapp.web.filter.SqlStatementBudget;
 import myapp.web.rest.errors.BadRequestAlertException;
+import myapp.web.rest.util.EntityTagUtil;
+import myapp.web.rest.util.KeysetPaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link myapp.domain.Product}.
@@ -35,6 +50,12 @@ public class ProductResource {
 
     private static final String ENTITY_NAME = "product";
 
+    private static final String SORT_BY_DATE_ADDED = "dateAdded";
+
+    private static final String CSV_VALUE = "text/csv";
+
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -42,9 +63,20 @@ public class ProductResource {
 
     private final ProductRepository productRepository;
 
-    public ProductResource(ProductService productService, ProductRepository productRepository) {
+    private final ProductImportService productImportService;
+
+    private final CategoryTreeCache categoryTreeCache;
+
+    public ProductResource(
+        ProductService productService,
+        ProductRepository productRepository,
+        ProductImportService productImportService,
+        CategoryTreeCache categoryTreeCache
+    ) {
         this.productService = productService;
         this.productRepository = productRepository;
+        this.productImportService = productImportService;
+        this.categoryTreeCache = categoryTreeCache;
     }
 
     /**
@@ -66,19 +98,47 @@ public class ProductResource {
             .body(product);
     }
 
+    /**
+     * {@code POST  /products/_bulk} : Import a feed of new products, as CSV with a header row or as
+     * newline-delimited JSON.
+     * <p>
+     * Invalid rows are reported and skipped, they do not prevent the other rows from being imported.
+     *
+     * @param contentType the media type of the feed.
+     * @param separator the column separator of a CSV feed.
+     * @param feed the feed.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the import report.
+     * @throws IOException if the feed cannot be read.
+     */
+    @PostMapping(value = "/_bulk", consumes = { CSV_VALUE, NDJSON_VALUE })
+    public ResponseEntity<ProductImportReportDTO> importProducts(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        @RequestParam(name = "separator", defaultValue = ",") char separator,
+        InputStream feed
+    ) throws IOException {
+        LOG.debug("REST request to import Products as {}", contentType);
+        ProductImportService.Format format = MediaType.parseMediaType(CSV_VALUE).isCompatibleWith(contentType)
+            ? ProductImportService.Format.CSV
+            : ProductImportService.Format.NDJSON;
+        return ResponseEntity.ok(productImportService.importProducts(feed, format, separator));
+    }
+
     /**
      * {@code PUT  /products/:id} : Updates an existing product.
      *
      * @param id the id of the product to save.
+     * @param ifMatch the entity tag of the version of the product the update is based on, if any.
      * @param product the product to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated product,
      * or with status {@code 400 (Bad Request)} if the product is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the product was updated since that version,
      * or with status {@code 500 (Internal Server Error)} if the product couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<Product> updateProduct(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody Product product
     ) throws URISyntaxException {
         LOG.debug("REST request to update Product : {}, {}", id, product);
@@ -93,9 +153,11 @@ public class ProductResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
+        product.setVersion(EntityTagUtil.expectedVersion(ifMatch, product.getVersion(), ENTITY_NAME));
         product = productService.update(product);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, product.getId().toString()))
+            .eTag(EntityTagUtil.entityTag(product.getVersion()))
             .body(product);
     }
 
@@ -103,16 +165,19 @@ public class ProductResource {
      * {@code PATCH  /products/:id} : Partial updates given fields of an existing product, field will ignore if it is null
      *
      * @param id the id of the product to save.
+     * @param ifMatch the entity tag of the version of the product the update is based on, if any.
      * @param product the product to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated product,
      * or with status {@code 400 (Bad Request)} if the product is not valid,
      * or with status {@code 404 (Not Found)} if the product is not found,
+     * or with status {@code 412 (Precondition Failed)} if the product was updated since that version,
      * or with status {@code 500 (Internal Server Error)} if the product couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Product> partialUpdateProduct(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody Product product
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update Product partially : {}, {}", id, product);
@@ -127,39 +192,186 @@ public class ProductResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
+        product.setVersion(EntityTagUtil.expectedVersion(ifMatch, product.getVersion(), ENTITY_NAME));
         Optional<Product> result = productService.partialUpdate(product);
 
-        return ResponseUtil.wrapOrNotFound(
+        return EntityTagUtil.wrapOrNotFound(
             result,
+            Product::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, product.getId().toString())
         );
     }
 
     /**
-     * {@code GET  /products} : get all the products.
+     * {@code GET  /products} : get all the products, optionally filtered by facets.
+     * <p>
+     * When a facet filter is given, the products are served from the in-memory facet indexes in ascending
+     * id order and the sort of {@code pageable} is ignored.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body.
+     * @param status the accepted product statuses.
+     * @param priceMin the inclusive lower price bound.
+     * @param priceMax the inclusive upper price bound.
+     * @param ratingMin the inclusive lower rating bound.
+     * @param categoryId the ids of the categories the products must belong to.
+     * @param includeSubcategories whether products of the sub-categories of {@code categoryId} match too.
+     * @param requestHeaders the headers of the request, for {@code If-None-Match}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body, with the entity tag of the page,
+     * or with status {@code 304 (Not Modified)} if the client holds the current page.
      */
     @GetMapping("")
-    public ResponseEntity<List<Product>> getAllProducts(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+    @SqlStatementBudget(4)
+    public ResponseEntity<List<ProductDTO>> getAllProducts(
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = "status", required = false) Set<ProductStatus> status,
+        @RequestParam(name = "priceMin", required = false) BigDecimal priceMin,
+        @RequestParam(name = "priceMax", required = false) BigDecimal priceMax,
+        @RequestParam(name = "ratingMin", required = false) Integer ratingMin,
+        @RequestParam(name = "categoryId", required = false) Set<Long> categoryId,
+        @RequestParam(name = "includeSubcategories", defaultValue = "false") boolean includeSubcategories,
+        @RequestHeader HttpHeaders requestHeaders
+    ) {
         LOG.debug("REST request to get a page of Products");
-        Page<Product> page = productService.findAll(pageable);
+        ProductFilter filter = new ProductFilter(status, priceMin, priceMax, ratingMin, categoryIds(categoryId, includeSubcategories));
+        Page<ProductDTO> page;
+        if (filter.isActive()) {
+            // the matching products come from the facet indexes, the page can only be tagged once loaded
+            page = productService.findAll(filter, pageable);
+        } else {
+            Optional<ResponseEntity<List<ProductDTO>>> notModified = EntityTagUtil.pageNotModified(requestHeaders, () ->
+                productService.findAllVersionStamps(pageable)
+            );
+            if (notModified.isPresent()) {
+                return notModified.get();
+            }
+            page = productService.findAll(pageable);
+        }
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok()
+            .headers(headers)
+            .eTag(EntityTagUtil.pageTag(page, ProductDTO::getId, ProductDTO::getVersion))
+            .body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /products/_facets} : count the products per facet value.
+     * <p>
+     * Accepts the same filter parameters as {@code GET /products}.
+     *
+     * @param status the accepted product statuses.
+     * @param priceMin the inclusive lower price bound.
+     * @param priceMax the inclusive upper price bound.
+     * @param ratingMin the inclusive lower rating bound.
+     * @param categoryId the ids of the categories the products must belong to.
+     * @param includeSubcategories whether products of the sub-categories of {@code categoryId} match too.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the facet counts in body.
+     */
+    @GetMapping("/_facets")
+    public ResponseEntity<ProductFacets> getProductFacets(
+        @RequestParam(name = "status", required = false) Set<ProductStatus> status,
+        @RequestParam(name = "priceMin", required = false) BigDecimal priceMin,
+        @RequestParam(name = "priceMax", required = false) BigDecimal priceMax,
+        @RequestParam(name = "ratingMin", required = false) Integer ratingMin,
+        @RequestParam(name = "categoryId", required = false) Set<Long> categoryId,
+        @RequestParam(name = "includeSubcategories", defaultValue = "false") boolean includeSubcategories
+    ) {
+        LOG.debug("REST request to count Product facets");
+        ProductFilter filter = new ProductFilter(status, priceMin, priceMax, ratingMin, categoryIds(categoryId, includeSubcategories));
+        return ResponseEntity.ok().body(productService.countFacets(filter));
+    }
+
+    private Set<Long> categoryIds(Set<Long> categoryId, boolean includeSubcategories) {
+        if (!includeSubcategories || categoryId == null || categoryId.isEmpty()) {
+            return categoryId;
+        }
+        return categoryTreeCache.current().withDescendants(categoryId);
+    }
+
+    /**
+     * {@code GET  /products/_search?q=:query} : search the products by title, keywords and description.
+     *
+     * @param query the free-text query.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of matching products in body, best match first.
+     */
+    @GetMapping("/_search")
+    public ResponseEntity<List<ProductDTO>> searchProducts(
+        @RequestParam("q") String query,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to search for a page of Products for query {}", query);
+        Page<ProductDTO> page = productService.search(query, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /products/_scroll} : get a page of products with keyset pagination.
+     * <p>
+     * The next page, if any, is linked from the {@code Link: rel="next"} header. No total count is computed,
+     * so deep pages cost the same as the first one.
+     *
+     * @param after the opaque cursor of the previous page, omitted for the first page.
+     * @param size the page size.
+     * @param sort the sort key, {@code id} or {@code dateAdded}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body.
+     */
+    @GetMapping("/_scroll")
+    @SqlStatementBudget(1)
+    public ResponseEntity<List<ProductDTO>> scrollProducts(
+        @RequestParam(name = "after", required = false) String after,
+        @RequestParam(name = "size", defaultValue = "" + KeysetPaginationUtil.DEFAULT_SIZE) int size,
+        @RequestParam(name = "sort", defaultValue = KeysetPaginationUtil.SORT_BY_ID) String sort
+    ) {
+        LOG.debug("REST request to scroll Products after : {}", after);
+        int limit = KeysetPaginationUtil.boundedSize(size);
+        KeysetPaginationUtil.Cursor cursor = KeysetPaginationUtil.decodeCursor(after, sort, ENTITY_NAME);
+        List<ProductDTO> rows;
+        Function<ProductDTO, KeysetPaginationUtil.Cursor> cursorOf;
+        switch (sort) {
+            case KeysetPaginationUtil.SORT_BY_ID -> {
+                rows = productService.findAllAfterId(cursor == null ? null : cursor.id(), limit + 1);
+                cursorOf = product -> new KeysetPaginationUtil.Cursor(sort, null, product.getId());
+            }
+            case SORT_BY_DATE_ADDED -> {
+                rows = productService.findAllAfterDateAdded(
+                    cursor == null ? null : cursor.value(),
+                    cursor == null ? null : cursor.id(),
+                    limit + 1
+                );
+                cursorOf = product -> new KeysetPaginationUtil.Cursor(sort, product.getDateAdded(), product.getId());
+            }
+            default -> throw new BadRequestAlertException("Invalid sort", ENTITY_NAME, "sortinvalid");
+        }
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            rows,
+            limit,
+            sort,
+            cursorOf
+        );
+        return ResponseEntity.ok().headers(headers).body(KeysetPaginationUtil.pageContent(rows, limit));
+    }
+
     /**
      * {@code GET  /products/:id} : get the "id" product.
      *
      * @param id the id of the product to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the product, or with status {@code 404 (Not Found)}.
+     * @param requestHeaders the headers of the request, for {@code If-None-Match} and {@code If-Modified-Since}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the product, its entity tag and last modification date,
+     * or with status {@code 304 (Not Modified)} if the client holds the current version, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProduct(@PathVariable("id") Long id) {
+    public ResponseEntity<Product> getProduct(@PathVariable("id") Long id, @RequestHeader HttpHeaders requestHeaders) {
         LOG.debug("REST request to get Product : {}", id);
+        Optional<ResponseEntity<Product>> notModified = EntityTagUtil.notModified(requestHeaders, () ->
+            productService.findVersionStamp(id)
+        );
+        if (notModified.isPresent()) {
+            return notModified.get();
+        }
         Optional<Product> product = productService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(product);
+        return EntityTagUtil.wrapOrNotFound(product, Product::getVersion, Product::getDateModified);
     }
 
     /**
@@ -0,0 +1,89 @@
+package myapp.web.rest;
+
+import jakarta.validation.Valid;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.UUID;
+import myapp.service.CheckoutException;
+import myapp.service.InventoryReservationService;
+import myapp.service.dto.ReservationDTO;
+import myapp.service.inventory.StockReservation;
+import myapp.web.rest.errors.BadRequestAlertException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.ResponseUtil;
+
+/**
+ * REST controller for reserving stock for a cart until it is checked out.
+ */
+@RestController
+@RequestMapping("/api/reservations")
+public class ReservationResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReservationResource.class);
+
+    private static final String ENTITY_NAME = "reservation";
+
+    @Value("${jhipster.clientApp.name}")
+    private String applicationName;
+
+    private final InventoryReservationService inventoryReservationService;
+
+    public ReservationResource(InventoryReservationService inventoryReservationService) {
+        this.inventoryReservationService = inventoryReservationService;
+    }
+
+    /**
+     * {@code POST  /reservations} : Reserve products for a cart.
+     *
+     * @param reservation the products and their quantities.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the reservation, with its expiry,
+     * or with status {@code 400 (Bad Request)} if a product is short of stock.
+     * @throws URISyntaxException if the Location URI syntax is incorrect.
+     */
+    @PostMapping("")
+    public ResponseEntity<StockReservation> createReservation(@Valid @RequestBody ReservationDTO reservation) throws URISyntaxException {
+        LOG.debug("REST request to save Reservation : {}", reservation);
+        StockReservation result;
+        try {
+            result = inventoryReservationService.reserve(reservation.getItems());
+        } catch (CheckoutException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, e.getErrorKey());
+        }
+        return ResponseEntity.created(new URI("/api/reservations/" + result.id()))
+            .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.id().toString()))
+            .body(result);
+    }
+
+    /**
+     * {@code GET  /reservations/:id} : get a pending reservation.
+     *
+     * @param id the id of the reservation.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the reservation, or with status {@code 404 (Not Found)}
+     * if it was checked out, released or expired.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<StockReservation> getReservation(@PathVariable("id") UUID id) {
+        LOG.debug("REST request to get Reservation : {}", id);
+        return ResponseUtil.wrapOrNotFound(inventoryReservationService.findOne(id));
+    }
+
+    /**
+     * {@code DELETE  /reservations/:id} : release a reservation.
+     *
+     * @param id the id of the reservation.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteReservation(@PathVariable("id") UUID id) {
+        LOG.debug("REST request to delete Reservation : {}", id);
+        inventoryReservationService.release(id);
+        return ResponseEntity.noContent()
+            .headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString()))
+            .build();
+    }
+}
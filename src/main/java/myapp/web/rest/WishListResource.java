@@ -9,6 +9,9 @@ import java.util.Objects;
 import java.util.Optional;
 import myapp.domain.WishList;
 import myapp.repository.WishListRepository;
+import myapp.service.dto.WishListDTO;
+import myapp.service.mapper.WishListMapper;
+import myapp.web.filter.SqlStatementBudget;
 import myapp.web.rest.errors.BadRequestAlertException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,8 +39,11 @@ public class WishListResource {
 
     private final WishListRepository wishListRepository;
 
-    public WishListResource(WishListRepository wishListRepository) {
+    private final WishListMapper wishListMapper;
+
+    public WishListResource(WishListRepository wishListRepository, WishListMapper wishListMapper) {
         this.wishListRepository = wishListRepository;
+        this.wishListMapper = wishListMapper;
     }
 
     /**
@@ -146,9 +152,10 @@ public class WishListResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of wishLists in body.
      */
     @GetMapping("")
-    public List<WishList> getAllWishLists() {
+    @SqlStatementBudget(1)
+    public List<WishListDTO> getAllWishLists() {
         LOG.debug("REST request to get all WishLists");
-        return wishListRepository.findAll();
+        return wishListRepository.findAllRows().stream().map(wishListMapper::toDto).toList();
     }
 
     /**
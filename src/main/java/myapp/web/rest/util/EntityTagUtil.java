@@ -0,0 +1,340 @@
+package myapp.web.rest.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import myapp.repository.VersionStamp;
+import myapp.web.rest.errors.BadRequestAlertException;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Utility class for the entity tags of versioned entities.
+ * <p>
+ * The entity tag of an entity is its version, as a strong tag. Clients send it back in an
+ * {@code If-Match} header to update the entity only if nobody updated it since they read it, or in an
+ * {@code If-None-Match} header to read it again only if it changed since. An entity whose representation embeds
+ * other versioned entities is tagged with its version followed by a digest of their ids and versions, and the
+ * entity tag of a page of entities is a digest of the ids and versions of its entities.
+ */
+public final class EntityTagUtil {
+
+    private static final String ANY = "*";
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private static final char EMBEDDED_SEPARATOR = '-';
+
+    private EntityTagUtil() {}
+
+    /**
+     * @param version the version of an entity.
+     * @return its entity tag.
+     */
+    public static String entityTag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * @param version the version of an entity.
+     * @param embedded the versioned entities embedded in the representation of the entity.
+     * @param id the id of an embedded entity.
+     * @param embeddedVersion the version of an embedded entity.
+     * @param <E> the type of the embedded entities.
+     * @return the entity tag of the entity with the entities it embeds, which changes whenever the entity or one of
+     * them is updated, or an entity is embedded or removed; it can be sent back in an {@code If-Match} header all
+     * the same.
+     */
+    public static <E> String entityTag(Long version, Collection<E> embedded, Function<E, Long> id, Function<E, Long> embeddedVersion) {
+        StringBuilder state = new StringBuilder();
+        embedded
+            .stream()
+            .sorted(Comparator.comparing(id))
+            .forEach(entity -> state.append(';').append(id.apply(entity)).append(':').append(embeddedVersion.apply(entity)));
+        return "\"" + version + EMBEDDED_SEPARATOR + DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * @param dateModified the last modification date of an entity, if any.
+     * @param embedded the versioned entities embedded in the representation of the entity.
+     * @param embeddedDateModified the last modification date of an embedded entity, if any.
+     * @param <E> the type of the embedded entities.
+     * @return the last modification date of the entity with the entities it embeds, if any.
+     */
+    public static <E> Instant lastModified(Instant dateModified, Collection<E> embedded, Function<E, Instant> embeddedDateModified) {
+        Instant lastModified = dateModified;
+        for (E entity : embedded) {
+            Instant modified = embeddedDateModified.apply(entity);
+            if (modified != null && (lastModified == null || modified.isAfter(lastModified))) {
+                lastModified = modified;
+            }
+        }
+        return lastModified;
+    }
+
+    /**
+     * @param page a page of versioned entities.
+     * @param id the id of an entity of the page.
+     * @param version the version of an entity of the page.
+     * @param <X> the type of the entities.
+     * @return the entity tag of the page, which changes whenever an entity of the page is updated, enters or
+     * leaves the page, or the total number of entities changes.
+     */
+    public static <X> String pageTag(Page<X> page, Function<X, Long> id, Function<X, Long> version) {
+        StringBuilder state = new StringBuilder().append(page.getTotalElements());
+        for (X entity : page) {
+            state.append(';').append(id.apply(entity)).append(':').append(version.apply(entity));
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Answer a conditional read of an entity from its version stamp, before loading the entity.
+     * <p>
+     * {@code If-None-Match} is checked against the entity tag of the current version and, as it takes precedence,
+     * {@code If-Modified-Since} against the modification date only when there is no {@code If-None-Match}.
+     *
+     * @param requestHeaders the headers of the request.
+     * @param stamp the version stamp of the entity, only looked up for conditional requests.
+     * @param <X> the type of the entity.
+     * @return a {@link HttpStatus#NOT_MODIFIED} response if the client holds the current version of the entity,
+     * nothing if it must be read.
+     */
+    public static <X> Optional<ResponseEntity<X>> notModified(HttpHeaders requestHeaders, Supplier<Optional<VersionStamp>> stamp) {
+        return notModified(requestHeaders, stamp, current -> entityTag(current.getVersion()), VersionStamp::getDateModified);
+    }
+
+    /**
+     * Answer a conditional read of an entity embedding other versioned entities from the version stamps of the
+     * entity and of the embedded entities, before loading them; the embedded entities are only looked up once the
+     * entity is found.
+     *
+     * @param requestHeaders the headers of the request.
+     * @param stamp the version stamp of the entity, only looked up for conditional requests.
+     * @param embeddedStamps the version stamps of the entities embedded in the entity.
+     * @param <X> the type of the entity.
+     * @return a {@link HttpStatus#NOT_MODIFIED} response if the client holds the current version of the entity and
+     * of the entities it embeds, nothing if it must be read.
+     * @see #entityTag(Long, Collection, Function, Function)
+     */
+    public static <X> Optional<ResponseEntity<X>> notModified(
+        HttpHeaders requestHeaders,
+        Supplier<Optional<VersionStamp>> stamp,
+        Supplier<List<VersionStamp>> embeddedStamps
+    ) {
+        return notModified(
+            requestHeaders,
+            () -> stamp.get().map(current -> new StampWithEmbedded(current, embeddedStamps.get())),
+            current -> entityTag(current.stamp().getVersion(), current.embedded(), VersionStamp::getId, VersionStamp::getVersion),
+            current -> lastModified(current.stamp().getDateModified(), current.embedded(), VersionStamp::getDateModified)
+        );
+    }
+
+    private static <X, S> Optional<ResponseEntity<X>> notModified(
+        HttpHeaders requestHeaders,
+        Supplier<Optional<S>> state,
+        Function<S, String> entityTag,
+        Function<S, Instant> lastModified
+    ) {
+        List<String> ifNoneMatch = ifNoneMatch(requestHeaders);
+        long ifModifiedSince = ifNoneMatch.isEmpty() ? ifModifiedSince(requestHeaders) : -1;
+        if (ifNoneMatch.isEmpty() && ifModifiedSince < 0) {
+            return Optional.empty();
+        }
+        return state
+            .get()
+            .filter(current ->
+                ifNoneMatch.isEmpty()
+                    ? isUnmodifiedSince(lastModified.apply(current), ifModifiedSince)
+                    : matches(ifNoneMatch, entityTag.apply(current))
+            )
+            .map(current -> {
+                ResponseEntity.HeadersBuilder<?> response = ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag.apply(current));
+                Instant modified = lastModified.apply(current);
+                if (modified != null) {
+                    response.lastModified(modified);
+                }
+                return response.build();
+            });
+    }
+
+    /**
+     * Answer a conditional read of a page of entities from the version stamps of the page, before loading its
+     * entities.
+     *
+     * @param requestHeaders the headers of the request.
+     * @param stamps the version stamps of the page, only looked up for conditional requests.
+     * @param <X> the type of the page.
+     * @return a {@link HttpStatus#NOT_MODIFIED} response if the client holds the current page, nothing if it must
+     * be read.
+     */
+    public static <X> Optional<ResponseEntity<X>> pageNotModified(HttpHeaders requestHeaders, Supplier<Page<VersionStamp>> stamps) {
+        List<String> ifNoneMatch = ifNoneMatch(requestHeaders);
+        if (ifNoneMatch.isEmpty()) {
+            return Optional.empty();
+        }
+        String tag = pageTag(stamps.get(), VersionStamp::getId, VersionStamp::getVersion);
+        if (!matches(ifNoneMatch, tag)) {
+            return Optional.empty();
+        }
+        return Optional.of(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).build());
+    }
+
+    /**
+     * Resolve the version an update is based on.
+     *
+     * @param ifMatch the {@code If-Match} header, if any.
+     * @param version the version given in the body, if any.
+     * @param entityName the name of the entity, for errors.
+     * @return the version the update must be based on, {@code null} to update whatever the current version.
+     * @throws BadRequestAlertException if the header is not a single strong entity tag, or does not match the
+     * version in the body.
+     */
+    public static Long expectedVersion(String ifMatch, Long version, String entityName) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return version;
+        }
+        String tag = ifMatch.trim();
+        Long expected = null;
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            String opaqueTag = tag.substring(1, tag.length() - 1);
+            int embedded = opaqueTag.indexOf(EMBEDDED_SEPARATOR);
+            try {
+                // the digest of the embedded entities is not checked, the update is about the entity alone
+                expected = Long.valueOf(embedded < 0 ? opaqueTag : opaqueTag.substring(0, embedded));
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+        }
+        if (expected == null) {
+            throw new BadRequestAlertException("If-Match must be a single entity tag", entityName, "ifmatchinvalid");
+        }
+        if (version != null && !version.equals(expected)) {
+            throw new BadRequestAlertException("If-Match does not match the version", entityName, "versionmismatch");
+        }
+        return expected;
+    }
+
+    /**
+     * Wrap the optional into a {@link ResponseEntity} with an {@link HttpStatus#OK} status and the entity tag of
+     * the entity, or a {@link HttpStatus#NOT_FOUND} status.
+     *
+     * @param maybeResponse the response to return if present.
+     * @param version the version of the response.
+     * @param <X> the type of the response.
+     * @return the response.
+     */
+    public static <X> ResponseEntity<X> wrapOrNotFound(Optional<X> maybeResponse, Function<X, Long> version) {
+        return wrapOrNotFound(maybeResponse, version, (HttpHeaders) null);
+    }
+
+    /**
+     * Wrap the optional into a {@link ResponseEntity} with an {@link HttpStatus#OK} status, the entity tag and the
+     * last modification date of the entity, or a {@link HttpStatus#NOT_FOUND} status.
+     *
+     * @param maybeResponse the response to return if present.
+     * @param version the version of the response.
+     * @param lastModified the last modification date of the response, if any.
+     * @param <X> the type of the response.
+     * @return the response.
+     */
+    public static <X> ResponseEntity<X> wrapOrNotFound(
+        Optional<X> maybeResponse,
+        Function<X, Long> version,
+        Function<X, Instant> lastModified
+    ) {
+        return wrapTaggedOrNotFound(maybeResponse, response -> entityTag(version.apply(response)), lastModified);
+    }
+
+    /**
+     * Wrap the optional into a {@link ResponseEntity} with an {@link HttpStatus#OK} status, the given entity tag and
+     * last modification date, or a {@link HttpStatus#NOT_FOUND} status.
+     *
+     * @param maybeResponse the response to return if present.
+     * @param entityTag the entity tag of the response.
+     * @param lastModified the last modification date of the response, if any.
+     * @param <X> the type of the response.
+     * @return the response.
+     */
+    public static <X> ResponseEntity<X> wrapTaggedOrNotFound(
+        Optional<X> maybeResponse,
+        Function<X, String> entityTag,
+        Function<X, Instant> lastModified
+    ) {
+        return maybeResponse
+            .map(response -> {
+                ResponseEntity.BodyBuilder builder = ResponseEntity.ok().eTag(entityTag.apply(response));
+                Instant modified = lastModified.apply(response);
+                if (modified != null) {
+                    builder.lastModified(modified);
+                }
+                return builder.body(response);
+            })
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Wrap the optional into a {@link ResponseEntity} with an {@link HttpStatus#OK} status, the given headers and
+     * the entity tag of the entity, or a {@link HttpStatus#NOT_FOUND} status.
+     *
+     * @param maybeResponse the response to return if present.
+     * @param version the version of the response.
+     * @param headers the headers of the response, if present.
+     * @param <X> the type of the response.
+     * @return the response.
+     */
+    public static <X> ResponseEntity<X> wrapOrNotFound(Optional<X> maybeResponse, Function<X, Long> version, HttpHeaders headers) {
+        return maybeResponse
+            .map(response -> ResponseEntity.ok().headers(headers).eTag(entityTag(version.apply(response))).body(response))
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    private record StampWithEmbedded(VersionStamp stamp, List<VersionStamp> embedded) {}
+
+    private static List<String> ifNoneMatch(HttpHeaders requestHeaders) {
+        try {
+            return requestHeaders.getIfNoneMatch();
+        } catch (IllegalArgumentException e) {
+            // a malformed precondition is ignored, the read is then unconditional
+            return List.of();
+        }
+    }
+
+    private static long ifModifiedSince(HttpHeaders requestHeaders) {
+        try {
+            return requestHeaders.getIfModifiedSince();
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static boolean matches(List<String> ifNoneMatch, String tag) {
+        // If-None-Match uses the weak comparison
+        String opaqueTag = opaqueTag(tag);
+        for (String candidate : ifNoneMatch) {
+            if (ANY.equals(candidate) || opaqueTag.equals(opaqueTag(candidate))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String tag) {
+        return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+    }
+
+    private static boolean isUnmodifiedSince(Instant dateModified, long ifModifiedSince) {
+        // HTTP dates have a one second precision
+        return dateModified != null && dateModified.truncatedTo(ChronoUnit.SECONDS).toEpochMilli() <= ifModifiedSince;
+    }
+}
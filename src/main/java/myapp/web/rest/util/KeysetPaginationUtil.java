@@ -0,0 +1,121 @@
+package myapp.web.rest.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import myapp.web.rest.errors.BadRequestAlertException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for keyset (seek) pagination.
+ * <p>
+ * Instead of a page number, clients pass back the opaque {@code after} cursor received in the
+ * {@code Link: rel="next"} header of the previous page. The cursor encodes the sort key and the
+ * {@code (sort value, id)} of the last row returned, so the next page is a range scan on an index
+ * whatever its depth, and no {@code count(*)} query is needed.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String SORT_BY_ID = "id";
+
+    public static final int DEFAULT_SIZE = 20;
+
+    public static final int MAX_SIZE = 2000;
+
+    private static final String SEPARATOR = "|";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Position after the last row of a page, for a given sort key.
+     *
+     * @param sort the sort key the cursor was issued for.
+     * @param value the sort value of the last row, {@code null} when sorting by id.
+     * @param id the id of the last row, used as tie-breaker.
+     */
+    public record Cursor(String sort, Instant value, Long id) {
+        public String encode() {
+            String raw = sort + SEPARATOR + (value == null ? "" : value.toString()) + SEPARATOR + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Decode an {@code after} cursor.
+     *
+     * @param after the cursor received from the client, may be {@code null} for the first page.
+     * @param sort the sort key of the current request.
+     * @param entityName the entity name, used in the error.
+     * @return the decoded cursor, or {@code null} for the first page.
+     * @throws BadRequestAlertException if the cursor is malformed or was issued for another sort key.
+     */
+    public static Cursor decodeCursor(String after, String sort, String entityName) {
+        if (after == null || after.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3 || !parts[0].equals(sort)) {
+                throw new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+            }
+            Instant value = parts[1].isEmpty() ? null : Instant.parse(parts[1]);
+            if (value == null && !SORT_BY_ID.equals(sort)) {
+                throw new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+            }
+            return new Cursor(parts[0], value, Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+        }
+    }
+
+    /**
+     * Clamp the requested page size between 1 and {@link #MAX_SIZE}.
+     */
+    public static int boundedSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    /**
+     * Trim a page fetched with one extra row and, if that extra row exists, build the {@code Link} header
+     * pointing to the next page.
+     *
+     * @param uriBuilder the builder of the current request URI.
+     * @param rows the rows fetched, at most {@code size + 1}.
+     * @param size the page size.
+     * @param sort the sort key.
+     * @param cursorOf builds the cursor positioned after a row.
+     * @param <T> the row type.
+     * @return the headers, with a {@code Link} header when there is a next page.
+     */
+    public static <T> HttpHeaders generateKeysetHttpHeaders(
+        UriComponentsBuilder uriBuilder,
+        List<T> rows,
+        int size,
+        String sort,
+        Function<T, Cursor> cursorOf
+    ) {
+        HttpHeaders headers = new HttpHeaders();
+        if (rows.size() > size) {
+            String next = cursorOf.apply(rows.get(size - 1)).encode();
+            String link = uriBuilder
+                .replaceQueryParam("after", next)
+                .replaceQueryParam("size", size)
+                .replaceQueryParam("sort", sort)
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + link + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+
+    /**
+     * The rows of the page, without the extra look-ahead row.
+     */
+    public static <T> List<T> pageContent(List<T> rows, int size) {
+        return rows.size() > size ? rows.subList(0, size) : rows;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Utilities for the REST layer.
+ */
+package myapp.web.rest.util;
@@ -0,0 +1,71 @@
+package myapp.aop.timing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import myapp.domain.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.data.repository.Repository;
+import org.springframework.web.bind.annotation.RestController;
+
+class TimingAspectTest {
+
+    @RestController
+    static class Controller {
+
+        public long next(long value) {
+            if (value < 0) {
+                throw new IllegalArgumentException("negative");
+            }
+            return value + 1;
+        }
+    }
+
+    interface Things extends Repository<Product, Long> {
+        long next(long value);
+    }
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final TimingAspect aspect = new TimingAspect(registry, Duration.ZERO, Duration.ZERO, Duration.ofMinutes(1));
+
+    @Test
+    void timesTheControllerCallsByOutcome() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Controller());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        Controller controller = factory.getProxy();
+
+        assertThat(controller.next(1)).isEqualTo(2);
+        assertThat(controller.next(2)).isEqualTo(3);
+        assertThatThrownBy(() -> controller.next(-1)).isInstanceOf(IllegalArgumentException.class);
+
+        Timer success = registry
+            .get(TimingAspect.CALLS_METER_NAME)
+            .tags("class", "Controller", "method", "next", "outcome", "success", "exception", "none")
+            .timer();
+        assertThat(success.count()).isEqualTo(2);
+        Timer error = registry
+            .get(TimingAspect.CALLS_METER_NAME)
+            .tags("class", "Controller", "method", "next", "outcome", "error", "exception", "IllegalArgumentException")
+            .timer();
+        assertThat(error.count()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotTimeTheRepositoryCallsAgain() {
+        Things things = value -> value + 1;
+        AspectJProxyFactory factory = new AspectJProxyFactory(things);
+        factory.addInterface(Things.class);
+        factory.addAspect(aspect);
+        Things repository = factory.getProxy();
+
+        assertThat(repository.next(1)).isEqualTo(2);
+
+        assertThat(registry.find(TimingAspect.CALLS_METER_NAME).timers()).isEmpty();
+    }
+}
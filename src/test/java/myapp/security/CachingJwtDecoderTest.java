@@ -0,0 +1,121 @@
+package myapp.security;
+
+import static myapp.security.SecurityUtils.JWT_ALGORITHM;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import myapp.management.SecurityMetersService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+class CachingJwtDecoderTest {
+
+    private static final SecretKey KEY = new SecretKeySpec(
+        "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8),
+        JWT_ALGORITHM.getName()
+    );
+
+    private final Instant now = Instant.now();
+
+    private SimpleMeterRegistry registry;
+
+    private SecurityMetersService metersService;
+
+    private NimbusJwtDecoder nimbusDecoder;
+
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metersService = new SecurityMetersService(registry);
+        nimbusDecoder = NimbusJwtDecoder.withSecretKey(KEY).macAlgorithm(JWT_ALGORITHM).build();
+        nimbusDecoder.setJwtValidator(new JwtTimestampValidator());
+    }
+
+    private CachingJwtDecoder decoder(Clock clock) {
+        JwtDecoder counting = token -> {
+            verifications.incrementAndGet();
+            return nimbusDecoder.decode(token);
+        };
+        return new CachingJwtDecoder(counting, metersService, 100, clock);
+    }
+
+    private static String token(Instant expiresAt) {
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+            .subject("user")
+            .issuedAt(expiresAt.minus(1, ChronoUnit.HOURS))
+            .expiresAt(expiresAt)
+            .build();
+        return new NimbusJwtEncoder(new ImmutableSecret<>(KEY))
+            .encode(JwtEncoderParameters.from(JwsHeader.with(JWT_ALGORITHM).build(), claims))
+            .getTokenValue();
+    }
+
+    private double rejected(String cause) {
+        return registry.get(SecurityMetersService.INVALID_TOKENS_METER_NAME).tag("cause", cause).counter().count();
+    }
+
+    @Test
+    void verifiesATokenOnlyOnceUntilItExpires() {
+        String token = token(now.plus(1, ChronoUnit.HOURS));
+        CachingJwtDecoder decoder = decoder(Clock.fixed(now, ZoneOffset.UTC));
+
+        Jwt first = decoder.decode(token);
+        Jwt second = decoder.decode(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(verifications.get()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotKeepATokenPastItsExpiry() {
+        Instant expiresAt = now.plus(1, ChronoUnit.HOURS);
+        String token = token(expiresAt);
+        // the token expires as it is verified
+        CachingJwtDecoder decoder = decoder(Clock.fixed(expiresAt, ZoneOffset.UTC));
+
+        decoder.decode(token);
+        decoder.decode(token);
+
+        assertThat(verifications.get()).isEqualTo(2);
+    }
+
+    @Test
+    void countsRejectedTokensByCause() {
+        CachingJwtDecoder decoder = decoder(Clock.systemUTC());
+        String valid = token(now.plus(1, ChronoUnit.HOURS));
+        String[] parts = valid.split("\\.");
+        String tampered = parts[0] + "." + parts[1] + "." + new StringBuilder(parts[2]).reverse();
+
+        assertThatThrownBy(() -> decoder.decode(token(now.minus(1, ChronoUnit.HOURS)))).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> decoder.decode(tampered)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> decoder.decode("not a token")).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> decoder.decode("eyJhbGciOiJub25lIn0." + parts[1] + ".")).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> decoder.decode(tampered)).isInstanceOf(JwtException.class);
+
+        assertThat(rejected("expired")).isEqualTo(1);
+        assertThat(rejected("invalid-signature")).isEqualTo(2);
+        assertThat(rejected("malformed")).isEqualTo(1);
+        assertThat(rejected("unsupported")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,136 @@
+package myapp.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Set;
+import java.util.UUID;
+import myapp.IntegrationTest;
+import myapp.domain.User;
+import myapp.repository.UserRepository;
+import myapp.service.UserService;
+import myapp.service.dto.AdminUserDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Integration tests for {@link DomainUserDetailsService}: a change of a user is seen by the next
+ * authentication, although the user is cached.
+ */
+@IntegrationTest
+class DomainUserDetailsServiceIT {
+
+    private static final String PASSWORD = "first-password";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DomainUserDetailsService domainUserDetailsService;
+
+    @Autowired
+    private AuthenticationManagerBuilder authenticationManagerBuilder;
+
+    private AuthenticationManager authenticationManager;
+
+    private String login;
+
+    @BeforeEach
+    void registerUser() {
+        authenticationManager = authenticationManagerBuilder.getObject();
+        login = "user-" + UUID.randomUUID();
+        AdminUserDTO user = new AdminUserDTO();
+        user.setLogin(login);
+        user.setEmail(login + "@example.com");
+        user.setLangKey("en");
+        String activationKey = userService.registerUser(user, PASSWORD).getActivationKey();
+
+        // cached as not activated
+        assertThatThrownBy(() -> authenticate(PASSWORD)).isInstanceOf(AuthenticationException.class).hasMessageContaining("not activated");
+        userService.activateRegistration(activationKey);
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticatesWithTheNewPasswordOnceChanged() {
+        SecurityContextHolder.getContext().setAuthentication(authenticate(PASSWORD));
+
+        userService.changePassword(PASSWORD, "second-password");
+
+        assertThatThrownBy(() -> authenticate(PASSWORD)).isInstanceOf(BadCredentialsException.class);
+        assertThat(authenticate("second-password").isAuthenticated()).isTrue();
+        // by email too
+        assertThat(authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(login + "@example.com", "second-password")))
+            .extracting(Authentication::isAuthenticated)
+            .isEqualTo(true);
+    }
+
+    @Test
+    void authenticatesWithTheNewPasswordOnceReset() {
+        authenticate(PASSWORD);
+
+        String resetKey = userService.requestPasswordReset(login + "@example.com").orElseThrow().getResetKey();
+        userService.completePasswordReset("second-password", resetKey);
+
+        assertThatThrownBy(() -> authenticate(PASSWORD)).isInstanceOf(BadCredentialsException.class);
+        assertThat(authenticate("second-password").isAuthenticated()).isTrue();
+    }
+
+    @Test
+    void authenticatesWithTheNewAuthoritiesAndNotOnceDeactivated() {
+        assertThat(authenticate(PASSWORD).getAuthorities())
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.USER);
+
+        AdminUserDTO user = new AdminUserDTO(userRepository.findOneWithAuthoritiesByLogin(login).orElseThrow());
+        user.setAuthorities(Set.of(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN));
+        userService.updateUser(user);
+
+        assertThat(authenticate(PASSWORD).getAuthorities())
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactlyInAnyOrder(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN);
+
+        user.setActivated(false);
+        userService.updateUser(user);
+
+        assertThatThrownBy(() -> authenticate(PASSWORD)).isInstanceOf(AuthenticationException.class).hasMessageContaining("not activated");
+    }
+
+    @Test
+    void readsTheRehashedPasswordAfterALoginUpgradedIt() {
+        // hashed at another cost than the configured one, behind the back of the cache, which does not hold the user yet
+        User user = userRepository.findOneByLogin(login).orElseThrow();
+        String outdatedHash = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        user.setPassword(outdatedHash);
+        userRepository.saveAndFlush(user);
+
+        authenticate(PASSWORD);
+
+        String rehashed = userRepository.findOneByLogin(login).orElseThrow().getPassword();
+        assertThat(rehashed).isNotEqualTo(outdatedHash);
+        assertThat(domainUserDetailsService.loadUserByUsername(login).getPassword()).isEqualTo(rehashed);
+        assertThat(authenticate(PASSWORD).isAuthenticated()).isTrue();
+    }
+
+    private Authentication authenticate(String password) {
+        return authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(login, password));
+    }
+}
@@ -0,0 +1,37 @@
+package myapp.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+class MeteredBCryptPasswordEncoderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void upgradesTheHashesOfAnotherCost() {
+        String cost4 = new MeteredBCryptPasswordEncoder(4, registry).encode("password");
+        String cost5 = new MeteredBCryptPasswordEncoder(5, registry).encode("password");
+        MeteredBCryptPasswordEncoder encoder = new MeteredBCryptPasswordEncoder(5, registry);
+
+        assertThat(encoder.upgradeEncoding(cost4)).isTrue();
+        assertThat(encoder.upgradeEncoding(cost5)).isFalse();
+        assertThat(new MeteredBCryptPasswordEncoder(4, registry).upgradeEncoding(cost5)).isTrue();
+        assertThat(encoder.matches("password", cost4)).isTrue();
+    }
+
+    @Test
+    void timesTheHashes() {
+        MeteredBCryptPasswordEncoder encoder = new MeteredBCryptPasswordEncoder(4, registry);
+
+        encoder.matches("password", encoder.encode("password"));
+
+        assertThat(hashes("encode")).isEqualTo(1);
+        assertThat(hashes("matches")).isEqualTo(1);
+    }
+
+    private long hashes(String operation) {
+        return registry.get(MeteredBCryptPasswordEncoder.HASHING_METER_NAME).tag("operation", operation).timer().count();
+    }
+}
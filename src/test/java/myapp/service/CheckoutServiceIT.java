@@ -0,0 +1,181 @@
+package myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import myapp.IntegrationTest;
+import myapp.domain.Customer;
+import myapp.domain.Product;
+import myapp.domain.enumeration.DomainEventType;
+import myapp.domain.enumeration.ProductStatus;
+import myapp.repository.CustomerRepository;
+import myapp.repository.ProductRepository;
+import myapp.service.dto.CheckoutDTO;
+import myapp.service.dto.CheckoutItemDTO;
+import myapp.service.inventory.StockReservation;
+import myapp.service.outbox.DomainEvent;
+import myapp.service.outbox.OutboxRelay;
+import myapp.service.search.ProductFacetIndex;
+import myapp.service.search.ProductFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Integration tests for {@link CheckoutService}.
+ */
+@IntegrationTest
+@Import(CheckoutServiceIT.Listener.class)
+class CheckoutServiceIT {
+
+    static class Listener {
+
+        private final List<DomainEvent> received = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        public void on(DomainEvent event) {
+            received.add(event);
+        }
+
+        public List<DomainEvent> getReceived() {
+            return received;
+        }
+    }
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryReservationService inventoryReservationService;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Listener listener;
+
+    @Test
+    void writesNothingWhenAProductIsShortOfStock() {
+        Customer customer = customerRepository.saveAndFlush(
+            new Customer().firstName("Jane").lastName("Doe").email(UUID.randomUUID() + "@example.com")
+        );
+        Product available = productRepository.saveAndFlush(product("Available", 10));
+        Product scarce = productRepository.saveAndFlush(product("Scarce", 1));
+        long orders = count("jhi_order");
+        long orderLines = count("order_line");
+        long outboxEvents = count("outbox_event");
+
+        CheckoutDTO checkout = new CheckoutDTO();
+        checkout.setCustomerId(customer.getId());
+        checkout.setItems(List.of(new CheckoutItemDTO(available.getId(), 1), new CheckoutItemDTO(scarce.getId(), 2)));
+
+        assertThatThrownBy(() -> checkoutService.checkout(checkout))
+            .isInstanceOf(CheckoutException.class)
+            .extracting(e -> ((CheckoutException) e).getErrorKey())
+            .isEqualTo("outofstock");
+        assertThat(count("jhi_order")).isEqualTo(orders);
+        assertThat(count("order_line")).isEqualTo(orderLines);
+        assertThat(count("outbox_event")).isEqualTo(outboxEvents);
+        assertThat(productRepository.findById(available.getId())).get().extracting(Product::getQuantityInStock).isEqualTo(10);
+    }
+
+    @Test
+    void updatesTheFacetsAndRecordsAnEventOfTheProductsItTakesTheStockOf() {
+        Customer customer = customerRepository.saveAndFlush(
+            new Customer().firstName("Jane").lastName("Doe").email(UUID.randomUUID() + "@example.com")
+        );
+        // a price of its own, to find the product among the ones left in the index by the other tests
+        BigDecimal price = BigDecimal.valueOf(ThreadLocalRandom.current().nextLong(1_000_000, 100_000_000), 2);
+        Product lastUnit = productRepository.saveAndFlush(product("Last unit", 1).price(price));
+        Product plenty = productRepository.saveAndFlush(product("Plenty", 10).price(price));
+        productFacetIndex.index(lastUnit);
+        productFacetIndex.index(plenty);
+
+        CheckoutDTO checkout = new CheckoutDTO();
+        checkout.setCustomerId(customer.getId());
+        checkout.setItems(List.of(new CheckoutItemDTO(lastUnit.getId(), 1), new CheckoutItemDTO(plenty.getId(), 1)));
+        checkoutService.checkout(checkout);
+
+        assertThat(productRepository.findById(lastUnit.getId())).get().extracting(Product::getStatus).isEqualTo(ProductStatus.OUT_OF_STOCK);
+        assertThat(indexedWith(ProductStatus.OUT_OF_STOCK, price)).containsExactly(lastUnit.getId());
+        assertThat(indexedWith(ProductStatus.IN_STOCK, price)).containsExactly(plenty.getId());
+
+        outboxRelay.relay();
+        assertThat(listener.getReceived())
+            .filteredOn(event -> Product.class.getSimpleName().equals(event.aggregateType()) && event.type() == DomainEventType.UPDATED)
+            .extracting(DomainEvent::aggregateId)
+            .contains(lastUnit.getId(), plenty.getId());
+    }
+
+    @Test
+    void sellsTheUnitsHeldForReservationsToCartsWithoutAReservation() {
+        Customer customer = customerRepository.saveAndFlush(
+            new Customer().firstName("Jane").lastName("Doe").email(UUID.randomUUID() + "@example.com")
+        );
+        Product product = productRepository.saveAndFlush(product("Hot", 25));
+
+        // the reservation leases a block of units, leaving fewer in the product row than the next carts order
+        StockReservation reservation = inventoryReservationService.reserve(List.of(new CheckoutItemDTO(product.getId(), 1)));
+        assertThat(productRepository.findById(product.getId())).get().extracting(Product::getQuantityInStock).isEqualTo(5);
+
+        // served from the units held only, then from the units held and the row
+        checkoutService.checkout(checkout(customer, null, new CheckoutItemDTO(product.getId(), 10)));
+        checkoutService.checkout(checkout(customer, null, new CheckoutItemDTO(product.getId(), 12)));
+        checkoutService.checkout(checkout(customer, reservation.id(), new CheckoutItemDTO(product.getId(), 1)));
+        assertThatThrownBy(() -> checkoutService.checkout(checkout(customer, null, new CheckoutItemDTO(product.getId(), 3))))
+            .isInstanceOf(CheckoutException.class)
+            .extracting(e -> ((CheckoutException) e).getErrorKey())
+            .isEqualTo("outofstock");
+
+        // the units held but not sold go back to the row once nobody reserves the product any more
+        inventoryReservationService.flush();
+        inventoryReservationService.flush();
+        assertThat(productRepository.findById(product.getId())).get().extracting(Product::getQuantityInStock).isEqualTo(2);
+    }
+
+    private List<Long> indexedWith(ProductStatus status, BigDecimal price) {
+        return productFacetIndex.filter(new ProductFilter(Set.of(status), price, price, null, null), 0, 10).productIds();
+    }
+
+    private static CheckoutDTO checkout(Customer customer, UUID reservationId, CheckoutItemDTO item) {
+        CheckoutDTO checkout = new CheckoutDTO();
+        checkout.setCustomerId(customer.getId());
+        checkout.setReservationId(reservationId);
+        checkout.setItems(List.of(item));
+        return checkout;
+    }
+
+    private static Product product(String title, int quantityInStock) {
+        return new Product()
+            .title(title)
+            .price(BigDecimal.TEN)
+            .quantityInStock(quantityInStock)
+            .status(ProductStatus.IN_STOCK)
+            .dateAdded(Instant.now());
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+    }
+}
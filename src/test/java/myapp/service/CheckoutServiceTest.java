@@ -0,0 +1,49 @@
+package myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import myapp.config.ApplicationProperties;
+import myapp.service.dto.CheckoutItemDTO;
+import org.junit.jupiter.api.Test;
+
+class CheckoutServiceTest {
+
+    @Test
+    void mergesTheQuantitiesOfAProductByAscendingId() {
+        Map<Long, Integer> quantities = CheckoutService.quantitiesByProductId(
+            List.of(new CheckoutItemDTO(3L, 1), new CheckoutItemDTO(1L, 2), new CheckoutItemDTO(3L, 4))
+        );
+
+        assertThat(quantities).containsExactly(Map.entry(1L, 2), Map.entry(3L, 5));
+    }
+
+    @Test
+    void rejectsQuantitiesOverflowingOnceMerged() {
+        List<CheckoutItemDTO> items = List.of(new CheckoutItemDTO(1L, Integer.MAX_VALUE), new CheckoutItemDTO(1L, 1));
+
+        assertThatThrownBy(() -> CheckoutService.quantitiesByProductId(items)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void chargesTheFlatRateBelowTheFreeShippingThreshold() {
+        ApplicationProperties.Checkout properties = new ApplicationProperties.Checkout();
+        properties.setShippingFlatRate(new BigDecimal("4.5"));
+        properties.setFreeShippingThreshold(new BigDecimal("50.00"));
+
+        assertThat(CheckoutService.shippingCost(new BigDecimal("49.99"), properties)).isEqualTo("4.50");
+        assertThat(CheckoutService.shippingCost(new BigDecimal("50.00"), properties)).isEqualTo("0.00");
+        assertThat(CheckoutService.shippingCost(new BigDecimal("120"), properties)).isEqualTo("0.00");
+    }
+
+    @Test
+    void alwaysChargesTheFlatRateWithoutAFreeShippingThreshold() {
+        ApplicationProperties.Checkout properties = new ApplicationProperties.Checkout();
+        properties.setFreeShippingThreshold(null);
+
+        assertThat(CheckoutService.shippingCost(new BigDecimal("1000"), properties)).isEqualTo("4.99");
+    }
+}
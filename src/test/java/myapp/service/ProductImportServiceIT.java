@@ -0,0 +1,181 @@
+package myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import myapp.IntegrationTest;
+import myapp.domain.Product;
+import myapp.domain.enumeration.DomainEventType;
+import myapp.domain.enumeration.ProductStatus;
+import myapp.service.dto.ProductImportReportDTO;
+import myapp.service.outbox.DomainEvent;
+import myapp.service.outbox.OutboxRelay;
+import myapp.service.search.ProductFacetIndex;
+import myapp.service.search.ProductFilter;
+import myapp.service.search.ProductSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Integration tests for {@link ProductImportService}.
+ */
+@IntegrationTest
+@Import(ProductImportServiceIT.Listener.class)
+class ProductImportServiceIT {
+
+    static class Listener {
+
+        private final List<DomainEvent> received = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        public void on(DomainEvent event) {
+            received.add(event);
+        }
+
+        public List<DomainEvent> getReceived() {
+            return received;
+        }
+    }
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private Listener listener;
+
+    @Test
+    void importsTheValidRowsOfACsvFeedAndReportsTheOthers() throws IOException {
+        String token = token();
+        String feed =
+            """
+            id;title;price;status;date_added;rating
+            ;%1$s mug;12.50;IN_STOCK;2024-01-01T00:00:00Z;4
+            ;ab;12.50;IN_STOCK;2024-01-01T00:00:00Z;
+            7;%1$s plate;3.00;IN_STOCK;2024-01-01T00:00:00Z;
+            ;%1$s bowl;8;SOLD_OUT;2024-01-01T00:00:00Z;
+            ;%1$s cup;4.20;OUT_OF_STOCK;2024-01-01T00:00:00Z;9
+            ;%1$s lamp;30;DISCONTINUED;2024-01-01T00:00:00Z;
+            """.formatted(token);
+
+        ProductImportReportDTO report = importFeed(feed, ProductImportService.Format.CSV);
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getRejected()).isEqualTo(4);
+        assertThat(report.getErrors()).extracting(ProductImportReportDTO.RowError::row).containsExactly(2L, 3L, 4L, 5L);
+        assertThat(report.getErrors().get(0).messages()).singleElement().asString().startsWith("title:");
+        assertThat(report.getErrors().get(1).messages()).singleElement().asString().startsWith("id:");
+        assertThat(report.getErrors().get(2).messages()).singleElement().asString().contains("SOLD_OUT");
+        assertThat(report.getErrors().get(3).messages()).singleElement().asString().startsWith("rating:");
+        assertThat(report.isErrorsTruncated()).isFalse();
+        assertThat(productSearchIndex.search(token, 0, 10).totalHits()).isEqualTo(2);
+    }
+
+    @Test
+    void importsTheValidRowsOfAnNdjsonFeedUntilAnUnreadableOne() throws IOException {
+        String token = token();
+        String feed =
+            """
+            {"title": "%1$s mug", "price": 12.5, "status": "IN_STOCK", "dateAdded": "2024-01-01T00:00:00Z"}
+            {"title": "%1$s plate", "price": -1, "status": "IN_STOCK", "dateAdded": "2024-01-01T00:00:00Z"}
+            {"title": "%1$s bowl", "price": 8, "status": "IN_STOCK"}
+            {"title": "%1$s cup", "price": 4.2, "status": "OUT_OF_STOCK", "dateAdded": "2024-01-01T00:00:00Z", "quantity_in_stock": 3}
+            {"title": "%1$s lamp", "price": 30,
+            {"title": "%1$s chair", "price": 80, "status": "IN_STOCK", "dateAdded": "2024-01-01T00:00:00Z"}
+            """.formatted(token);
+
+        ProductImportReportDTO report = importFeed(feed, ProductImportService.Format.NDJSON);
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getRejected()).isEqualTo(3);
+        assertThat(report.getErrors()).extracting(ProductImportReportDTO.RowError::row).containsExactly(2L, 3L, 5L);
+        assertThat(report.getErrors().get(0).messages()).singleElement().asString().startsWith("price:");
+        assertThat(report.getErrors().get(1).messages()).singleElement().asString().startsWith("dateAdded:");
+        assertThat(report.getErrors().get(2).messages()).singleElement().asString().startsWith("Unreadable row, import stopped");
+        assertThat(productSearchIndex.search(token, 0, 10).totalHits()).isEqualTo(2);
+    }
+
+    @Test
+    void retriesTheRowsOfAChunkTheDatabaseRejectsOneByOne() throws IOException {
+        String token = token();
+        // longer than the description column, which Bean Validation does not bound
+        String tooLong = "x".repeat(300);
+        StringBuilder feed = new StringBuilder("title,price,status,date_added,description\n");
+        for (int i = 1; i <= 5; i++) {
+            String description = i == 3 ? tooLong : "The product number " + i;
+            feed.append("%s item%d,10,IN_STOCK,2024-01-01T00:00:00Z,%s\n".formatted(token, i, description));
+        }
+
+        ProductImportReportDTO report = importFeed(feed.toString(), ProductImportService.Format.CSV);
+
+        assertThat(report.getImported()).isEqualTo(4);
+        assertThat(report.getRejected()).isEqualTo(1);
+        assertThat(report.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.row()).isEqualTo(3);
+            assertThat(error.messages()).singleElement().asString().startsWith("Could not be stored:");
+        });
+        assertThat(productSearchIndex.search(token, 0, 10).totalHits()).isEqualTo(4);
+        assertThat(productSearchIndex.search("item3", 0, 10).productIds()).isEmpty();
+    }
+
+    @Test
+    void indexesAndPublishesTheImportedProducts() throws IOException {
+        String token = token();
+        // a price of its own, to find the products among the ones imported by the other tests
+        BigDecimal price = BigDecimal.valueOf(ThreadLocalRandom.current().nextLong(1_000_000, 100_000_000), 2);
+        String feed =
+            """
+            title,price,status,date_added
+            %1$s mug,%2$s,IN_STOCK,2024-01-01T00:00:00Z
+            %1$s plate,%2$s,OUT_OF_STOCK,2024-01-01T00:00:00Z
+            %1$s bowl,%2$s,IN_STOCK,2024-01-01T00:00:00Z
+            """.formatted(token, price.toPlainString());
+
+        ProductImportReportDTO report = importFeed(feed, ProductImportService.Format.CSV);
+
+        assertThat(report.getImported()).isEqualTo(3);
+        List<Long> imported = productSearchIndex.search(token, 0, 10).productIds();
+        assertThat(imported).hasSize(3);
+        assertThat(productSearchIndex.search("+" + token + " +plate", 0, 10).productIds()).hasSize(1);
+        assertThat(productFacetIndex.filter(new ProductFilter(null, price, price, null, null), 0, 10).productIds())
+            .containsExactlyInAnyOrderElementsOf(imported);
+        assertThat(productFacetIndex.filter(new ProductFilter(Set.of(ProductStatus.IN_STOCK), price, price, null, null), 0, 10).totalHits())
+            .isEqualTo(2);
+
+        outboxRelay.relay();
+        assertThat(listener.getReceived())
+            .filteredOn(event -> Product.class.getSimpleName().equals(event.aggregateType()) && event.type() == DomainEventType.CREATED)
+            .extracting(DomainEvent::aggregateId)
+            .containsAll(imported);
+    }
+
+    private ProductImportReportDTO importFeed(String feed, ProductImportService.Format format) throws IOException {
+        char separator = feed.startsWith("id;") ? ';' : ',';
+        return productImportService.importProducts(new ByteArrayInputStream(feed.getBytes(StandardCharsets.UTF_8)), format, separator);
+    }
+
+    /**
+     * A term of its own, to find the products of a test in the search index.
+     */
+    private static String token() {
+        return "t" + UUID.randomUUID().toString().replace("-", "");
+    }
+}
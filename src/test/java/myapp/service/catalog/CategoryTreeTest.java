@@ -0,0 +1,89 @@
+package myapp.service.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+import myapp.domain.enumeration.CategoryStatus;
+import myapp.repository.CategoryRepository.CategoryTreeRow;
+import org.junit.jupiter.api.Test;
+
+class CategoryTreeTest {
+
+    private record Row(Long id, Long parentId, String description, Integer sortOrder) implements CategoryTreeRow {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getParentId() {
+            return parentId;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public Integer getSortOrder() {
+            return sortOrder;
+        }
+
+        @Override
+        public CategoryStatus getStatus() {
+            return CategoryStatus.AVAILABLE;
+        }
+    }
+
+    private static List<Long> ids(List<CategoryNode> nodes) {
+        return nodes.stream().map(CategoryNode::id).toList();
+    }
+
+    private static final List<Row> CATALOG = List.of(
+        new Row(1L, null, "Garden", 2),
+        new Row(2L, null, "Kitchen", 1),
+        new Row(3L, 2L, "Knives", 2),
+        new Row(4L, 2L, "Pans", 1),
+        new Row(5L, 3L, "Chef knives", null),
+        new Row(6L, 1L, "Tools", null)
+    );
+
+    @Test
+    void descendantsAndAncestorsFollowSiblingOrder() {
+        CategoryTree tree = CategoryTree.build(CATALOG);
+
+        assertThat(tree.size()).isEqualTo(6);
+        assertThat(tree.roots()).extracting(branch -> branch.category().id()).containsExactly(2L, 1L);
+        assertThat(ids(tree.descendants(2L))).containsExactly(4L, 3L, 5L);
+        assertThat(ids(tree.descendants(5L))).isEmpty();
+        assertThat(ids(tree.ancestors(5L))).containsExactly(2L, 3L);
+        assertThat(tree.get(5L)).hasValueSatisfying(node -> assertThat(node.depth()).isEqualTo(2));
+        assertThat(tree.isDescendant(2L, 5L)).isTrue();
+        assertThat(tree.isDescendant(1L, 5L)).isFalse();
+        assertThat(tree.isDescendant(5L, 5L)).isFalse();
+        assertThat(tree.withDescendants(Set.of(3L, 6L, 99L))).containsExactlyInAnyOrder(3L, 5L, 6L, 99L);
+    }
+
+    @Test
+    void orphansBecomeRoots() {
+        CategoryTree tree = CategoryTree.build(List.of(new Row(1L, 42L, "Orphan", null), new Row(2L, 1L, "Child", null)));
+
+        assertThat(tree.roots()).extracting(branch -> branch.category().id()).containsExactly(1L);
+        assertThat(ids(tree.ancestors(2L))).containsExactly(1L);
+        assertThat(tree.brokenCycles()).isZero();
+    }
+
+    @Test
+    void cyclesAreBrokenAtTheirLowestId() {
+        CategoryTree tree = CategoryTree.build(
+            List.of(new Row(1L, 9L, "Hanging", null), new Row(8L, 9L, "Cycle low", null), new Row(9L, 8L, "Cycle high", null))
+        );
+
+        assertThat(tree.brokenCycles()).isEqualTo(1);
+        assertThat(tree.roots()).extracting(branch -> branch.category().id()).containsExactly(8L);
+        assertThat(ids(tree.descendants(8L))).containsExactly(9L, 1L);
+        assertThat(ids(tree.ancestors(1L))).containsExactly(8L, 9L);
+    }
+}
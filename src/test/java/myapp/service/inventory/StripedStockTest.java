@@ -0,0 +1,138 @@
+package myapp.service.inventory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class StripedStockTest {
+
+    /**
+     * A product row: takes succeed only while enough units are left.
+     */
+    private static final class Row implements StripedStock.Source {
+
+        private int quantity;
+        private final AtomicInteger updates = new AtomicInteger();
+
+        private Row(int quantity) {
+            this.quantity = quantity;
+        }
+
+        @Override
+        public synchronized boolean take(int units) {
+            updates.incrementAndGet();
+            if (quantity < units) {
+                return false;
+            }
+            quantity -= units;
+            return true;
+        }
+    }
+
+    @Test
+    void leasesBlocksAndFallsBackToTheExactQuantity() {
+        Row row = new Row(25);
+        StripedStock stock = new StripedStock(4, 10, row);
+
+        assertThat(stock.take(3)).isTrue();
+        assertThat(row.quantity).isEqualTo(15);
+        assertThat(stock.available()).isEqualTo(7);
+
+        assertThat(stock.take(7)).isTrue();
+        assertThat(stock.take(20)).isFalse();
+        assertThat(stock.take(15)).isTrue();
+        assertThat(row.quantity).isZero();
+        assertThat(stock.take(1)).isFalse();
+
+        stock.put(2);
+        assertThat(stock.take(2)).isTrue();
+        assertThat(stock.drain()).isZero();
+    }
+
+    @Test
+    void gathersAQuantitySpreadOverSeveralCounters() {
+        Row row = new Row(0);
+        StripedStock stock = new StripedStock(8, 1, row);
+        for (int i = 0; i < 5; i++) {
+            // from a fresh thread each time, to land on different counters
+            runInNewThread(() -> stock.put(2));
+        }
+
+        assertThat(stock.take(9)).isTrue();
+        assertThat(stock.available()).isEqualTo(1);
+        assertThat(stock.clearTouched()).isTrue();
+        assertThat(stock.clearTouched()).isFalse();
+        assertThat(stock.drain()).isEqualTo(1);
+    }
+
+    @Test
+    void takesTheUnitsHeldWithoutLeasingMore() {
+        Row row = new Row(25);
+        StripedStock stock = new StripedStock(4, 10, row);
+        assertThat(stock.take(3)).isTrue();
+        int updates = row.updates.get();
+
+        assertThat(stock.takeHeld(5)).isEqualTo(5);
+        assertThat(stock.takeHeld(5)).isEqualTo(2);
+        assertThat(stock.takeHeld(5)).isZero();
+        assertThat(row.updates.get()).isEqualTo(updates);
+        assertThat(row.quantity).isEqualTo(15);
+    }
+
+    @Test
+    void sixtyFourThreadsSellAHotProductExactlyOnce() throws InterruptedException {
+        int units = 100_000;
+        Row row = new Row(units);
+        StripedStock stock = new StripedStock(16, 50, row);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        int threads = 64;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                awaitQuietly(start);
+                // keep buying, one or two units at a time, until the product is sold out
+                for (int i = 0; rejected.get() < threads * 10; i++) {
+                    int quantity = 1 + (i & 1);
+                    if (stock.take(quantity)) {
+                        sold.addAndGet(quantity);
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        assertThat(sold.get() + stock.drain() + row.quantity).isEqualTo(units);
+        assertThat(row.quantity).isLessThan(2);
+        assertThat(row.updates.get()).isLessThan(units / 10);
+    }
+
+    private static void runInNewThread(Runnable action) {
+        Thread thread = new Thread(action);
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
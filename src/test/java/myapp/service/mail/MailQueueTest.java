@@ -0,0 +1,94 @@
+package myapp.service.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import myapp.config.ApplicationProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import tech.jhipster.config.JHipsterProperties;
+
+class MailQueueTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final List<Integer> batches = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+
+    private MailQueue mailQueue;
+
+    private MailQueue mailQueue(int batchSize, int maxAttempts) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl() {
+            @Override
+            public void send(MimeMessage... mimeMessages) {
+                if (failuresLeft.getAndDecrement() > 0) {
+                    throw new MailSendException("Mail server connection failed");
+                }
+                batches.add(mimeMessages.length);
+            }
+        };
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getMail().setBatchSize(batchSize);
+        properties.getMail().setMaxAttempts(maxAttempts);
+        properties.getMail().setInitialBackoffMillis(10);
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getMail().setFrom("test@localhost");
+        mailQueue = new MailQueue(sender, jHipsterProperties, properties, registry);
+        return mailQueue;
+    }
+
+    @AfterEach
+    void tearDown() {
+        mailQueue.stop();
+    }
+
+    private double messages(String outcome) {
+        return registry.get(MailQueue.MESSAGES_METER_NAME).tag("outcome", outcome).counter().count();
+    }
+
+    private void awaitMessages(String outcome, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (messages(outcome) < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void sendsTheQueuedEmailsInBatches() throws InterruptedException {
+        MailQueue queue = mailQueue(4, 1);
+        for (int i = 0; i < 10; i++) {
+            queue.enqueue("user" + i + "@localhost", "subject", "content", false, false);
+        }
+
+        queue.start();
+        awaitMessages("sent", 10);
+
+        assertThat(batches).containsExactly(4, 4, 2);
+    }
+
+    @Test
+    void retriesTheEmailsThatCouldNotBeSentUntilTheLastAttempt() throws InterruptedException {
+        MailQueue queue = mailQueue(10, 3);
+        failuresLeft.set(2);
+        queue.enqueue("user@localhost", "subject", "content", false, false);
+        queue.start();
+        awaitMessages("sent", 1);
+
+        failuresLeft.set(3);
+        queue.enqueue("user@localhost", "subject", "content", false, false);
+        awaitMessages("dropped", 1);
+
+        assertThat(Map.of("sent", messages("sent"), "retried", messages("retried"), "dropped", messages("dropped"))).isEqualTo(
+            Map.of("sent", 1.0, "retried", 4.0, "dropped", 1.0)
+        );
+    }
+}
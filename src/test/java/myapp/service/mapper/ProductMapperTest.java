@@ -0,0 +1,65 @@
+package myapp.service.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import myapp.domain.Order;
+import myapp.domain.Product;
+import myapp.domain.enumeration.ProductStatus;
+import myapp.repository.ProductRepository.ProductRow;
+import myapp.service.dto.ProductDTO;
+import org.junit.jupiter.api.Test;
+
+class ProductMapperTest {
+
+    private final ProductMapper productMapper = new ProductMapperImpl();
+
+    @Test
+    void mapsARowWithItsReferencesAsIds() {
+        Instant dateAdded = Instant.parse("2024-01-01T00:00:00Z");
+        ProductRow row = new ProductRow(
+            1L,
+            2L,
+            "Red mug",
+            "mug",
+            null,
+            5,
+            new BigDecimal("12.50"),
+            50,
+            ProductStatus.IN_STOCK,
+            null,
+            null,
+            dateAdded,
+            null,
+            null,
+            3L
+        );
+
+        ProductDTO product = productMapper.toDto(row);
+
+        assertThat(product.getId()).isEqualTo(1L);
+        assertThat(product.getVersion()).isEqualTo(2L);
+        assertThat(product.getTitle()).isEqualTo("Red mug");
+        assertThat(product.getPrice()).isEqualByComparingTo("12.50");
+        assertThat(product.getStatus()).isEqualTo(ProductStatus.IN_STOCK);
+        assertThat(product.getDateAdded()).isEqualTo(dateAdded);
+        assertThat(product.getWishList()).isNull();
+        assertThat(product.getOrder().getId()).isEqualTo(3L);
+    }
+
+    @Test
+    void mapsAnEntityAsItsRowWould() {
+        Product entity = new Product().title("Red mug").price(new BigDecimal("12.50")).status(ProductStatus.IN_STOCK);
+        entity.setId(1L);
+        entity.setOrder(new Order().id(3L));
+
+        ProductDTO product = productMapper.toDto(entity);
+
+        assertThat(product.getId()).isEqualTo(1L);
+        assertThat(product.getTitle()).isEqualTo("Red mug");
+        assertThat(product.getWishList()).isNull();
+        assertThat(product.getOrder().getId()).isEqualTo(3L);
+        assertThat(product.getOrder().getStatus()).isNull();
+    }
+}
@@ -0,0 +1,92 @@
+package myapp.service.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import myapp.IntegrationTest;
+import myapp.domain.OutboxEvent;
+import myapp.domain.enumeration.DomainEventType;
+import myapp.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link OutboxRelay}.
+ */
+@IntegrationTest
+@Import(OutboxRelayIT.Listener.class)
+class OutboxRelayIT {
+
+    private static final class Published {}
+
+    private static final class Failing {}
+
+    /**
+     * A transactional listener failing on the events of {@link Failing}, marking its transaction rollback-only.
+     */
+    static class Listener {
+
+        private final List<DomainEvent> received = new CopyOnWriteArrayList<>();
+
+        @Transactional
+        @EventListener
+        public void on(DomainEvent event) {
+            if (Failing.class.getSimpleName().equals(event.aggregateType())) {
+                throw new IllegalStateException("Listener failed on " + event);
+            }
+            received.add(event);
+        }
+
+        public List<DomainEvent> getReceived() {
+            return received;
+        }
+    }
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Listener listener;
+
+    @Test
+    void publishesTheEventsAndPostponesTheOnesAListenerFailedOn() {
+        long aggregateId = System.nanoTime();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            outboxService.record(Published.class, aggregateId, DomainEventType.CREATED);
+            outboxService.record(Failing.class, aggregateId, DomainEventType.CREATED);
+        });
+
+        outboxRelay.relay();
+
+        assertThat(listener.getReceived()).anySatisfy(event -> {
+            assertThat(event.aggregateType()).isEqualTo(Published.class.getSimpleName());
+            assertThat(event.aggregateId()).isEqualTo(aggregateId);
+        });
+        List<OutboxEvent> remaining = outboxEventRepository
+            .findAll()
+            .stream()
+            .filter(event -> Objects.equals(event.getAggregateId(), aggregateId))
+            .toList();
+        assertThat(remaining).singleElement().satisfies(event -> {
+            assertThat(event.getAggregateType()).isEqualTo(Failing.class.getSimpleName());
+            assertThat(event.getAttempts()).isPositive();
+            assertThat(event.getAvailableAt()).isAfter(event.getOccurredAt());
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package myapp.service.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import myapp.domain.Product;
+import myapp.domain.enumeration.ProductStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ProductFacetIndexTest {
+
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new ProductFacetIndex();
+        index.index(product(1L, ProductStatus.IN_STOCK, "10.00", 5));
+        index.index(product(2L, ProductStatus.IN_STOCK, "20.00", 3));
+        index.index(product(3L, ProductStatus.OUT_OF_STOCK, "30.00", null));
+        index.index(product(4L, ProductStatus.DISCONTINUED, "40.00", 4));
+        index.setCategoryProducts(100L, List.of(1L, 3L));
+        index.setCategoryProducts(200L, List.of(2L, 4L));
+    }
+
+    private Product product(long id, ProductStatus status, String price, Integer rating) {
+        Product product = new Product();
+        product.setId(id);
+        product.setStatus(status);
+        product.setPrice(new BigDecimal(price));
+        product.setRating(rating);
+        return product;
+    }
+
+    private ProductFilter filter(Set<ProductStatus> statuses, String priceMin, String priceMax, Integer ratingMin, Set<Long> categoryIds) {
+        return new ProductFilter(
+            statuses,
+            priceMin == null ? null : new BigDecimal(priceMin),
+            priceMax == null ? null : new BigDecimal(priceMax),
+            ratingMin,
+            categoryIds
+        );
+    }
+
+    @Test
+    public void testFilterCombinesCriteria() {
+        assertEquals(List.of(1L, 2L), index.filter(filter(Set.of(ProductStatus.IN_STOCK), null, null, null, null), 0, 10).productIds());
+        assertEquals(List.of(2L, 3L), index.filter(filter(null, "15", "30", null, null), 0, 10).productIds());
+        assertEquals(List.of(1L, 4L), index.filter(filter(null, null, null, 4, null), 0, 10).productIds());
+        assertEquals(List.of(4L), index.filter(filter(null, null, null, 4, Set.of(200L)), 0, 10).productIds());
+        assertEquals(List.of(3L), index.filter(filter(null, null, null, null, Set.of(100L)), 1, 10).productIds());
+    }
+
+    @Test
+    public void testPriceBoundsOutOfRangeAreClamped() {
+        assertEquals(List.of(1L, 2L, 3L, 4L), index.filter(filter(null, "-1e30", "1e30", null, null), 0, 10).productIds());
+        assertEquals(List.of(3L, 4L), index.filter(filter(null, "25", "92233720368547758.08", null, null), 0, 10).productIds());
+        assertEquals(List.of(), index.filter(filter(null, "1e2147483647", null, null, null), 0, 10).productIds());
+        assertEquals(List.of(), index.filter(filter(null, null, "-1e2147483647", null, null), 0, 10).productIds());
+        assertEquals(4, index.facets(filter(null, null, "1e30", null, null)).total());
+    }
+
+    @Test
+    public void testFacetCountsIgnoreTheirOwnCriterion() {
+        ProductFacets facets = index.facets(filter(Set.of(ProductStatus.IN_STOCK), null, null, null, Set.of(100L)));
+
+        assertEquals(1, facets.total());
+        assertEquals(1L, facets.status().get(ProductStatus.IN_STOCK));
+        assertEquals(1L, facets.status().get(ProductStatus.OUT_OF_STOCK));
+        assertEquals(1L, facets.category().get(100L));
+        assertEquals(1L, facets.category().get(200L));
+        assertEquals(1L, facets.rating().get(5));
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        index.index(product(1L, ProductStatus.OUT_OF_STOCK, "10.00", 5));
+        assertEquals(List.of(2L), index.filter(filter(Set.of(ProductStatus.IN_STOCK), null, null, null, null), 0, 10).productIds());
+
+        index.remove(3L);
+        assertEquals(List.of(1L), index.filter(filter(null, null, null, null, Set.of(100L)), 0, 10).productIds());
+    }
+}
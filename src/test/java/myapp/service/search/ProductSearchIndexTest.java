@@ -0,0 +1,204 @@
+package myapp.service.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import myapp.domain.Product;
+import myapp.domain.enumeration.ProductStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new ProductSearchIndex(new SimpleMeterRegistry());
+    }
+
+    private Product product(long id, String title, String keywords, String description) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle(title);
+        product.setKeywords(keywords);
+        product.setDescription(description);
+        product.setPrice(BigDecimal.ONE);
+        product.setStatus(ProductStatus.IN_STOCK);
+        product.setDateAdded(Instant.now());
+        return product;
+    }
+
+    private Product item(long id) {
+        return product(id, "item " + (id % 7 == 0 ? "seven " : "") + (id % 11 == 0 ? "eleven" : ""), null, null);
+    }
+
+    @Test
+    public void testTokenizerNormalizesCaseAndDiacritics() {
+        assertEquals(List.of("um", "bom", "titulo", "42"), ProductTokenizer.tokenize("Um bom Título-42"));
+        assertTrue(ProductTokenizer.tokenize(null).isEmpty());
+    }
+
+    @Test
+    public void testTitleMatchRanksAboveDescriptionMatch() {
+        index.index(product(1L, "plain mug", null, "a red ceramic piece"));
+        index.index(product(2L, "red mug", null, "a ceramic piece"));
+        index.index(product(3L, "blue plate", null, "a ceramic piece"));
+
+        ProductSearchIndex.Hits hits = index.search("red", 0, 10);
+
+        assertEquals(2, hits.totalHits());
+        assertEquals(List.of(2L, 1L), hits.productIds());
+    }
+
+    @Test
+    public void testReindexAndRemove() {
+        index.index(product(1L, "red mug", null, null));
+        index.index(product(1L, "blue mug", null, null));
+
+        assertEquals(0, index.search("red", 0, 10).totalHits());
+        assertEquals(List.of(1L), index.search("blue", 0, 10).productIds());
+
+        index.remove(1L);
+
+        assertEquals(0, index.search("blue mug", 0, 10).totalHits());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testWritesCommittedDuringTheLoadAreReplayedAfterIt() {
+        index.deferUpdates();
+        // committed while the loader reads older rows of the same products
+        index.indexAfterCommit(product(1L, "blue mug", null, null));
+        index.removeAfterCommit(2L);
+        index.index(product(1L, "red mug", null, null));
+        index.index(product(2L, "red plate", null, null));
+
+        assertEquals(2, index.replayDeferredUpdates());
+
+        assertEquals(0, index.search("red", 0, 10).totalHits());
+        assertEquals(List.of(1L), index.search("blue", 0, 10).productIds());
+        assertEquals(1, index.size());
+
+        index.removeAfterCommit(1L);
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testPagination() {
+        for (long id = 1; id <= 5; id++) {
+            index.index(product(id, "mug number " + id, null, null));
+        }
+
+        ProductSearchIndex.Hits hits = index.search("mug", 2, 2);
+
+        assertEquals(5, hits.totalHits());
+        assertEquals(2, hits.productIds().size());
+    }
+
+    @Test
+    public void testPagesPastTheResultWindowAreEmpty() {
+        index.index(product(1L, "mug", null, null));
+
+        assertEquals(0, index.search("mug", ProductSearchIndex.MAX_RESULT_WINDOW, 20).productIds().size());
+        assertEquals(0, index.search("mug", Integer.MAX_VALUE, 20).productIds().size());
+        assertEquals(List.of(1L), index.search("mug", 0, Integer.MAX_VALUE).productIds());
+        assertThrows(IllegalArgumentException.class, () -> index.search("mug", -20, 20));
+    }
+
+    @Test
+    public void testRequiredAndExcludedTerms() {
+        index.index(product(1L, "red mug", null, null));
+        index.index(product(2L, "red plate", null, null));
+        index.index(product(3L, "blue mug", null, null));
+
+        assertEquals(List.of(1L), index.search("+red +mug", 0, 10).productIds());
+        assertEquals(List.of(2L), index.search("red -mug", 0, 10).productIds());
+        assertEquals(0, index.search("+red +cup", 0, 10).totalHits());
+        assertEquals(0, index.search("-mug", 0, 10).totalHits());
+    }
+
+    @Test
+    public void testIntersectionAcrossSkipBlocksAndCompaction() {
+        for (long id = 1; id <= 1_000; id++) {
+            index.index(product(id, "item " + (id % 7 == 0 ? "seven " : "") + (id % 11 == 0 ? "eleven" : ""), null, null));
+        }
+        assertEquals(12, index.search("+seven +eleven", 0, 100).totalHits());
+
+        // re-index enough products out of order to force a compaction, then check nothing was lost
+        for (int pass = 0; pass < 2; pass++) {
+            for (long id = 1_000; id >= 1; id--) {
+                index.index(product(id, "item " + (id % 7 == 0 ? "seven " : "") + (id % 11 == 0 ? "eleven" : ""), null, null));
+            }
+        }
+        assertEquals(1_000, index.size());
+        assertEquals(12, index.search("+seven +eleven", 0, 100).totalHits());
+        assertEquals(142, index.search("seven", 0, 10).totalHits());
+        assertTrue(index.memoryUsage() > 0);
+    }
+
+    @Test
+    public void testSearchesAndWritesCarryOnDuringCompaction() throws Exception {
+        int products = 4_000;
+        for (long id = 1; id <= products; id++) {
+            index.index(item(id));
+        }
+
+        // two writers re-index their half of the products out of order, each compaction one of them triggers
+        // runs while the other keeps writing; every re-index replaces a product atomically for the searches
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int parity = 0; parity < 2; parity++) {
+                long first = products - parity;
+                writers.add(
+                    executor.submit(() -> {
+                        for (int pass = 0; pass < 5; pass++) {
+                            for (long id = first; id >= 1; id -= 2) {
+                                index.index(item(id));
+                            }
+                        }
+                    })
+                );
+            }
+            List<Future<Integer>> searchers = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                searchers.add(
+                    executor.submit(() -> {
+                        int searches = 0;
+                        while (writing.get()) {
+                            assertEquals(51, index.search("+seven +eleven", 0, 100).totalHits());
+                            assertEquals(products, index.search("item", 0, 10).totalHits());
+                            searches++;
+                        }
+                        return searches;
+                    })
+                );
+            }
+            for (Future<?> writer : writers) {
+                writer.get(1, TimeUnit.MINUTES);
+            }
+            writing.set(false);
+            for (Future<Integer> searcher : searchers) {
+                assertTrue(searcher.get(1, TimeUnit.MINUTES) > 0);
+            }
+        } finally {
+            writing.set(false);
+            executor.shutdownNow();
+        }
+
+        assertEquals(products, index.size());
+        assertEquals(51, index.search("+seven +eleven", 0, 100).totalHits());
+        assertEquals(571, index.search("seven", 0, 10).totalHits());
+    }
+}
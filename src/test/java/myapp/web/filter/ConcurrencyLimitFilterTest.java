@@ -0,0 +1,76 @@
+package myapp.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void rejectsTheRequestsBeyondTheLimitOnceTheirTurnDoesNotCome() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, 50, registry);
+        CountDownLatch served = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            try {
+                filter.doFilter(
+                    new MockHttpServletRequest("GET", "/api/products"),
+                    response,
+                    (request, res) -> {
+                        served.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                );
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return response;
+        });
+        assertThat(served.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/products"), second, new MockFilterChain());
+        release.countDown();
+        MockHttpServletResponse third = new MockHttpServletResponse();
+        first.get(5, TimeUnit.SECONDS);
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/products"), third, new MockFilterChain());
+
+        assertThat(second.getStatus()).isEqualTo(503);
+        assertThat(second.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(third.getStatus()).isEqualTo(200);
+        assertThat(registry.get(ConcurrencyLimitFilter.REQUESTS_METER_NAME + ".rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsThePermitOfAnAsynchronousRequestUntilItCompletes() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, 50, registry);
+        MockHttpServletRequest asyncRequest = new MockHttpServletRequest("GET", "/api/orders/_export");
+        asyncRequest.setAsyncSupported(true);
+        filter.doFilter(asyncRequest, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+
+        MockHttpServletResponse whileRunning = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/products"), whileRunning, new MockFilterChain());
+        ((MockAsyncContext) asyncRequest.getAsyncContext()).complete();
+        MockHttpServletResponse onceCompleted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/products"), onceCompleted, new MockFilterChain());
+
+        assertThat(whileRunning.getStatus()).isEqualTo(503);
+        assertThat(onceCompleted.getStatus()).isEqualTo(200);
+        assertThat(registry.get(ConcurrencyLimitFilter.REQUESTS_METER_NAME + ".active").gauge().value()).isZero();
+    }
+}
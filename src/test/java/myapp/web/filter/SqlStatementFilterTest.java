@@ -0,0 +1,103 @@
+package myapp.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import myapp.management.SqlStatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+class SqlStatementFilterTest {
+
+    static class Controller {
+
+        @SqlStatementBudget(2)
+        public void getAllThings() {}
+    }
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final SqlStatementCounter counter = new SqlStatementCounter();
+
+    @Test
+    void returnsTheStatementsOfTheRequestInHeaders() throws Exception {
+        SqlStatementFilter filter = new SqlStatementFilter(true, false, 10, registry);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request(), response, runStatements("select * from thing where id=?", 2));
+
+        assertThat(response.getHeader(SqlStatementFilter.SQL_COUNT_HEADER)).isEqualTo("2");
+        assertThat(response.getHeader(SqlStatementFilter.SQL_TIME_HEADER)).isNotNull();
+        assertThat(response.getContentAsString()).isEqualTo("[]");
+        assertThat(registry.get(SqlStatementFilter.METER_NAME + ".statements").tags("uri", "/api/things").summary().totalAmount())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void streamsTheBodyOfAnAsynchronousRequestWithTheHeadersEnabled() throws Exception {
+        SqlStatementFilter filter = new SqlStatementFilter(true, false, 10, registry);
+        MockHttpServletRequest request = request();
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        List<String> sentSoFar = new ArrayList<>();
+
+        filter.doFilter(request, response, (req, res) -> {
+            req.startAsync();
+            for (int i = 0; i < 3; i++) {
+                res.getOutputStream().write(("{\"id\":" + i + "}\n").getBytes(StandardCharsets.UTF_8));
+                res.getOutputStream().flush();
+                sentSoFar.add(response.getContentAsString());
+            }
+        });
+
+        assertThat(sentSoFar).containsExactly("{\"id\":0}\n", "{\"id\":0}\n{\"id\":1}\n", "{\"id\":0}\n{\"id\":1}\n{\"id\":2}\n");
+        assertThat(response.isCommitted()).isTrue();
+    }
+
+    @Test
+    void countsTheRequestsRunningTheSameStatementAgainAndAgain() throws Exception {
+        SqlStatementFilter filter = new SqlStatementFilter(false, false, 10, registry);
+
+        filter.doFilter(request(), new MockHttpServletResponse(), runStatements("select * from owner where id=?", 20));
+
+        assertThat(registry.get(SqlStatementFilter.METER_NAME + ".repeated").counter().count()).isEqualTo(1);
+        assertThat(registry.get(SqlStatementFilter.METER_NAME + ".over.budget").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failsTheRequestsOverTheirBudgetWhenEnforced() {
+        SqlStatementFilter filter = new SqlStatementFilter(false, true, 10, registry);
+
+        assertThatThrownBy(() ->
+            filter.doFilter(request(), new MockHttpServletResponse(), runStatements("select * from owner where id=?", 3))
+        ).hasMessage("GET /api/things ran 3 SQL statements, over its budget of 2");
+    }
+
+    private MockHttpServletRequest request() throws NoSuchMethodException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/things");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/things");
+        request.setAttribute(
+            HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+            new HandlerMethod(new Controller(), Controller.class.getMethod("getAllThings"))
+        );
+        return request;
+    }
+
+    private FilterChain runStatements(String sql, int times) {
+        return (request, response) -> {
+            for (int i = 0; i < times; i++) {
+                counter.inspect(sql);
+            }
+            response.getWriter().write("[]");
+            response.getWriter().flush();
+        };
+    }
+}
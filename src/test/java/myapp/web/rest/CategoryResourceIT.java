@@ -0,0 +1,85 @@
+package myapp.web.rest;
+
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.Instant;
+import myapp.IntegrationTest;
+import myapp.domain.Category;
+import myapp.domain.Product;
+import myapp.domain.enumeration.CategoryStatus;
+import myapp.domain.enumeration.ProductStatus;
+import myapp.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@link CategoryResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class CategoryResourceIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void answersNotModifiedToAClientHoldingTheCurrentCategoryAndProducts() throws Exception {
+        Product product = productService.save(
+            new Product().title("Mug").price(BigDecimal.TEN).quantityInStock(10).status(ProductStatus.IN_STOCK).dateAdded(Instant.now())
+        );
+        Long categoryId = new TransactionTemplate(transactionManager).execute(status -> {
+            Category category = new Category()
+                .description("Kitchen")
+                .sortOrder(0)
+                .dateAdded(Instant.now())
+                .status(CategoryStatus.AVAILABLE)
+                .addProduct(em.find(Product.class, product.getId()));
+            em.persist(category);
+            return category.getId();
+        });
+
+        // the tag is computed from the category served, the precondition from the version stamps
+        String tag = mockMvc
+            .perform(get("/api/categories/{id}", categoryId))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.products[0].id").value(product.getId()))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        mockMvc
+            .perform(get("/api/categories/{id}", categoryId).header(HttpHeaders.IF_NONE_MATCH, tag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, tag));
+
+        // the category is unchanged, but not the product it embeds
+        product.setVersion(null);
+        productService.update(product.title("Red mug"));
+        mockMvc
+            .perform(get("/api/categories/{id}", categoryId).header(HttpHeaders.IF_NONE_MATCH, tag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.products[0].title").value("Red mug"))
+            .andExpect(header().string(HttpHeaders.ETAG, not(tag)));
+    }
+}
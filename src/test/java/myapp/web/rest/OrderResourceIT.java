@@ -0,0 +1,103 @@
+package myapp.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import myapp.IntegrationTest;
+import myapp.domain.Address;
+import myapp.domain.Customer;
+import myapp.domain.Order;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@link OrderResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class OrderResourceIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void exportsTheOrdersAsOneJsonDocumentPerLineInIdOrder() throws Exception {
+        Customer customer = new Customer().firstName("Jane").lastName("Doe").email(UUID.randomUUID() + "@example.com");
+        List<Order> orders = new TransactionTemplate(transactionManager).execute(status -> {
+            em.persist(customer);
+            Address address = new Address().address1("1 Main Street").city("Springfield").postcode("12345").country("US");
+            address.setCustomer(customer);
+            em.persist(address);
+            List<Order> created = new ArrayList<>();
+            for (int i = 1; i <= 3; i++) {
+                Order order = new Order()
+                    .orderDate(Instant.now())
+                    .status("PLACED")
+                    .totalAmount(BigDecimal.valueOf(i * 1000 + 1, 2))
+                    .customer(customer)
+                    .shippingAddress(address);
+                em.persist(order);
+                created.add(order);
+            }
+            return created;
+        });
+
+        MvcResult export = mockMvc.perform(get("/api/orders/_export")).andExpect(request().asyncStarted()).andReturn();
+        String body = mockMvc
+            .perform(asyncDispatch(export))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-ndjson"))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        assertThat(body).endsWith("\n");
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            // one compact document per line
+            assertThat(line).doesNotContain("\r").startsWith("{").endsWith("}");
+            lines.add(objectMapper.readTree(line));
+        }
+        assertThat(lines).extracting(line -> line.get("id").asLong()).isSorted().doesNotHaveDuplicates();
+        Map<Long, JsonNode> exported = lines.stream().collect(Collectors.toMap(line -> line.get("id").asLong(), Function.identity()));
+        for (Order order : orders) {
+            assertThat(exported).hasEntrySatisfying(order.getId(), line -> {
+                assertThat(line.get("status").asText()).isEqualTo("PLACED");
+                assertThat(line.get("totalAmount").decimalValue()).isEqualByComparingTo(order.getTotalAmount());
+                assertThat(line.get("customer").get("id").asLong()).isEqualTo(customer.getId());
+                assertThat(line.get("shippingAddress").get("id").asLong()).isEqualTo(order.getShippingAddress().getId());
+            });
+        }
+    }
+}
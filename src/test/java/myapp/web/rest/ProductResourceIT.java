@@ -0,0 +1,340 @@
+package myapp.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import myapp.IntegrationTest;
+import myapp.domain.Product;
+import myapp.domain.enumeration.ProductStatus;
+import myapp.repository.ProductRepository;
+import myapp.service.ProductService;
+import myapp.web.rest.util.KeysetPaginationUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Integration tests for the {@link ProductResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class ProductResourceIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Product createProduct(String title) {
+        return createProduct(title, Instant.now());
+    }
+
+    private Product createProduct(String title, Instant dateAdded) {
+        return productService.save(
+            new Product().title(title).price(BigDecimal.TEN).quantityInStock(10).status(ProductStatus.IN_STOCK).dateAdded(dateAdded)
+        );
+    }
+
+    private MockHttpServletRequestBuilder putProduct(Product product) throws Exception {
+        return put("/api/products/{id}", product.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsBytes(product));
+    }
+
+    @Test
+    void answersAnEmptyPageOfSearchResultsPastTheResultWindow() throws Exception {
+        createProduct("Mug");
+
+        // an offset past Integer.MAX_VALUE
+        mockMvc
+            .perform(get("/api/products/_search").param("q", "mug").param("page", "200000000").param("size", "20"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+        mockMvc
+            .perform(get("/api/products/_search").param("q", "mug").param("page", "500").param("size", "20"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0))
+            .andExpect(header().string("X-Total-Count", "0"));
+    }
+
+    @Test
+    void updatesAProductOnlyIfItsEntityTagIsCurrent() throws Exception {
+        Product product = createProduct("Mug");
+        String staleTag = "\"" + product.getVersion() + "\"";
+        product.setVersion(null);
+
+        String currentTag = mockMvc
+            .perform(putProduct(product.title("Red mug")).header(HttpHeaders.IF_MATCH, staleTag))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(jsonPath("$.title").value("Red mug"))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        assertThat(currentTag).isNotEqualTo(staleTag);
+
+        mockMvc
+            .perform(putProduct(product.title("Blue mug")).header(HttpHeaders.IF_MATCH, staleTag))
+            .andExpect(status().isPreconditionFailed());
+        mockMvc
+            .perform(putProduct(product.title("Blue mug")).header(HttpHeaders.IF_MATCH, currentTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value("Blue mug"));
+        assertThat(productRepository.findById(product.getId())).hasValueSatisfying(updated ->
+            assertThat(updated.getTitle()).isEqualTo("Blue mug")
+        );
+    }
+
+    @Test
+    void rejectsAnUpdateWithAMalformedOrMismatchedEntityTag() throws Exception {
+        Product product = createProduct("Mug");
+        String tag = "\"" + product.getVersion() + "\"";
+
+        mockMvc
+            .perform(putProduct(product).header(HttpHeaders.IF_MATCH, "abc"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.ifmatchinvalid"));
+        mockMvc
+            .perform(putProduct(product).header(HttpHeaders.IF_MATCH, "W/" + tag))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.ifmatchinvalid"));
+        mockMvc
+            .perform(putProduct(product).header(HttpHeaders.IF_MATCH, "\"" + (product.getVersion() + 1) + "\""))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.versionmismatch"));
+        mockMvc.perform(putProduct(product).header(HttpHeaders.IF_MATCH, tag)).andExpect(status().isOk());
+    }
+
+    @Test
+    void retriesAnUpdateWithoutVersionThatConflictsWithAConcurrentOne() throws Exception {
+        Product product = createProduct("Mug");
+        Long version = product.getVersion();
+        product.setVersion(null);
+
+        // a concurrent transaction updates the product, and only commits once the update waits for its row lock:
+        // the update read the version before, and conflicts
+        CountDownLatch locked = new CountDownLatch(1);
+        CompletableFuture<Void> concurrentUpdate = CompletableFuture.runAsync(() ->
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                em.find(Product.class, product.getId()).setDescription("Updated concurrently");
+                em.flush();
+                locked.countDown();
+                awaitBlockedSession();
+            })
+        );
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+        mockMvc
+            .perform(putProduct(product.title("Red mug")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value("Red mug"))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + (version + 2) + "\""));
+        concurrentUpdate.get(10, TimeUnit.SECONDS);
+        assertThat(productRepository.findById(product.getId())).hasValueSatisfying(updated -> {
+            assertThat(updated.getTitle()).isEqualTo("Red mug");
+            assertThat(updated.getVersion()).isEqualTo(version + 2);
+        });
+    }
+
+    @Test
+    void answersNotModifiedToAClientHoldingTheCurrentProduct() throws Exception {
+        Product product = createProduct("Mug");
+        product.setVersion(null);
+        // updated once, to have a modification date
+        String tag = mockMvc
+            .perform(putProduct(product.title("Red mug")))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        String later = httpDate(Instant.now().plus(1, ChronoUnit.HOURS));
+        String earlier = httpDate(Instant.now().minus(1, ChronoUnit.HOURS));
+
+        mockMvc
+            .perform(get("/api/products/{id}", product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, tag))
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+        mockMvc
+            .perform(get("/api/products/{id}", product.getId()).header(HttpHeaders.IF_NONE_MATCH, tag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, tag));
+        // If-None-Match uses the weak comparison
+        mockMvc
+            .perform(get("/api/products/{id}", product.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\", W/" + tag))
+            .andExpect(status().isNotModified());
+        mockMvc
+            .perform(get("/api/products/{id}", product.getId()).header(HttpHeaders.IF_MODIFIED_SINCE, later))
+            .andExpect(status().isNotModified());
+        mockMvc
+            .perform(get("/api/products/{id}", product.getId()).header(HttpHeaders.IF_MODIFIED_SINCE, earlier))
+            .andExpect(status().isOk());
+        // If-None-Match takes precedence over If-Modified-Since, both ways
+        mockMvc
+            .perform(
+                get("/api/products/{id}", product.getId())
+                    .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                    .header(HttpHeaders.IF_MODIFIED_SINCE, later)
+            )
+            .andExpect(status().isOk());
+        mockMvc
+            .perform(
+                get("/api/products/{id}", product.getId())
+                    .header(HttpHeaders.IF_NONE_MATCH, tag)
+                    .header(HttpHeaders.IF_MODIFIED_SINCE, earlier)
+            )
+            .andExpect(status().isNotModified());
+
+        // the stock is decremented by a plain update, which bumps the version all the same
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+            assertThat(productRepository.decrementStock(product.getId(), 1)).isTrue()
+        );
+        mockMvc
+            .perform(get("/api/products/{id}", product.getId()).header(HttpHeaders.IF_NONE_MATCH, tag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.quantityInStock").value(9))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + (Long.parseLong(tag.replace("\"", "")) + 1) + "\""));
+    }
+
+    @Test
+    void answersNotModifiedToAClientHoldingTheCurrentPage() throws Exception {
+        createProduct("Mug");
+        Product product = createProduct("Plate");
+        product.setVersion(null);
+
+        // the tag of the page is computed from the products served, the precondition from their version stamps
+        String tag = mockMvc
+            .perform(get("/api/products").param("sort", "id,desc").param("size", "5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value(product.getId()))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        assertThat(tag).isNotNull();
+        mockMvc
+            .perform(get("/api/products").param("sort", "id,desc").param("size", "5").header(HttpHeaders.IF_NONE_MATCH, tag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, tag));
+        mockMvc
+            .perform(get("/api/products").param("sort", "id,desc").param("size", "4").header(HttpHeaders.IF_NONE_MATCH, tag))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(putProduct(product.title("Red plate"))).andExpect(status().isOk());
+        mockMvc
+            .perform(get("/api/products").param("sort", "id,desc").param("size", "5").header(HttpHeaders.IF_NONE_MATCH, tag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].title").value("Red plate"))
+            .andExpect(header().string(HttpHeaders.ETAG, not(tag)));
+    }
+
+    @Test
+    void scrollsThroughProductsAddedAtTheSameDateInIdOrder() throws Exception {
+        // a date of its own, later than the one of the products of the other tests, but not of the earlier runs of this one
+        Instant dateAdded = Instant.parse("2999-01-01T00:00:00Z").plusSeconds(ThreadLocalRandom.current().nextInt(1_000_000));
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(createProduct("Mug " + i, dateAdded).getId());
+        }
+
+        List<Long> scrolled = new ArrayList<>();
+        // starting right before them
+        String after = new KeysetPaginationUtil.Cursor("dateAdded", dateAdded, 0L).encode();
+        String next = "/api/products/_scroll?sort=dateAdded&size=2&after=" + after;
+        while (scrolled.size() < ids.size()) {
+            assertThat(next).isNotNull();
+            MockHttpServletResponse page = mockMvc.perform(get(URI.create(next))).andExpect(status().isOk()).andReturn().getResponse();
+            List<Number> pageIds = JsonPath.read(page.getContentAsString(), "$[*].id");
+            pageIds.forEach(id -> scrolled.add(id.longValue()));
+            String link = page.getHeader(HttpHeaders.LINK);
+            next = link == null ? null : link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+        }
+
+        assertThat(scrolled.subList(0, ids.size())).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    void rejectsTheCursorOfAnotherSort() throws Exception {
+        createProduct("Mug");
+        createProduct("Plate");
+        String link = mockMvc
+            .perform(get("/api/products/_scroll").param("size", "1"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.LINK);
+        String after = UriComponentsBuilder.fromUriString(link.substring(link.indexOf('<') + 1, link.indexOf('>')))
+            .build()
+            .getQueryParams()
+            .getFirst("after");
+
+        mockMvc.perform(get("/api/products/_scroll").param("size", "1").param("after", after)).andExpect(status().isOk());
+        mockMvc
+            .perform(get("/api/products/_scroll").param("size", "1").param("sort", "dateAdded").param("after", after))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.cursorinvalid"));
+    }
+
+    private static String httpDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.ofInstant(instant, ZoneOffset.UTC));
+    }
+
+    private void awaitBlockedSession() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (blockedSessions() == 0) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("The update never waited for the row lock");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private long blockedSessions() {
+        return ((Number) em
+                .createNativeQuery("select count(*) from information_schema.sessions where blocker_id is not null")
+                .getSingleResult()).longValue();
+    }
+}
@@ -0,0 +1,136 @@
+package myapp.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Instant;
+import java.util.UUID;
+import myapp.IntegrationTest;
+import myapp.domain.Address;
+import myapp.domain.Category;
+import myapp.domain.Customer;
+import myapp.domain.Order;
+import myapp.domain.OrderLine;
+import myapp.domain.Product;
+import myapp.domain.WishList;
+import myapp.domain.enumeration.CategoryStatus;
+import myapp.domain.enumeration.ProductStatus;
+import myapp.web.filter.SqlStatementBudget;
+import myapp.web.filter.SqlStatementFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests of the {@link SqlStatementBudget}s of the list endpoints.
+ * <p>
+ * Every entity of a full page is linked to the others, so that an endpoint loading an association once per
+ * element runs over its budget, which the {@link SqlStatementFilter} turns into a failed request in the tests.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class SqlStatementBudgetIT {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void createPage() {
+        Instant now = Instant.now();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Category parent = null;
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                Customer customer = new Customer().firstName("Jane").lastName("Doe").email(UUID.randomUUID() + "@example.com");
+                em.persist(customer);
+                Address address = new Address().address1("1 Main Street").city("Springfield").postcode("12345").country("US");
+                address.setCustomer(customer);
+                em.persist(address);
+                WishList wishList = new WishList().title("Wish list " + i).restricted(false).customer(customer);
+                em.persist(wishList);
+                Order order = new Order()
+                    .orderDate(now)
+                    .status("PLACED")
+                    .totalAmount(BigDecimal.TEN)
+                    .customer(customer)
+                    .shippingAddress(address);
+                em.persist(order);
+                Product product = new Product()
+                    .title("Product " + i)
+                    .price(BigDecimal.TEN)
+                    .quantityInStock(10)
+                    .status(ProductStatus.IN_STOCK)
+                    .dateAdded(now)
+                    .wishList(wishList)
+                    .order(order);
+                em.persist(product);
+                em.persist(new OrderLine().quantity(1).unitPrice(BigDecimal.TEN).productTitle(product.getTitle()).order(order).product(product));
+                Category category = new Category()
+                    .description("Category " + i)
+                    .sortOrder(i)
+                    .dateAdded(now)
+                    .status(CategoryStatus.AVAILABLE)
+                    .parent(parent)
+                    .addProduct(product);
+                em.persist(category);
+                parent = category;
+            }
+        });
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = {
+            "/api/products?size=20",
+            "/api/products?size=20&sort=price,desc",
+            "/api/products/_scroll?size=20",
+            "/api/products/_scroll?size=20&sort=dateAdded",
+            "/api/orders?size=20",
+            "/api/orders/_scroll?size=20",
+            "/api/orders/_scroll?size=20&sort=orderDate",
+            "/api/customers?size=20",
+            "/api/customers/_scroll?size=20",
+            "/api/categories?size=20",
+            "/api/categories?size=20&eagerload=true",
+            "/api/addresses?size=20",
+            "/api/wish-lists",
+        }
+    )
+    void staysWithinItsBudget(String uri) throws Exception {
+        MvcResult page = mockMvc
+            .perform(get(uri))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(greaterThanOrEqualTo(PAGE_SIZE)))
+            .andReturn();
+
+        // the next page of a scroll starts from the cursor of the previous one
+        String link = page.getResponse().getHeader(HttpHeaders.LINK);
+        if (uri.contains("/_scroll")) {
+            assertThat(link).isNotNull();
+            String next = link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+            mockMvc.perform(get(URI.create(next))).andExpect(status().isOk());
+        }
+    }
+}
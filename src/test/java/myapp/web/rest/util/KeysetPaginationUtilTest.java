@@ -0,0 +1,88 @@
+package myapp.web.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import myapp.web.rest.errors.BadRequestAlertException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+class KeysetPaginationUtilTest {
+
+    private static final String SORT_BY_DATE = "dateAdded";
+
+    @Test
+    void decodesTheCursorItEncoded() {
+        KeysetPaginationUtil.Cursor byDate = new KeysetPaginationUtil.Cursor(SORT_BY_DATE, Instant.parse("2024-02-03T04:05:06.789Z"), 42L);
+        KeysetPaginationUtil.Cursor byId = new KeysetPaginationUtil.Cursor(KeysetPaginationUtil.SORT_BY_ID, null, Long.MAX_VALUE);
+
+        assertThat(KeysetPaginationUtil.decodeCursor(byDate.encode(), SORT_BY_DATE, "product")).isEqualTo(byDate);
+        assertThat(KeysetPaginationUtil.decodeCursor(byId.encode(), KeysetPaginationUtil.SORT_BY_ID, "product")).isEqualTo(byId);
+        assertThat(KeysetPaginationUtil.decodeCursor(null, SORT_BY_DATE, "product")).isNull();
+        assertThat(KeysetPaginationUtil.decodeCursor("", SORT_BY_DATE, "product")).isNull();
+    }
+
+    @Test
+    void rejectsACursorIssuedForAnotherSort() {
+        String byId = new KeysetPaginationUtil.Cursor(KeysetPaginationUtil.SORT_BY_ID, null, 42L).encode();
+        String byDate = new KeysetPaginationUtil.Cursor(SORT_BY_DATE, Instant.now(), 42L).encode();
+
+        assertInvalid(byId, SORT_BY_DATE);
+        assertInvalid(byDate, KeysetPaginationUtil.SORT_BY_ID);
+    }
+
+    @Test
+    void rejectsAMalformedCursor() {
+        assertInvalid("not base64!", KeysetPaginationUtil.SORT_BY_ID);
+        assertInvalid(encode("id|42"), KeysetPaginationUtil.SORT_BY_ID);
+        assertInvalid(encode("id||forty-two"), KeysetPaginationUtil.SORT_BY_ID);
+        assertInvalid(encode("dateAdded|yesterday|42"), SORT_BY_DATE);
+        // sorting by date needs the date of the last row
+        assertInvalid(encode("dateAdded||42"), SORT_BY_DATE);
+    }
+
+    @Test
+    void linksTheNextPageFromTheLastRowOfAFullPage() {
+        List<Long> rows = List.of(1L, 2L, 3L);
+        UriComponentsBuilder uri = UriComponentsBuilder.fromUriString("http://localhost/api/products/_scroll?size=2&q=mug");
+
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(uri, rows, 2, KeysetPaginationUtil.SORT_BY_ID, id ->
+            new KeysetPaginationUtil.Cursor(KeysetPaginationUtil.SORT_BY_ID, null, id)
+        );
+
+        String next = new KeysetPaginationUtil.Cursor(KeysetPaginationUtil.SORT_BY_ID, null, 2L).encode();
+        assertThat(headers.getFirst(HttpHeaders.LINK)).isEqualTo(
+            "<http://localhost/api/products/_scroll?q=mug&after=" + next + "&size=2&sort=id>; rel=\"next\""
+        );
+        assertThat(KeysetPaginationUtil.pageContent(rows, 2)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void linksNoPageAfterTheLast() {
+        List<Long> rows = List.of(1L, 2L);
+        UriComponentsBuilder uri = UriComponentsBuilder.fromUriString("http://localhost/api/products/_scroll");
+
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(uri, rows, 2, KeysetPaginationUtil.SORT_BY_ID, id ->
+            new KeysetPaginationUtil.Cursor(KeysetPaginationUtil.SORT_BY_ID, null, id)
+        );
+
+        assertThat(headers.containsKey(HttpHeaders.LINK)).isFalse();
+        assertThat(KeysetPaginationUtil.pageContent(rows, 2)).containsExactly(1L, 2L);
+    }
+
+    private static void assertInvalid(String after, String sort) {
+        assertThatThrownBy(() -> KeysetPaginationUtil.decodeCursor(after, sort, "product"))
+            .isInstanceOf(BadRequestAlertException.class)
+            .extracting(e -> ((BadRequestAlertException) e).getErrorKey())
+            .isEqualTo("cursorinvalid");
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}